@@ -0,0 +1,144 @@
+package breakout;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@code BallKernel} that moves, clamps and bounces a vector of balls at once, using the incubating Vector API.
+ *
+ * The positions are computed in {@code int} lanes, so they overflow exactly like in the scalar kernel. The wall tests square distances,
+ * and the {@code StateHash} keys are 64 bits, so both are computed in {@code long} lanes; the {@code int} vectors are half as wide as
+ * the preferred {@code long} vectors, so that both have the same number of lanes. The keys of the balls before and after are computed
+ * in passes of their own, and take most of the time. The balls that don't fill a whole vector are left to the scalar kernel.
+ *
+ * This class is only compiled and loaded with {@code --add-modules jdk.incubator.vector}; {@code BallKernel.get} loads it by name.
+ */
+
+final class VectorBallKernel extends BallKernel {
+
+	private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+	/** The multipliers of {@code StateHash.mix}. */
+	private static final long MIX1 = 0xbf58476d1ce4e5b9L;
+	private static final long MIX2 = 0x94d049bb133111ebL;
+
+	/** The mask {@code PackedGeometry.pack} applies to the second coordinate. */
+	private static final long LOW = 0xffffffffL;
+
+	@Override
+	String getName() {
+		return "vector (" + LONGS.length() + " lanes)";
+	}
+
+	@Override
+	long moveAndBounceWalls(int[] centerX, int[] centerY, int[] velocityX, int[] velocityY, int[] diameter, int[] time,
+			int from, int to, int width, int height, int elapsedTime) {
+		// The work is split into passes, each a flat loop without helper methods: the JIT compiler stops inlining into a method
+		// that grows too large or nests too deep, and then has to box the vectors it passes to the methods it didn't inline.
+		int end = from + (to - from) / INTS.length() * INTS.length();
+		long delta = keys(centerX, centerY, velocityX, velocityY, diameter, time, from, end);
+		move(centerX, centerY, velocityX, velocityY, diameter, from, end, width, height, elapsedTime);
+		bounceWalls(centerX, centerY, velocityX, velocityY, diameter, from, end, width, height);
+		delta ^= keys(centerX, centerY, velocityX, velocityY, diameter, time, from, end);
+		return delta ^ super.moveAndBounceWalls(centerX, centerY, velocityX, velocityY, diameter, time, end, to, width, height, elapsedTime);
+	}
+
+	/**
+	 * Moves the balls at indices {@code from} up to {@code to}, a multiple of the number of lanes apart, like {@code BallStore.moveBall}.
+	 */
+
+	private static void move(int[] centerX, int[] centerY, int[] velocityX, int[] velocityY, int[] diameter,
+			int from, int to, int width, int height, int elapsedTime) {
+		for (int i = from; i < to; i += INTS.length()) {
+			IntVector radius = IntVector.fromArray(INTS, diameter, i).lanewise(VectorOperators.ASHR, 1);
+			IntVector x = IntVector.fromArray(INTS, centerX, i).add(IntVector.fromArray(INTS, velocityX, i).mul(elapsedTime));
+			IntVector y = IntVector.fromArray(INTS, centerY, i).add(IntVector.fromArray(INTS, velocityY, i).mul(elapsedTime));
+			x = x.blend(radius, x.sub(radius).compare(VectorOperators.LT, 0));
+			x = x.blend(radius.neg().add(width), x.add(radius).compare(VectorOperators.GT, width));
+			y = y.blend(radius.neg().add(height), y.add(radius).compare(VectorOperators.GT, height));
+			y = y.blend(radius, y.sub(radius).compare(VectorOperators.LT, 0));
+			x.intoArray(centerX, i);
+			y.intoArray(centerY, i);
+		}
+	}
+
+	/**
+	 * Bounces the balls at indices {@code from} up to {@code to}, a multiple of the number of lanes apart, off the left, top and right
+	 * walls. The distances to the walls are squared, so they are computed in {@code long} lanes.
+	 *
+	 * Every condition of {@code Ball.contactSides} is written as a difference that must not be negative, and the differences of a wall
+	 * are combined with {@code MIN}, so every wall takes a single comparison. None of the differences overflow, as they are differences
+	 * of {@code int}s or of squares of {@code int}s.
+	 */
+
+	private static void bounceWalls(int[] centerX, int[] centerY, int[] velocityX, int[] velocityY, int[] diameter,
+			int from, int to, int width, int height) {
+		for (int i = from; i < to; i += INTS.length()) {
+			LongVector x = (LongVector)IntVector.fromArray(INTS, centerX, i).convertShape(VectorOperators.I2L, LONGS, 0);
+			LongVector y = (LongVector)IntVector.fromArray(INTS, centerY, i).convertShape(VectorOperators.I2L, LONGS, 0);
+			LongVector vx = (LongVector)IntVector.fromArray(INTS, velocityX, i).convertShape(VectorOperators.I2L, LONGS, 0);
+			LongVector vy = (LongVector)IntVector.fromArray(INTS, velocityY, i).convertShape(VectorOperators.I2L, LONGS, 0);
+			LongVector d = (LongVector)IntVector.fromArray(INTS, diameter, i).convertShape(VectorOperators.I2L, LONGS, 0);
+			LongVector radius = d.lanewise(VectorOperators.ASHR, 1);
+			LongVector radiusSquared = radius.mul(d).lanewise(VectorOperators.ASHR, 1);
+			LongVector toRight = x.neg().add(width);
+			// y + radius >= 0 && y - radius <= height
+			LongVector overlapsVertically = y.add(radius).min(radius.sub(y).add(height));
+			// x >= 0 && x - radius <= 0 && vx <= 0 && radiusSquared >= x * x
+			LongVector left = overlapsVertically.min(x).min(radius.sub(x)).min(vx.neg()).min(radiusSquared.sub(x.mul(x)));
+			// x + radius >= 0 && x - radius <= width && y >= 0 && y - radius <= 0 && vy <= 0 && radiusSquared >= y * y
+			LongVector top = x.add(radius).min(toRight.add(radius)).min(y).min(radius.sub(y)).min(vy.neg()).min(radiusSquared.sub(y.mul(y)));
+			// x <= width && x + radius >= width && vx >= 0 && radiusSquared >= (width - x) * (width - x)
+			LongVector right = overlapsVertically.min(toRight).min(radius.sub(toRight)).min(vx).min(radiusSquared.sub(toRight.mul(toRight)));
+			// A ball bounces off the first wall it hits, in the order left, top, right, like in the scalar kernel. The bitwise complement
+			// of a difference is not negative exactly if the difference is negative, so the order is encoded with MIN and MAX as well.
+			VectorMask<Long> flipX = left.max(right.min(top.not())).compare(VectorOperators.GE, 0);
+			VectorMask<Long> flipY = top.min(left.not()).compare(VectorOperators.GE, 0);
+			vx.lanewise(VectorOperators.NEG, flipX).convertShape(VectorOperators.L2I, INTS, 0).reinterpretAsInts().intoArray(velocityX, i);
+			vy.lanewise(VectorOperators.NEG, flipY).convertShape(VectorOperators.L2I, INTS, 0).reinterpretAsInts().intoArray(velocityY, i);
+		}
+	}
+
+	/**
+	 * Returns the exclusive or of the {@code StateHash} keys of the balls at indices {@code from} up to {@code to},
+	 * a multiple of the number of lanes apart. {@code StateHash.mix} is written out four times, for the index and for every pair.
+	 */
+
+	private static long keys(int[] centerX, int[] centerY, int[] velocityX, int[] velocityY, int[] diameter, int[] time, int from, int to) {
+		LongVector index = LongVector.zero(LONGS).addIndex(1).add(StateHash.BALL + from);
+		LongVector keys = LongVector.zero(LONGS);
+		for (int i = from; i < to; i += INTS.length()) {
+			LongVector h = index;
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 30)).mul(MIX1);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 27)).mul(MIX2);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 31));
+
+			h = h.add(StateHash.GOLDEN).add(((LongVector)IntVector.fromArray(INTS, centerX, i).convertShape(VectorOperators.I2L, LONGS, 0))
+					.lanewise(VectorOperators.LSHL, 32).or(((LongVector)IntVector.fromArray(INTS, centerY, i).convertShape(VectorOperators.I2L, LONGS, 0)).and(LOW)));
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 30)).mul(MIX1);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 27)).mul(MIX2);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 31));
+
+			h = h.add(StateHash.GOLDEN).add(((LongVector)IntVector.fromArray(INTS, velocityX, i).convertShape(VectorOperators.I2L, LONGS, 0))
+					.lanewise(VectorOperators.LSHL, 32).or(((LongVector)IntVector.fromArray(INTS, velocityY, i).convertShape(VectorOperators.I2L, LONGS, 0)).and(LOW)));
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 30)).mul(MIX1);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 27)).mul(MIX2);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 31));
+
+			h = h.add(StateHash.GOLDEN).add(((LongVector)IntVector.fromArray(INTS, diameter, i).convertShape(VectorOperators.I2L, LONGS, 0))
+					.lanewise(VectorOperators.LSHL, 32).or(((LongVector)IntVector.fromArray(INTS, time, i).convertShape(VectorOperators.I2L, LONGS, 0)).and(LOW)));
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 30)).mul(MIX1);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 27)).mul(MIX2);
+			h = h.lanewise(VectorOperators.XOR, h.lanewise(VectorOperators.LSHR, 31));
+
+			keys = keys.lanewise(VectorOperators.XOR, h);
+			index = index.add(INTS.length());
+		}
+		return keys.reduceLanes(VectorOperators.XOR);
+	}
+}
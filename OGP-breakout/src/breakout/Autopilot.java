@@ -0,0 +1,250 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * Steers the paddle of a breakout game by predicting, without simulating, where every ball will cross the top line of the paddle.
+ *
+ * A ball is followed along its straight path, bouncing off the left, right and top walls like {@code BallKernel} makes it
+ * bounce, which comes down to folding its x coordinate back into the field. Blocks are ignored: a ball that hits a block changes
+ * velocity, and so does a ball that hits the paddle. The autopilot listens to the game for these events and only then predicts the
+ * ball again; until then, the prediction of a ball is cached under its id in the ball store. A decision therefore costs a single pass
+ * over the balls, which compares their ids with the cached ones.
+ *
+ * Every decision moves the paddle towards the crossing point of the most urgent ball: the ball that arrives first among the balls the
+ * paddle can still reach in time, or the ball that arrives first if the paddle can't reach any of them. A ball that moves up will most
+ * likely hit a block long before it reaches the top wall, so if the most urgent ball moves up, the paddle stays under it instead.
+ *
+ * An autopilot keeps time by adding up the elapsed times it is asked to decide for, so it should be asked once per tick, and every game
+ * should use an autopilot of its own. It stops listening to a game when it is asked to steer another one.
+ */
+
+public final class Autopilot {
+
+	/** The arrival time of a ball that never crosses the top line of the paddle on its current path. */
+	private static final long NEVER = Long.MAX_VALUE;
+
+	/** The arrival time of a cached prediction whose ball changed velocity since. */
+	private static final long STALE = Long.MIN_VALUE;
+
+	/** The distance the paddle moves per millisecond, like {@code BreakoutState.movePaddleRight}. */
+	private static final int PADDLE_SPEED = 10;
+
+	/**
+	 * The predictions of a set of balls: the ball with id {@code ids[k]} crosses the top line of the paddle at x coordinate
+	 * {@code interceptX[k]}, at time {@code arrival[k]}, when moving with speeds {@code speedX[k]} and {@code speedY[k]}.
+	 * Wall bounces only flip the signs of the velocity, so a ball whose speeds differ from the predicted ones changed velocity
+	 * in a way the autopilot missed.
+	 *
+	 * @invar | ids != null && interceptX != null && arrival != null && speedX != null && speedY != null
+	 * @invar The ids are in increasing order, like the ids in a ball store
+	 * @invar | 0 <= size && size <= ids.length
+	 */
+
+	private static final class Predictions {
+		long[] ids = new long[0];
+		int[] interceptX = new int[0];
+		long[] arrival = new long[0];
+		int[] speedX = new int[0];
+		int[] speedY = new int[0];
+		int size;
+
+		void ensureCapacity(int capacity) {
+			if (ids.length >= capacity)
+				return;
+			capacity = Math.max(capacity, 2 * ids.length);
+			ids = Arrays.copyOf(ids, capacity);
+			interceptX = Arrays.copyOf(interceptX, capacity);
+			arrival = Arrays.copyOf(arrival, capacity);
+			speedX = Arrays.copyOf(speedX, capacity);
+			speedY = Arrays.copyOf(speedY, capacity);
+		}
+	}
+
+	/**
+	 * The cached predictions, and the predictions the cache is rebuilt into before the two are swapped.
+	 *
+	 * @invar | cache != null && next != null && cache != next
+	 */
+
+	private Predictions cache = new Predictions();
+	private Predictions next = new Predictions();
+
+	private BreakoutState state;
+	private int paddleTop;
+	private long now;
+
+	private final GameEventListener listener = new GameEventListener() {
+		@Override
+		public void blockDamaged(int ball, Point topLeft, Point bottomRight, int health) {
+			invalidate(ball);
+		}
+		@Override
+		public void blockDestroyed(int ball, Point topLeft, Point bottomRight) {
+			invalidate(ball);
+		}
+		@Override
+		public void paddleHit(int ball) {
+			invalidate(ball);
+		}
+	};
+
+	/**
+	 * Returns the direction the paddle of {@code state} should move in during the next tick of {@code elapsedTime} milliseconds:
+	 * -1 for left, 1 for right and 0 to stand still.
+	 *
+	 * @throws IllegalArgumentException if {@code state} is {@code null}
+	 * 		| state == null
+	 * @throws IllegalArgumentException if {@code elapsedTime} is not positive
+	 * 		| elapsedTime <= 0
+	 *
+	 * @mutates | this
+	 *
+	 * @post | result == -1 || result == 0 || result == 1
+	 */
+
+	public int paddleDirection(BreakoutState state, int elapsedTime) {
+		if (state == null)
+			throw new IllegalArgumentException("state can't be null");
+		if (elapsedTime <= 0)
+			throw new IllegalArgumentException("elapsedTime must be positive");
+		attach(state);
+		int top = state.getPaddleCenterY() - PaddleState.SIZE.getY();
+		if (top != paddleTop) {
+			paddleTop = top;
+			cache.size = 0;
+		}
+		BallStore balls = state.getBallStore();
+		update(balls, state.getBottomRight().getX());
+
+		int paddleX = state.getPaddleCenterX();
+		long[] arrival = cache.arrival;
+		int[] interceptX = cache.interceptX;
+		int target = -1;
+		boolean reachable = false;
+		for (int k = 0; k < cache.size; k++) {
+			if (arrival[k] == NEVER)
+				continue;
+			boolean canReach = Math.abs(interceptX[k] - paddleX) - PaddleState.SIZE.getX() <= PADDLE_SPEED * (arrival[k] - now);
+			if (target == -1 || canReach && !reachable || canReach == reachable && arrival[k] < arrival[target]) {
+				target = k;
+				reachable = canReach;
+			}
+		}
+		now += elapsedTime;
+		if (target == -1)
+			return 0;
+		// The cache holds the balls in the order of the store, so the target is also the index of its ball.
+		int dx = (balls.velocityY[target] > 0 ? interceptX[target] : balls.centerX[target]) - paddleX;
+		return Math.abs(dx) < PADDLE_SPEED * elapsedTime ? 0 : Integer.signum(dx);
+	}
+
+	private void attach(BreakoutState state) {
+		if (state == this.state)
+			return;
+		if (this.state != null)
+			this.state.removeListener(listener);
+		state.addListener(listener);
+		this.state = state;
+		cache.size = 0;
+	}
+
+	/**
+	 * Marks the prediction of the ball at index {@code ball} of the attached game as stale, if it is cached.
+	 */
+
+	private void invalidate(int ball) {
+		int k = Arrays.binarySearch(cache.ids, 0, cache.size, state.getBallStore().getId(ball));
+		if (k >= 0)
+			cache.arrival[k] = STALE;
+	}
+
+	/**
+	 * Makes the cache hold a prediction for every ball of {@code balls}, in the order of the store, keeping the cached predictions
+	 * that are still valid and dropping the ones of lost balls.
+	 */
+
+	private void update(BallStore balls, int width) {
+		int size = balls.size();
+		// New balls get larger ids than any ball before them, so if the last ids match, no ball was added, and if the sizes match too,
+		// no ball was lost either: the cache then holds the same balls as the store and is updated in place.
+		if (size == cache.size && (size == 0 || balls.id[size - 1] == cache.ids[size - 1])) {
+			for (int i = 0; i < size; i++) {
+				if (!isValid(cache, i, balls.velocityX[i], balls.velocityY[i]))
+					predict(cache, i, balls, width);
+			}
+			return;
+		}
+		next.ensureCapacity(size);
+		int k = 0;
+		for (int i = 0; i < size; i++) {
+			long id = balls.id[i];
+			while (k < cache.size && cache.ids[k] < id)
+				k++;
+			next.ids[i] = id;
+			if (k < cache.size && cache.ids[k] == id && isValid(cache, k, balls.velocityX[i], balls.velocityY[i])) {
+				next.interceptX[i] = cache.interceptX[k];
+				next.arrival[i] = cache.arrival[k];
+				next.speedX[i] = cache.speedX[k];
+				next.speedY[i] = cache.speedY[k];
+			} else {
+				predict(next, i, balls, width);
+			}
+		}
+		next.size = size;
+		Predictions swap = cache;
+		cache = next;
+		next = swap;
+	}
+
+	/**
+	 * Returns whether prediction {@code k} of {@code predictions} still holds for a ball with the given velocity.
+	 */
+
+	private boolean isValid(Predictions predictions, int k, int vx, int vy) {
+		long arrival = predictions.arrival[k];
+		return arrival != STALE && (arrival == NEVER || arrival >= now)
+				&& predictions.speedX[k] == Math.abs(vx) && predictions.speedY[k] == Math.abs(vy);
+	}
+
+	/**
+	 * Predicts where and when the ball at index {@code i} of {@code balls} crosses the top line of the paddle, and stores the prediction
+	 * at index {@code i} of {@code predictions}.
+	 */
+
+	private void predict(Predictions predictions, int i, BallStore balls, int width) {
+		int x = balls.centerX[i];
+		int y = balls.centerY[i];
+		int vx = balls.velocityX[i];
+		int vy = balls.velocityY[i];
+		int radius = balls.diameter[i] / 2;
+		predictions.speedX[i] = Math.abs(vx);
+		predictions.speedY[i] = Math.abs(vy);
+		// The vertical distance the center travels until the bottom of the ball reaches the top line of the paddle,
+		// via the top wall if the ball is moving up.
+		long dy = vy > 0 ? (long)paddleTop - radius - y : (long)y + paddleTop - 3L * radius;
+		if (vy == 0 || dy < 0) {
+			predictions.interceptX[i] = x;
+			predictions.arrival[i] = NEVER;
+			return;
+		}
+		long speed = Math.abs(vy);
+		predictions.interceptX[i] = interceptX(x, vx * dy / speed, radius, width);
+		predictions.arrival[i] = now + dy / speed;
+	}
+
+	/**
+	 * Returns the x coordinate of the center of a ball with the given radius that starts at {@code x} and moves {@code dx} horizontally,
+	 * bouncing off the walls of a field of the given width.
+	 *
+	 * @pre | radius <= x && x <= width - radius
+	 */
+
+	static int interceptX(int x, long dx, int radius, int width) {
+		long span = width - 2L * radius;
+		if (span <= 0)
+			return x;
+		long folded = Math.floorMod(x - radius + dx, 2 * span);
+		return (int)(radius + (folded > span ? 2 * span - folded : folded));
+	}
+}
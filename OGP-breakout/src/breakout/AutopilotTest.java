@@ -0,0 +1,53 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class AutopilotTest {
+
+	@Test
+	void testInterceptX() {
+		assertEquals(1500, Autopilot.interceptX(1000, 500, 100, 10000));
+		assertEquals(8800, Autopilot.interceptX(9000, 2000, 100, 10000));
+		assertEquals(700, Autopilot.interceptX(1000, -1500, 100, 10000));
+		assertEquals(1000, Autopilot.interceptX(1000, 2 * 2 * 9800, 100, 10000));
+		assertEquals(5000, Autopilot.interceptX(5000, 123456, 5000, 10000));
+	}
+
+	@Test
+	void testInterceptsBall() {
+		// The ball bounces off the right wall before it reaches the paddle, which starts at the other side of the field.
+		Ball ball = new NormalBall(new Point(40000, 10000), 700, new Vector(6, 5));
+		BlockState block = new NormalBlockState(new Point(0, 0), new Point(1000, 1000));
+		BreakoutState state = new BreakoutState(new Ball[] {ball}, new BlockState[] {block}, new Point(50000, 30000),
+				new NormalPaddleState(new Point(5000, 28000)));
+		int[] hits = new int[1];
+		state.addListener(new GameEventListener() {
+			@Override
+			public void paddleHit(int ball) {
+				hits[0]++;
+			}
+		});
+		Autopilot autopilot = new Autopilot();
+		for (int tick = 0; tick < 500 && hits[0] == 0; tick++) {
+			int paddleDir = autopilot.paddleDirection(state, 20);
+			if (paddleDir == -1)
+				state.movePaddleLeft(20);
+			if (paddleDir == 1)
+				state.movePaddleRight(20);
+			state.tick(paddleDir, 20);
+			assertEquals(1, state.getBallCount());
+		}
+		assertEquals(1, hits[0]);
+	}
+
+	@Test
+	void testIllegalArguments() {
+		Autopilot autopilot = new Autopilot();
+		BreakoutState state = GameMap.createStateFromDescription("#\n o\n\n =\n");
+		assertThrows(IllegalArgumentException.class, () -> autopilot.paddleDirection(null, 20));
+		assertThrows(IllegalArgumentException.class, () -> autopilot.paddleDirection(state, 0));
+	}
+
+}
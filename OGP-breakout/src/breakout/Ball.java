@@ -165,6 +165,21 @@ public abstract class Ball {
 	
 	}
 	
+	/**
+	 * Returns a hash code for this ball that is consistent with {@code equals}.
+	 */
+	
+	@Override
+	
+	public int hashCode() {
+		final int prime = 31;
+		int result = getClass().getName().hashCode();
+		result = prime * result + center.hashCode();
+		result = prime * result + diameter;
+		result = prime * result + velocity.hashCode();
+		return prime * result + getTime();
+	}
+	
 	/** 
 	 * Changes the ball's center according with its velocity and the amount of milliseconds since the last time it moved.
 	 * 
@@ -189,22 +204,24 @@ public abstract class Ball {
 	 */
 	
 	public void moveBall(Point br, int timeElapsed) {
-		Point newCenter = center.plus(velocity.scaled(timeElapsed));
-		if (newCenter.getX() - diameter/2 < 0) {
-			newCenter = new Point(diameter/2, newCenter.getY());
+		long newCenter = PackedGeometry.plus(center.toPacked(), PackedGeometry.scaled(velocity.toPacked(), timeElapsed));
+		int x = PackedGeometry.getX(newCenter);
+		int y = PackedGeometry.getY(newCenter);
+		if (x - diameter/2 < 0) {
+			x = diameter/2;
 		}
-		if (newCenter.getX() + diameter/2 > br.getX()) {
-			newCenter = new Point(br.getX() - diameter/2, newCenter.getY());
+		if (x + diameter/2 > br.getX()) {
+			x = br.getX() - diameter/2;
 		}
 		
-		if (newCenter.getY() + diameter/2 > br.getY()) {
-			newCenter = new Point(newCenter.getX(), br.getY() - diameter/2);
+		if (y + diameter/2 > br.getY()) {
+			y = br.getY() - diameter/2;
 		}
 		
-		if (newCenter.getY() - diameter/2 < 0) {
-			newCenter = new Point(newCenter.getX(), diameter/2);
+		if (y - diameter/2 < 0) {
+			y = diameter/2;
 		}
-		center = newCenter;
+		center = new Point(x, y);
 	}
 	
 	/**
@@ -230,17 +247,17 @@ public abstract class Ball {
 		
 		if (wallNumber == 1) {
 			// leftWall
-			velocity = velocity.mirrorOver(new Vector(1, 0));
+			velocity = velocity.mirrorOver(Vector.RIGHT);
 			return;
 		}
 		if (wallNumber == 2) {
 			// topWall
-			velocity = velocity.mirrorOver(new Vector(0, 1));
+			velocity = velocity.mirrorOver(Vector.DOWN);
 			return;
 		}
 		if (wallNumber == 3) {
 			// righttWall
-			velocity = velocity.mirrorOver(new Vector(-1, 0));
+			velocity = velocity.mirrorOver(Vector.LEFT);
 		}
 	}
 	
@@ -275,20 +292,20 @@ public abstract class Ball {
 	 */
 	
 	public void bouncePaddle(int paddleDir, int paddleSideNumber) {
-		int addedVelocity = paddleDir * 2;
+		long addedVelocity = PackedGeometry.pack(paddleDir * 2, 0);
 		if (paddleSideNumber == 1) {
 			// leftSide
-			velocity = velocity.mirrorOver(new Vector(-1, 0)).plus(new Vector(addedVelocity, 0));
+			velocity = Vector.fromPacked(PackedGeometry.plus(PackedGeometry.mirrorOver(velocity.toPacked(), Vector.LEFT.toPacked()), addedVelocity));
 			return;
 		}
 		if (paddleSideNumber == 2) {
 			// topSide
-			velocity = velocity.mirrorOver(new Vector(0, -1)).plus(new Vector(addedVelocity, 0));
+			velocity = Vector.fromPacked(PackedGeometry.plus(PackedGeometry.mirrorOver(velocity.toPacked(), Vector.UP.toPacked()), addedVelocity));
 			return;
 		}
 		if (paddleSideNumber == 3) {
 			// rightSide
-			velocity = velocity.mirrorOver(new Vector(1, 0)).plus(new Vector(addedVelocity, 0));
+			velocity = Vector.fromPacked(PackedGeometry.plus(PackedGeometry.mirrorOver(velocity.toPacked(), Vector.RIGHT.toPacked()), addedVelocity));
 		}
 	}
 	
@@ -336,21 +353,33 @@ public abstract class Ball {
 	 */
 	
 	public void hitBlock(Rect rect, boolean destroyed) {
-			if (raaktRechthoek(rect, 1)) {
-				velocity = velocity.mirrorOver(new Vector(0, 1));
-				return;
-			}
-			if (raaktRechthoek(rect, 2)) {
-				velocity = velocity.mirrorOver(new Vector(-1, 0));
-				return;
-			}
-			if (raaktRechthoek(rect, 3)) {
-				velocity = velocity.mirrorOver(new Vector(0, -1));
-				return;
-			}
-			if (raaktRechthoek(rect, 4))
-				velocity = velocity.mirrorOver(new Vector(1, 0));
-		
+		int sides = contactSides(rect);
+		if (sides != 0)
+			hitBlockSide(firstContactSide(sides), destroyed);
+	}
+	
+	/**
+	 * Changes this ball's velocity after it bounced against the given side of a block, indicated by {@code sideNumber}, depending on what kind of ball this is.
+	 * 			(1 indicates the bottom side, 2 indicates the left side, 3 indicates the top side and 4 indicates the right side)
+	 * 
+	 * @pre Argument {@code sideNumber} should be 1, 2, 3 or 4
+	 * 		| sideNumber == 1 || sideNumber == 2 || sideNumber == 3 || sideNumber == 4
+	 * 
+	 * @mutates | this
+	 * 
+	 * @post This ball's center and diameter remained unchanged.
+	 * 		| getCenter() == old(getCenter()) &&
+	 * 		| getDiameter() == old(getDiameter())
+	 * 
+	 * @post This ball's velocity got mirrored over the normal of the given side.
+	 * 		| sideNumber == 1 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(0, 1))) ||
+	 * 		| sideNumber == 2 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(-1, 0))) ||
+	 * 		| sideNumber == 3 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(0, -1))) ||
+	 * 		| sideNumber == 4 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(1, 0)))
+	 */
+	
+	public void hitBlockSide(int sideNumber, boolean destroyed) {
+		velocity = velocity.mirrorOver(getSideNormal(sideNumber));
 	}
 	
 	/**
@@ -379,86 +408,123 @@ public abstract class Ball {
 	 */
 	
 	public boolean raaktRechthoek(Rect rechthoek, int sideNumber) {
-		Point ballOnderstePunt = new Point(center.getX(), center.getY() + diameter/2);
-		Point ballBovenstePunt = new Point(center.getX(), center.getY() - diameter/2);
-		Point ballLinksePunt = new Point(center.getX() - diameter/2, center.getY());
-		Point ballRechtsePunt = new Point(center.getX() + diameter/2, center.getY());
+		return (contactSides(rechthoek) & (1 << sideNumber)) != 0;
+	}
+	
+	/**
+	 * Returns the sides of {@code rect} this ball hits, as a bit set in which bit {@code 1 << sideNumber} is set for every side
+	 * for which {@code raaktRechthoek(rect, sideNumber)} holds.
+	 * 
+	 * @pre Argument {@code rect} should not be {@code null}
+	 * 		| rect != null
+	 * 
+	 * @inspects | this
+	 * 
+	 * @post | result == contactSides(rect.getTopLeft().getX(), rect.getTopLeft().getY(), rect.getBottomRight().getX(), rect.getBottomRight().getY())
+	 */
+	
+	public int contactSides(Rect rect) {
+		return contactSides(rect.getTopLeft().getX(), rect.getTopLeft().getY(), rect.getBottomRight().getX(), rect.getBottomRight().getY());
+	}
+	
+	/**
+	 * Returns the sides of the rectangle with the given bounds this ball hits, as a bit set in which bit {@code 1 << sideNumber} is set
+	 * for every side the ball hits according to the rules of {@code raaktRechthoek}.
+	 * 			(1 indicates the bottom side, 2 indicates the left side, 3 indicates the top side and 4 indicates the right side)
+	 * All four sides are classified in a single pass over the ball's bounds, without creating any objects.
+	 * The computations are done in {@code long}, so they are exact for all {@code int} coordinates, however large the field is.
+	 * 
+	 * @pre The bounds describe a rectangle that has a nonzero width and height
+	 * 		| left < right && top < bottom
+	 * 
+	 * @inspects | this
+	 * 
+	 * @post Only the bits of the four sides can be set
+	 * 		| (result & ~0b11110) == 0
+	 */
+	
+	public int contactSides(int left, int top, int right, int bottom) {
+		return contactSides(center.getX(), center.getY(), diameter, velocity.getX(), velocity.getY(), left, top, right, bottom);
+	}
+	
+	/**
+	 * Returns the sides of the rectangle with the given bounds a ball with center {@code (x, y)}, diameter {@code diameter}
+	 * and velocity {@code (vx, vy)} hits, like {@code contactSides(left, top, right, bottom)}.
+	 * 
+	 * @pre | diameter >= 0
+	 * @pre | left < right && top < bottom
+	 */
+	
+	static int contactSides(long x, long y, int diameter, int vx, int vy, int left, int top, int right, int bottom) {
+		long radius = diameter/2;
+		long radiusSquared = radius * diameter / 2;
+		boolean overlapsHorizontally = x + radius >= left && x - radius <= right;
+		boolean overlapsVertically = y + radius >= top && y - radius <= bottom;
+		int sides = 0;
 		// bottomSide
-		if (sideNumber == 1) {
-			if (ballRechtsePunt.getX() >= rechthoek.getTopLeft().getX() && ballLinksePunt.getX() <= rechthoek.getBottomRight().getX() && center.getY() >= rechthoek.getBottomRight().getY() && ballBovenstePunt.getY() <= rechthoek.getBottomRight().getY()) {
-				Point linksOnder = new Point(rechthoek.getTopLeft().getX(), rechthoek.getBottomRight().getY());
-				Point rechtsOnder = rechthoek.getBottomRight();
-				if (getDiameter()/2 * getDiameter()/2 >= distanceCenterTo2Points(linksOnder, rechtsOnder)) {
-					return raakDottedProduct(velocity, new Vector(0, 1));
-				}
-			}
-		}
+		if (overlapsHorizontally && y >= bottom && y - radius <= bottom && vy <= 0 && radiusSquared >= squared(y - bottom))
+			sides |= 1 << 1;
 		// leftSide
-		if (sideNumber == 2) {
-			if (center.getX() <= rechthoek.getTopLeft().getX() && ballRechtsePunt.getX() >= rechthoek.getTopLeft().getX() && ballBovenstePunt.getY() <= rechthoek.getBottomRight().getY() && ballOnderstePunt.getY() >= rechthoek.getTopLeft().getY()) {
-				Point linksBoven = rechthoek.getTopLeft();
-				Point linksOnder = new Point(rechthoek.getTopLeft().getX(), rechthoek.getBottomRight().getY());
-				if (getDiameter()/2 * getDiameter()/2 >= distanceCenterTo2Points(linksBoven, linksOnder)) {
-					return raakDottedProduct(velocity, new Vector(-1, 0));
-				}
-			}
-		}
-		//topSide
-		if (sideNumber == 3) {
-			if (ballRechtsePunt.getX() >= rechthoek.getTopLeft().getX() && ballLinksePunt.getX() <= rechthoek.getBottomRight().getX() && center.getY() <= rechthoek.getTopLeft().getY() && ballOnderstePunt.getY() >= rechthoek.getTopLeft().getY()) {
-				Point rechthoekRechtsBovenPunt = new Point(rechthoek.getBottomRight().getX(), rechthoek.getTopLeft().getY());
-				if (getDiameter()/2 * getDiameter()/2 >= distanceCenterTo2Points(rechthoek.getTopLeft(), rechthoekRechtsBovenPunt)) {
-					return raakDottedProduct(velocity, new Vector(0, -1));
-				}
-			}
-		}
-		//rightSide
-		if (sideNumber == 4) {
-			if (ballOnderstePunt.getY() >= rechthoek.getTopLeft().getY() && ballBovenstePunt.getY() <= rechthoek.getBottomRight().getY() && center.getX() >= rechthoek.getBottomRight().getX() && ballLinksePunt.getX() <= rechthoek.getBottomRight().getX()) {
-				Point rechthoekRechtsBovenPunt = new Point(rechthoek.getBottomRight().getX(), rechthoek.getTopLeft().getY());
-				if (getDiameter()/2 * getDiameter()/2 >= distanceCenterTo2Points(rechthoekRechtsBovenPunt, rechthoek.getBottomRight())) {
-					return raakDottedProduct(velocity, new Vector(1, 0));
-				}
-			}
-		}
-		return false;
+		if (overlapsVertically && x <= left && x + radius >= left && vx >= 0 && radiusSquared >= squared(left - x))
+			sides |= 1 << 2;
+		// topSide
+		if (overlapsHorizontally && y <= top && y + radius >= top && vy >= 0 && radiusSquared >= squared(top - y))
+			sides |= 1 << 3;
+		// rightSide
+		if (overlapsVertically && x >= right && x - radius <= right && vx <= 0 && radiusSquared >= squared(x - right))
+			sides |= 1 << 4;
+		return sides;
 	}
 	
 	/**
-	 * Returns the distance of the center of the ball to a line constructed by 2 points to the power of 2.
+	 * Returns the lowest numbered side in the given bit set of sides, as returned by {@code contactSides}.
 	 * 
-	 * @pre {@code punt1} is not {@code null}
-	 * 		| punt1 != null
-	 * @pre {@code punt2} is not {@code null}
-	 * 		| punt2 != null
-	 * @pre {@code punt1} must have either a different x-coordinate to {@code punt2}, a different y-coordinate or both.
-	 * 		| punt1.getX() != punt2.getX() || 
-	 * 		|	punt1.getY() != punt2.getY()
+	 * @pre At least one side is set
+	 * 		| sides != 0
 	 * 
-	 * @inspects | this
+	 * @post | 1 <= result && result <= 4
+	 * @post | (sides & (1 << result)) != 0
+	 */
+	
+	public static int firstContactSide(int sides) {
+		return Integer.numberOfTrailingZeros(sides);
+	}
+	
+	/**
+	 * Returns the outward normal of the given side of a rectangle.
+	 * 
+	 * @pre Argument {@code sideNumber} should be 1, 2, 3 or 4
+	 * 		| sideNumber == 1 || sideNumber == 2 || sideNumber == 3 || sideNumber == 4
 	 * 
-	 * @post The result is the distance between the center of the ball and the line constructed by the 2 given points.
-	 * 		| result == 
-	 * 		|	((punt2.getX() - punt1.getX()) * (punt1.getY() - getCenter().getY()) - 
-	 * 		| 			(punt1.getX() - getCenter().getX()) * (punt2.getY() - punt1.getY())) * 
-	 * 		|		((punt2.getX() - punt1.getX()) * (punt1.getY() - getCenter().getY()) - 
-	 * 		| 			(punt1.getX() - getCenter().getX()) * (punt2.getY() - punt1.getY())) / 
-	 * 		|	((punt2.getX() - punt1.getX()) * (punt2.getX() - punt1.getX()) + 
-	 * 		|		(punt2.getY() - punt1.getY()) * (punt2.getY() - punt1.getY()))
+	 * @post | sideNumber == 1 ? result == Vector.DOWN :
+	 * 		| sideNumber == 2 ? result == Vector.LEFT :
+	 * 		| sideNumber == 3 ? result == Vector.UP :
+	 * 		| result == Vector.RIGHT
 	 */
 	
-	private int distanceCenterTo2Points(Point punt1, Point punt2) {
-		int x1 = punt1.getX();
-		int x2 = punt2.getX();
-		int y1 = punt1.getY();
-		int y2 = punt2.getY();
-		int x0 = center.getX();
-		int y0 = center.getY();
-		int bovenEquation = (x2 - x1)*(y1 - y0) - (x1 - x0)*(y2 - y1);
-		int onderEquation = (x2 - x1)*(x2 - x1) + (y2 - y1)*(y2 - y1);
-		int equation = (bovenEquation)*(bovenEquation) / (onderEquation);
-		
-		return equation;
+	public static Vector getSideNormal(int sideNumber) {
+		switch (sideNumber) {
+		case 1:
+			return Vector.DOWN;
+		case 2:
+			return Vector.LEFT;
+		case 3:
+			return Vector.UP;
+		default:
+			return Vector.RIGHT;
+		}
+	}
+	
+	/**
+	 * Returns the square of {@code distance}.
+	 * The sides of a rectangle are axis-aligned, so the squared distance of a point to the line through a side
+	 * is the square of the difference of a single coordinate. Computing it in {@code long} keeps it exact for any pair of {@code int} coordinates.
+	 * 
+	 * @post | result == distance * distance
+	 */
+	
+	private static long squared(long distance) {
+		return distance * distance;
 	}
 	
 }
@@ -0,0 +1,98 @@
+package breakout;
+
+/**
+ * Moves balls and bounces them off the left, top and right walls, like {@code BallStore.moveBall} followed by the wall checks of
+ * {@code BreakoutState.tick}, in a single pass over the arrays of a ball store.
+ *
+ * Every ball is handled on its own, so the balls can be handled in any order, or several at once. This class handles them one by one;
+ * {@code VectorBallKernel}, in the {@code src-vector} source folder, handles a vector of balls at once with the incubating Vector API.
+ * That folder has to be compiled and run with {@code --add-modules jdk.incubator.vector}; {@code get} returns the vectorized kernel
+ * if the module is present and the class can be loaded, and this class otherwise. Setting the system property
+ * {@code breakout.kernel} to {@code scalar} forces this class.
+ */
+
+class BallKernel {
+
+	/** The kernel that handles one ball at a time. */
+	static final BallKernel SCALAR = new BallKernel();
+
+	private static final BallKernel PREFERRED = load();
+
+	BallKernel() {}
+
+	private static BallKernel load() {
+		if ("scalar".equals(System.getProperty("breakout.kernel")) || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+			return SCALAR;
+		try {
+			return (BallKernel)Class.forName("breakout.VectorBallKernel").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return SCALAR;
+		}
+	}
+
+	/**
+	 * Returns the fastest kernel available.
+	 *
+	 * @post | result != null
+	 */
+
+	static BallKernel get() {
+		return PREFERRED;
+	}
+
+	/**
+	 * Returns the name of this kernel, for reports.
+	 */
+
+	String getName() {
+		return "scalar";
+	}
+
+	/**
+	 * Moves the balls at indices {@code from} up to {@code to} of the given arrays, which are those of a ball store, by
+	 * {@code elapsedTime} milliseconds in a field with bottom right corner {@code (width, height)}, and bounces them off the
+	 * left, top and right walls. Returns the exclusive or of the {@code StateHash} keys of these balls before and after,
+	 * which the store's hash has to be updated with.
+	 *
+	 * @pre | 0 <= from && from <= to && to <= centerX.length
+	 * @pre All arrays have the same length
+	 * @pre | java.util.stream.IntStream.range(from, to).allMatch(i -> diameter[i] >= 0)
+	 *
+	 * @mutates | centerX, centerY, velocityX, velocityY
+	 */
+
+	long moveAndBounceWalls(int[] centerX, int[] centerY, int[] velocityX, int[] velocityY, int[] diameter, int[] time,
+			int from, int to, int width, int height, int elapsedTime) {
+		long delta = 0;
+		for (int i = from; i < to; i++) {
+			int d = diameter[i];
+			int radius = d/2;
+			int vx = velocityX[i];
+			int vy = velocityY[i];
+			delta ^= StateHash.ball(i, centerX[i], centerY[i], vx, vy, d, time[i]);
+			int x = centerX[i] + vx * elapsedTime;
+			int y = centerY[i] + vy * elapsedTime;
+			if (x - radius < 0)
+				x = radius;
+			if (x + radius > width)
+				x = width - radius;
+			if (y + radius > height)
+				y = height - radius;
+			if (y - radius < 0)
+				y = radius;
+			// rightSide of the left wall, bottomSide of the top wall and leftSide of the right wall, in that order
+			if ((Ball.contactSides(x, y, d, vx, vy, -1, 0, 0, height) & 1 << 4) != 0)
+				vx = -vx;
+			else if ((Ball.contactSides(x, y, d, vx, vy, 0, -1, width, 0) & 1 << 1) != 0)
+				vy = -vy;
+			else if ((Ball.contactSides(x, y, d, vx, vy, width, 0, width + 1, height) & 1 << 2) != 0)
+				vx = -vx;
+			centerX[i] = x;
+			centerY[i] = y;
+			velocityX[i] = vx;
+			velocityY[i] = vy;
+			delta ^= StateHash.ball(i, x, y, vx, vy, d, time[i]);
+		}
+		return delta;
+	}
+}
@@ -0,0 +1,93 @@
+package breakout;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the scalar ball kernel with the fastest one available by moving the same random balls with both, for several numbers of balls,
+ * and reports the time per ball per tick. It also checks that both kernels end with the same balls and the same hash.
+ *
+ * The vectorized kernel is only available when {@code src-vector} is compiled and the benchmark is run with
+ * {@code --add-modules jdk.incubator.vector}; otherwise only the scalar kernel is measured.
+ *
+ * Usage: {@code BallKernelBenchmark [--balls N,N,...] [--ball-ticks N] [--rounds N]}, where {@code --ball-ticks} is the number of balls
+ * times the number of ticks every round runs, 200 million by default.
+ */
+
+public class BallKernelBenchmark {
+
+	private static final int WIDTH = 50000;
+	private static final int HEIGHT = 50000;
+	private static final int TICK_TIME = 20;
+
+	private BallKernelBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	public static void main(String[] args) {
+		String counts = "1000,10000,100000,1000000";
+		long ballTicks = 200_000_000L;
+		int rounds = 5;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "--balls" -> counts = args[i + 1];
+			case "--ball-ticks" -> ballTicks = Long.parseLong(args[i + 1]);
+			case "--rounds" -> rounds = Integer.parseInt(args[i + 1]);
+			default -> throw new IllegalArgumentException("unknown option " + args[i]);
+			}
+		}
+
+		BallKernel preferred = BallKernel.get();
+		if (preferred == BallKernel.SCALAR)
+			System.out.println("the vectorized kernel is not available, measuring the scalar kernel only");
+		for (String count : counts.split(",")) {
+			int balls = Integer.parseInt(count.trim());
+			int ticks = (int)Math.max(1, ballTicks / balls);
+			BallStore scalar = randomBalls(balls);
+			BallStore vector = randomBalls(balls);
+			double scalarTime = Double.MAX_VALUE;
+			double vectorTime = Double.MAX_VALUE;
+			for (int round = 0; round < rounds; round++) {
+				scalarTime = Math.min(scalarTime, run(BallKernel.SCALAR, scalar, ticks));
+				if (preferred != BallKernel.SCALAR)
+					vectorTime = Math.min(vectorTime, run(preferred, vector, ticks));
+			}
+			StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "%,d balls, %d ticks: %s %.2f ns/ball",
+					balls, ticks, BallKernel.SCALAR.getName(), scalarTime * 1e9 / ((double)balls * ticks)));
+			if (preferred != BallKernel.SCALAR) {
+				if (scalar.hash() != vector.hash() || !Arrays.equals(scalar.centerX, vector.centerX)
+						|| !Arrays.equals(scalar.velocityY, vector.velocityY))
+					throw new AssertionError("the kernels disagree");
+				report.append(String.format(Locale.ROOT, ", %s %.2f ns/ball, speedup %.2fx",
+						preferred.getName(), vectorTime * 1e9 / ((double)balls * ticks), scalarTime / vectorTime));
+			}
+			System.out.println(report);
+		}
+	}
+
+	/**
+	 * Returns a store with {@code count} balls of the same size spread over the field, moving in random directions.
+	 */
+
+	static BallStore randomBalls(int count) {
+		Random random = new Random(count);
+		Ball[] balls = new Ball[count];
+		for (int i = 0; i < count; i++) {
+			Point center = new Point(350 + random.nextInt(WIDTH - 700), 350 + random.nextInt(HEIGHT - 700));
+			balls[i] = new NormalBall(center, 700, new Vector(random.nextInt(21) - 10, random.nextInt(21) - 10));
+		}
+		return new BallStore(balls);
+	}
+
+	/**
+	 * Runs {@code ticks} ticks of {@code kernel} on {@code balls} and returns the time it took, in seconds.
+	 */
+
+	static double run(BallKernel kernel, BallStore balls, int ticks) {
+		long start = System.nanoTime();
+		for (int tick = 0; tick < ticks; tick++)
+			balls.moveAndBounceWalls(kernel, WIDTH, HEIGHT, TICK_TIME);
+		return (System.nanoTime() - start) / 1e9;
+	}
+}
@@ -0,0 +1,87 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BallKernelTest {
+
+	static final int WIDTH = 5000;
+	static final int HEIGHT = 3000;
+
+	/**
+	 * Returns {@code count} random balls, many of them touching or beyond a wall, some of them huge.
+	 */
+	static Ball[] randomBalls(Random random, int count) {
+		Ball[] balls = new Ball[count];
+		for (int i = 0; i < count; i++) {
+			int diameter = random.nextInt(8) == 0 ? random.nextInt(8000) : random.nextInt(800);
+			Point center = new Point(random.nextInt(WIDTH + 400) - 200, random.nextInt(HEIGHT + 400) - 200);
+			Vector velocity = new Vector(random.nextInt(41) - 20, random.nextInt(41) - 20);
+			balls[i] = random.nextBoolean() ? new NormalBall(center, diameter, velocity)
+					: new SuperchargedBall(center, diameter, velocity, random.nextInt(10000));
+		}
+		return balls;
+	}
+
+	static void moveAndBounceOneByOne(BallStore store, int elapsedTime) {
+		for (int i = 0; i < store.size(); i++) {
+			store.moveBall(i, WIDTH, HEIGHT, elapsedTime);
+			if ((store.contactSides(i, -1, 0, 0, HEIGHT) & 1 << 4) != 0)
+				store.bounceWall(i, 1);
+			else if ((store.contactSides(i, 0, -1, WIDTH, 0) & 1 << 1) != 0)
+				store.bounceWall(i, 2);
+			else if ((store.contactSides(i, WIDTH, 0, WIDTH + 1, HEIGHT) & 1 << 2) != 0)
+				store.bounceWall(i, 3);
+		}
+	}
+
+	@Test
+	void testScalarMatchesBallStore() {
+		Random random = new Random(1);
+		Ball[] balls = randomBalls(random, 500);
+		BallStore expected = new BallStore(balls);
+		BallStore actual = new BallStore(balls);
+		for (int elapsedTime : new int[] {1, 20, 150}) {
+			moveAndBounceOneByOne(expected, elapsedTime);
+			actual.moveAndBounceWalls(BallKernel.SCALAR, WIDTH, HEIGHT, elapsedTime);
+			assertArrayEquals(expected.toArray(), actual.toArray());
+			assertEquals(expected.hash(), actual.hash());
+		}
+	}
+
+	@Test
+	void testPreferredMatchesScalar() {
+		Random random = new Random(2);
+		for (int count : new int[] {0, 1, 7, 64, 333}) {
+			Ball[] balls = randomBalls(random, count);
+			BallStore expected = new BallStore(balls);
+			BallStore actual = new BallStore(balls);
+			for (int tick = 0; tick < 50; tick++) {
+				expected.moveAndBounceWalls(BallKernel.SCALAR, WIDTH, HEIGHT, 20);
+				actual.moveAndBounceWalls(BallKernel.get(), WIDTH, HEIGHT, 20);
+			}
+			assertArrayEquals(expected.toArray(), actual.toArray());
+			assertEquals(expected.hash(), actual.hash());
+		}
+	}
+
+	@Test
+	void testSubrange() {
+		Ball[] balls = randomBalls(new Random(3), 40);
+		BallStore expected = new BallStore(balls);
+		BallStore actual = new BallStore(balls);
+		long expectedDelta = BallKernel.SCALAR.moveAndBounceWalls(expected.centerX, expected.centerY, expected.velocityX, expected.velocityY,
+				expected.diameter, expected.time, 5, 35, WIDTH, HEIGHT, 20);
+		long actualDelta = BallKernel.get().moveAndBounceWalls(actual.centerX, actual.centerY, actual.velocityX, actual.velocityY,
+				actual.diameter, actual.time, 5, 35, WIDTH, HEIGHT, 20);
+		assertEquals(expectedDelta, actualDelta);
+		assertArrayEquals(expected.toArray(), actual.toArray());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(balls[i], actual.get(i));
+			assertEquals(balls[39 - i], actual.get(39 - i));
+		}
+	}
+}
@@ -0,0 +1,598 @@
+package breakout;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * The balls of a breakout state, stored as parallel arrays of primitives instead of as {@code Ball} objects.
+ *
+ * The ball at index {@code i} has center {@code (centerX[i], centerY[i])}, velocity {@code (velocityX[i], velocityY[i])},
+ * diameter {@code diameter[i]} and kind {@code kind[i]}. A supercharged ball has been supercharged for {@code time[i]} milliseconds.
+ * The operations on a ball follow the methods of {@code Ball} and its subclasses exactly, so a tick on the store gives the same result
+ * as a tick on ball objects, without creating any objects. {@code Ball} objects are only created on demand, by {@code get} and {@code toArray}.
+ *
+ * The store keeps the exclusive or of the {@code StateHash} keys of its balls up to date, so every change costs O(1) extra.
+ * Every ball also gets an id that it keeps until it is removed. Balls are only ever appended and removals keep the order of the
+ * remaining balls, so the ids increase along the store, which lets two versions of a store be compared in a single pass.
+ *
+ * @invar | 0 <= size()
+ */
+
+final class BallStore {
+
+	static final byte NORMAL = 0;
+	static final byte SUPERCHARGED = 1;
+
+	/**
+	 * @invar | centerX != null && centerY != null && velocityX != null && velocityY != null
+	 * @invar | diameter != null && kind != null && time != null
+	 * @invar All arrays have the same length
+	 * 		| centerY.length == centerX.length && velocityX.length == centerX.length && velocityY.length == centerX.length &&
+	 * 		| diameter.length == centerX.length && kind.length == centerX.length && time.length == centerX.length
+	 * @invar | 0 <= size && size <= centerX.length
+	 * @invar | java.util.stream.IntStream.range(0, size).allMatch(i -> diameter[i] >= 0)
+	 * @invar | java.util.stream.IntStream.range(0, size).allMatch(i -> kind[i] == NORMAL ? time[i] == -1 : time[i] >= 0)
+	 * @invar | hash == java.util.stream.IntStream.range(0, size).mapToLong(i -> key(i)).reduce(0, (a, b) -> a ^ b)
+	 * @invar | id != null && id.length == centerX.length
+	 * @invar | java.util.stream.IntStream.range(1, size).allMatch(i -> id[i - 1] < id[i])
+	 * @invar | size == 0 || id[size - 1] < nextId
+	 */
+
+	int[] centerX;
+	int[] centerY;
+	int[] velocityX;
+	int[] velocityY;
+	int[] diameter;
+	byte[] kind;
+	int[] time;
+	long[] id;
+	private int size;
+	private long hash;
+	private long nextId;
+
+	/**
+	 * Initializes this store so that it holds the given balls, in the same order.
+	 *
+	 * @pre | balls != null
+	 * @pre | java.util.Arrays.stream(balls).noneMatch(b -> b == null)
+	 *
+	 * @inspects | balls
+	 *
+	 * @post | size() == balls.length
+	 * @post | java.util.stream.IntStream.range(0, size()).allMatch(i -> get(i).equals(balls[i]))
+	 */
+
+	BallStore(Ball[] balls) {
+		allocate(balls.length);
+		for (Ball ball : balls) {
+			write(size, ball);
+			id[size] = nextId++;
+			hash ^= key(size++);
+		}
+	}
+
+	/**
+	 * Initializes this store so that it holds the balls whose fields are given as parallel arrays, which it takes over.
+	 *
+	 * @pre | centerX != null && centerY != null && velocityX != null && velocityY != null && diameter != null && kind != null && time != null
+	 * @pre All arrays have the same length
+	 * 		| centerY.length == centerX.length && velocityX.length == centerX.length && velocityY.length == centerX.length &&
+	 * 		| diameter.length == centerX.length && kind.length == centerX.length && time.length == centerX.length
+	 * @pre | java.util.stream.IntStream.range(0, kind.length).allMatch(i -> kind[i] == NORMAL ? time[i] == -1 : kind[i] == SUPERCHARGED && time[i] >= 0)
+	 *
+	 * @post | size() == centerX.length
+	 */
+
+	BallStore(int[] centerX, int[] centerY, int[] velocityX, int[] velocityY, int[] diameter, byte[] kind, int[] time) {
+		this.centerX = centerX;
+		this.centerY = centerY;
+		this.velocityX = velocityX;
+		this.velocityY = velocityY;
+		this.diameter = diameter;
+		this.kind = kind;
+		this.time = time;
+		this.id = new long[centerX.length];
+		for (size = 0; size < centerX.length; size++) {
+			id[size] = nextId++;
+			hash ^= key(size);
+		}
+	}
+
+	/**
+	 * Initializes this store as a copy of {@code other} that can be changed independently of it.
+	 *
+	 * @pre | other != null
+	 *
+	 * @inspects | other
+	 *
+	 * @post | size() == other.size()
+	 */
+
+	BallStore(BallStore other) {
+		allocate(other.size);
+		copyFrom(other);
+	}
+
+	/**
+	 * Makes this store hold the same balls as {@code other}, reusing its arrays if they are large enough.
+	 *
+	 * @pre | other != null
+	 *
+	 * @mutates | this
+	 * @inspects | other
+	 *
+	 * @post | size() == other.size()
+	 */
+
+	void copyFrom(BallStore other) {
+		int n = other.size;
+		ensureCapacity(n);
+		System.arraycopy(other.centerX, 0, centerX, 0, n);
+		System.arraycopy(other.centerY, 0, centerY, 0, n);
+		System.arraycopy(other.velocityX, 0, velocityX, 0, n);
+		System.arraycopy(other.velocityY, 0, velocityY, 0, n);
+		System.arraycopy(other.diameter, 0, diameter, 0, n);
+		System.arraycopy(other.kind, 0, kind, 0, n);
+		System.arraycopy(other.time, 0, time, 0, n);
+		System.arraycopy(other.id, 0, id, 0, n);
+		size = n;
+		hash = other.hash;
+		nextId = other.nextId;
+	}
+
+	private void allocate(int capacity) {
+		centerX = new int[capacity];
+		centerY = new int[capacity];
+		velocityX = new int[capacity];
+		velocityY = new int[capacity];
+		diameter = new int[capacity];
+		kind = new byte[capacity];
+		time = new int[capacity];
+		id = new long[capacity];
+	}
+
+	/**
+	 * Makes sure this store can hold {@code capacity} balls without growing its arrays.
+	 * The arrays grow to at least twice their length, so appending {@code n} balls one by one copies them only {@code O(log n)} times.
+	 *
+	 * @pre | capacity >= 0
+	 *
+	 * @mutates | this
+	 *
+	 * @post | capacity() >= capacity
+	 */
+
+	void ensureCapacity(int capacity) {
+		if (centerX.length >= capacity)
+			return;
+		capacity = (int)Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, 2L * centerX.length));
+		centerX = Arrays.copyOf(centerX, capacity);
+		centerY = Arrays.copyOf(centerY, capacity);
+		velocityX = Arrays.copyOf(velocityX, capacity);
+		velocityY = Arrays.copyOf(velocityY, capacity);
+		diameter = Arrays.copyOf(diameter, capacity);
+		kind = Arrays.copyOf(kind, capacity);
+		time = Arrays.copyOf(time, capacity);
+		id = Arrays.copyOf(id, capacity);
+	}
+
+	/**
+	 * Returns the amount of balls in this store.
+	 */
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the amount of balls this store can hold without growing its arrays.
+	 *
+	 * @post | result >= size()
+	 */
+
+	int capacity() {
+		return centerX.length;
+	}
+
+	/**
+	 * Returns the id of the ball at the given index.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 */
+
+	long getId(int i) {
+		return id[i];
+	}
+
+	/**
+	 * Returns the exclusive or of the {@code StateHash} keys of the balls in this store.
+	 */
+
+	long hash() {
+		return hash;
+	}
+
+	private long key(int i) {
+		return StateHash.ball(i, centerX[i], centerY[i], velocityX[i], velocityY[i], diameter[i], time[i]);
+	}
+
+	/**
+	 * Returns a new ball object equal to the ball at the given index.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 *
+	 * @creates | result
+	 */
+
+	Ball get(int i) {
+		Point center = new Point(centerX[i], centerY[i]);
+		Vector velocity = new Vector(velocityX[i], velocityY[i]);
+		if (kind[i] == SUPERCHARGED)
+			return new SuperchargedBall(center, diameter[i], velocity, time[i]);
+		return new NormalBall(center, diameter[i], velocity);
+	}
+
+	/**
+	 * Returns a new array containing new ball objects equal to the balls in this store, in order.
+	 *
+	 * @creates | result, ...result
+	 *
+	 * @post | result.length == size()
+	 */
+
+	Ball[] toArray() {
+		Ball[] result = new Ball[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the color of the ball at the given index, like {@code Ball.getColor}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 */
+
+	Color getColor(int i) {
+		return kind[i] == SUPERCHARGED ? Color.GREEN : Color.WHITE;
+	}
+
+	/**
+	 * Calls {@code visitor} for every ball, in order.
+	 *
+	 * @pre | visitor != null
+	 */
+
+	void forEach(BallVisitor visitor) {
+		for (int i = 0; i < size; i++) {
+			visitor.visitBall(centerX[i], centerY[i], diameter[i], getColor(i));
+		}
+	}
+
+	/**
+	 * Replaces the ball at the given index by the given ball.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 * @pre | ball != null
+	 *
+	 * @inspects | ball
+	 * @mutates | this
+	 */
+
+	void set(int i, Ball ball) {
+		hash ^= key(i);
+		write(i, ball);
+		hash ^= key(i);
+	}
+
+	private void write(int i, Ball ball) {
+		centerX[i] = ball.getCenter().getX();
+		centerY[i] = ball.getCenter().getY();
+		velocityX[i] = ball.getVelocity().getX();
+		velocityY[i] = ball.getVelocity().getY();
+		diameter[i] = ball.getDiameter();
+		kind[i] = ball instanceof SuperchargedBall ? SUPERCHARGED : NORMAL;
+		time[i] = ball.getTime();
+	}
+
+	/**
+	 * Appends a copy of the ball at index {@code i} whose velocity is changed by {@code (addedX, addedY)},
+	 * like {@code Ball.cloneBallWithChangedVelocity}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 *
+	 * @mutates | this
+	 *
+	 * @post | size() == old(size()) + 1
+	 */
+
+	void appendCopy(int i, int addedX, int addedY) {
+		ensureCapacity(size + 1);
+		centerX[size] = centerX[i];
+		centerY[size] = centerY[i];
+		velocityX[size] = velocityX[i] + addedX;
+		velocityY[size] = velocityY[i] + addedY;
+		diameter[size] = diameter[i];
+		kind[size] = kind[i];
+		time[size] = time[i];
+		id[size] = nextId++;
+		hash ^= key(size++);
+	}
+
+	/**
+	 * Appends a new ball with the given fields.
+	 *
+	 * @pre | diameter >= 0
+	 * @pre | kind == NORMAL ? time == -1 : kind == SUPERCHARGED && time >= 0
+	 *
+	 * @mutates | this
+	 *
+	 * @post | size() == old(size()) + 1
+	 */
+
+	void append(int centerX, int centerY, int velocityX, int velocityY, int diameter, byte kind, int time) {
+		ensureCapacity(size + 1);
+		id[size] = nextId++;
+		size++;
+		write(size - 1, centerX, centerY, velocityX, velocityY, diameter, kind, time);
+		hash ^= key(size - 1);
+	}
+
+	/**
+	 * Changes the fields of the ball at index {@code i}, which keeps its id.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 * @pre | diameter >= 0
+	 * @pre | kind == NORMAL ? time == -1 : kind == SUPERCHARGED && time >= 0
+	 *
+	 * @mutates | this
+	 */
+
+	void set(int i, int centerX, int centerY, int velocityX, int velocityY, int diameter, byte kind, int time) {
+		hash ^= key(i);
+		write(i, centerX, centerY, velocityX, velocityY, diameter, kind, time);
+		hash ^= key(i);
+	}
+
+	private void write(int i, int centerX, int centerY, int velocityX, int velocityY, int diameter, byte kind, int time) {
+		this.centerX[i] = centerX;
+		this.centerY[i] = centerY;
+		this.velocityX[i] = velocityX;
+		this.velocityY[i] = velocityY;
+		this.diameter[i] = diameter;
+		this.kind[i] = kind;
+		this.time[i] = time;
+	}
+
+	/**
+	 * Appends {@code amount} clones of the ball at index {@code i}, each with one of the velocities of {@code PaddleState.getAddedVelocities()}
+	 * added to its velocity, like {@code ReplicatorPaddleState.hitPaddleReplicationHandler}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 * @pre | 0 <= amount && amount <= 3
+	 *
+	 * @mutates | this
+	 *
+	 * @post | size() == old(size()) + amount
+	 */
+
+	void replicate(int i, int amount) {
+		ensureCapacity(size + amount);
+		for (int idx = 0; idx < amount; idx++) {
+			Vector addedVelocity = PaddleState.getAddedVelocity(idx);
+			appendCopy(i, addedVelocity.getX(), addedVelocity.getY());
+		}
+	}
+
+	/**
+	 * Copies the ball at index {@code from} to index {@code to}. Used together with {@code truncate} to remove balls
+	 * while keeping the order of the others.
+	 *
+	 * @pre | 0 <= from && from < size()
+	 * @pre | 0 <= to && to < size()
+	 *
+	 * @mutates | this
+	 */
+
+	void move(int from, int to) {
+		if (from == to)
+			return;
+		hash ^= key(to);
+		centerX[to] = centerX[from];
+		centerY[to] = centerY[from];
+		velocityX[to] = velocityX[from];
+		velocityY[to] = velocityY[from];
+		diameter[to] = diameter[from];
+		kind[to] = kind[from];
+		time[to] = time[from];
+		id[to] = id[from];
+		hash ^= key(to);
+	}
+
+	/**
+	 * Removes all balls from index {@code size} onwards.
+	 *
+	 * @pre | 0 <= size && size <= size()
+	 *
+	 * @mutates | this
+	 *
+	 * @post | size() == size
+	 */
+
+	void truncate(int size) {
+		while (this.size > size)
+			hash ^= key(--this.size);
+	}
+
+	/**
+	 * Advances the supercharged time of the ball at the given index, turning it into a normal ball once it has been supercharged
+	 * for {@code maxTime} milliseconds, like {@code Ball.superchargedTimeHandler}, and returns whether it stopped being supercharged.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 *
+	 * @mutates | this
+	 */
+
+	boolean superchargedTimeHandler(int i, int elapsedTime, int maxTime) {
+		if (kind[i] != SUPERCHARGED)
+			return false;
+		hash ^= key(i);
+		boolean expired = time[i] + elapsedTime >= maxTime;
+		if (expired) {
+			kind[i] = NORMAL;
+			time[i] = -1;
+		} else {
+			time[i] += elapsedTime;
+		}
+		hash ^= key(i);
+		return expired;
+	}
+
+	/**
+	 * Turns the ball at the given index into a ball that has just been supercharged.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 *
+	 * @mutates | this
+	 */
+
+	void supercharge(int i) {
+		hash ^= key(i);
+		kind[i] = SUPERCHARGED;
+		time[i] = 0;
+		hash ^= key(i);
+	}
+
+	/**
+	 * Moves the ball at the given index like {@code Ball.moveBall}, in a field with bottom right corner {@code (width, height)}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 *
+	 * @mutates | this
+	 */
+
+	void moveBall(int i, int width, int height, int elapsedTime) {
+		int radius = diameter[i]/2;
+		int x = centerX[i] + velocityX[i] * elapsedTime;
+		int y = centerY[i] + velocityY[i] * elapsedTime;
+		if (x - radius < 0)
+			x = radius;
+		if (x + radius > width)
+			x = width - radius;
+		if (y + radius > height)
+			y = height - radius;
+		if (y - radius < 0)
+			y = radius;
+		setCenter(i, x, y);
+	}
+
+	/**
+	 * Moves all balls like {@code moveBall} and bounces them off the left, top and right walls like {@code bounceWall},
+	 * using {@code kernel}.
+	 *
+	 * @pre | kernel != null
+	 *
+	 * @mutates | this
+	 */
+
+	void moveAndBounceWalls(BallKernel kernel, int width, int height, int elapsedTime) {
+		hash ^= kernel.moveAndBounceWalls(centerX, centerY, velocityX, velocityY, diameter, time, 0, size, width, height, elapsedTime);
+	}
+
+	/**
+	 * Moves the ball at the given index to {@code (x, y)}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 *
+	 * @mutates | this
+	 */
+
+	void setCenter(int i, int x, int y) {
+		hash ^= key(i);
+		centerX[i] = x;
+		centerY[i] = y;
+		hash ^= key(i);
+	}
+
+	/**
+	 * Moves the ball at the given index like {@code steps} calls of {@code moveBall} and {@code superchargedTimeHandler} with the given
+	 * elapsed time do, provided the ball stays clear of the walls and doesn't stop being supercharged during those steps.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 * @pre | steps >= 0
+	 *
+	 * @mutates | this
+	 */
+
+	void advance(int i, long steps, int elapsedTime) {
+		hash ^= key(i);
+		centerX[i] += (int)(steps * velocityX[i] * elapsedTime);
+		centerY[i] += (int)(steps * velocityY[i] * elapsedTime);
+		if (kind[i] == SUPERCHARGED)
+			time[i] += (int)(steps * elapsedTime);
+		hash ^= key(i);
+	}
+
+	/**
+	 * Changes the velocity of the ball at the given index like {@code Ball.bounceWall}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 * @pre | wallNumber == 1 || wallNumber == 2 || wallNumber == 3
+	 *
+	 * @mutates | this
+	 */
+
+	void bounceWall(int i, int wallNumber) {
+		mirrorVelocity(i, wallNumber == 1 ? Vector.RIGHT : wallNumber == 2 ? Vector.DOWN : Vector.LEFT);
+	}
+
+	/**
+	 * Changes the velocity of the ball at the given index like {@code Ball.bouncePaddle}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 * @pre | paddleSideNumber == 1 || paddleSideNumber == 2 || paddleSideNumber == 3
+	 *
+	 * @mutates | this
+	 */
+
+	void bouncePaddle(int i, int paddleDir, int paddleSideNumber) {
+		mirrorVelocity(i, paddleSideNumber == 1 ? Vector.LEFT : paddleSideNumber == 2 ? Vector.UP : Vector.RIGHT);
+		hash ^= key(i);
+		velocityX[i] += paddleDir * 2;
+		hash ^= key(i);
+	}
+
+	/**
+	 * Changes the velocity of the ball at the given index like {@code Ball.hitBlockSide}, taking the ball's kind into account.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 * @pre | sideNumber == 1 || sideNumber == 2 || sideNumber == 3 || sideNumber == 4
+	 *
+	 * @mutates | this
+	 */
+
+	void hitBlockSide(int i, int sideNumber, boolean destroyed) {
+		if (kind[i] == SUPERCHARGED && destroyed)
+			return;
+		mirrorVelocity(i, Ball.getSideNormal(sideNumber));
+	}
+
+	private void mirrorVelocity(int i, Vector normal) {
+		long velocity = PackedGeometry.mirrorOver(PackedGeometry.pack(velocityX[i], velocityY[i]), normal.toPacked());
+		hash ^= key(i);
+		velocityX[i] = PackedGeometry.getX(velocity);
+		velocityY[i] = PackedGeometry.getY(velocity);
+		hash ^= key(i);
+	}
+
+	/**
+	 * Returns the sides of the rectangle with the given bounds the ball at the given index hits, like {@code Ball.contactSides}.
+	 *
+	 * @pre | 0 <= i && i < size()
+	 */
+
+	int contactSides(int i, int left, int top, int right, int bottom) {
+		return Ball.contactSides(centerX[i], centerY[i], diameter[i], velocityX[i], velocityY[i], left, top, right, bottom);
+	}
+}
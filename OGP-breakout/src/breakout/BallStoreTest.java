@@ -0,0 +1,109 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BallStoreTest {
+
+	Ball normalBall;
+	Ball superchargedBall;
+	BallStore store;
+
+	@BeforeEach
+	void setUp() {
+		normalBall = new NormalBall(new Point(1000, 2000), 500, new Vector(7, -3));
+		superchargedBall = new SuperchargedBall(new Point(4000, 100), 300, new Vector(-2, 5), 9000);
+		store = new BallStore(new Ball[] {normalBall, superchargedBall});
+	}
+
+	@Test
+	void testMaterialize() {
+		assertEquals(2, store.size());
+		assertEquals(normalBall, store.get(0));
+		assertEquals(superchargedBall, store.get(1));
+		assertNotSame(store.get(0), store.get(0));
+		assertArrayEquals(new Ball[] {normalBall, superchargedBall}, store.toArray());
+	}
+
+	@Test
+	void testOperationsMatchBall() {
+		store.moveBall(0, 5000, 3000, 20);
+		normalBall.moveBall(new Point(5000, 3000), 20);
+		store.moveBall(1, 5000, 3000, 20);
+		superchargedBall.moveBall(new Point(5000, 3000), 20);
+		assertArrayEquals(new Ball[] {normalBall, superchargedBall}, store.toArray());
+
+		store.bounceWall(0, 2);
+		normalBall.bounceWall(2);
+		store.bouncePaddle(1, -1, 1);
+		superchargedBall.bouncePaddle(-1, 1);
+		assertArrayEquals(new Ball[] {normalBall, superchargedBall}, store.toArray());
+
+		store.hitBlockSide(0, 4, true);
+		normalBall.hitBlockSide(4, true);
+		store.hitBlockSide(1, 3, true);
+		superchargedBall.hitBlockSide(3, true);
+		assertArrayEquals(new Ball[] {normalBall, superchargedBall}, store.toArray());
+
+		store.superchargedTimeHandler(1, 500, 10000);
+		superchargedBall = superchargedBall.superchargedTimeHandler(500, 10000);
+		assertEquals(superchargedBall, store.get(1));
+		store.superchargedTimeHandler(1, 500, 10000);
+		assertEquals(superchargedBall.superchargedTimeHandler(500, 10000), store.get(1));
+		assertEquals(NormalBall.class, store.get(1).getClass());
+	}
+
+	@Test
+	void testAppendAndRemove() {
+		store.appendCopy(1, 2, -2);
+		assertEquals(3, store.size());
+		assertEquals(superchargedBall.cloneBallWithChangedVelocity(new Vector(2, -2)), store.get(2));
+
+		store.move(2, 0);
+		store.truncate(2);
+		assertEquals(2, store.size());
+		assertEquals(superchargedBall.cloneBallWithChangedVelocity(new Vector(2, -2)), store.get(0));
+		assertEquals(superchargedBall, store.get(1));
+	}
+
+	@Test
+	void testHashTracksChanges() {
+		long initial = store.hash();
+		store.moveBall(0, 5000, 3000, 20);
+		store.bouncePaddle(1, 1, 2);
+		store.supercharge(0);
+		store.superchargedTimeHandler(1, 2000, 10000);
+		store.replicate(1, 3);
+		store.move(4, 1);
+		store.truncate(3);
+		assertEquals(new BallStore(store.toArray()).hash(), store.hash());
+		assertNotEquals(initial, store.hash());
+
+		BallStore swapped = new BallStore(new Ball[] {superchargedBall, normalBall});
+		assertNotEquals(new BallStore(new Ball[] {normalBall, superchargedBall}).hash(), swapped.hash());
+	}
+
+	@Test
+	void testGrowsGeometrically() {
+		int grows = 0;
+		int capacity = store.capacity();
+		for (int n = 0; n < 1000; n++) {
+			store.appendCopy(0, 0, n);
+			if (store.capacity() != capacity) {
+				grows++;
+				capacity = store.capacity();
+			}
+		}
+		assertEquals(1002, store.size());
+		assertTrue(grows <= 10);
+		assertEquals(normalBall.cloneBallWithChangedVelocity(new Vector(0, 999)), store.get(1001));
+
+		store.ensureCapacity(5000);
+		assertTrue(store.capacity() >= 5000);
+		store.truncate(1);
+		assertEquals(normalBall, store.get(0));
+	}
+
+}
@@ -210,4 +210,40 @@ public class BallTest {
 		assertTrue(superchargedBall2.equals(ball2AfterBounce));
 	}
 	
+	@Test
+	void testContactSides() {
+		Rect below = new Rect(new Point(24980, 25480), new Point(25040, 26000));
+		assertEquals(1 << 3, normalBall1.contactSides(below));
+		assertEquals(1 << 3, normalBall1.contactSides(24980, 25480, 25040, 26000));
+		assertEquals(3, Ball.firstContactSide(normalBall1.contactSides(below)));
+		
+		Rect above = new Rect(new Point(990, 100), new Point(1010, 300));
+		assertEquals(1 << 1, normalBall2.contactSides(above));
+		assertEquals(0, normalBall3.contactSides(above));
+		
+		for (int side = 1; side <= 4; side++) {
+			assertEquals(normalBall1.raaktRechthoek(below, side), (normalBall1.contactSides(below) & 1 << side) != 0);
+			assertEquals(normalBall2.raaktRechthoek(above, side), (normalBall2.contactSides(above) & 1 << side) != 0);
+		}
+		
+		// A ball moving away from a side doesn't hit it.
+		Ball awayBall = new NormalBall(center1, diameter1, new Vector(10, -5));
+		assertEquals(0, awayBall.contactSides(below));
+		
+		assertEquals(Vector.DOWN, Ball.getSideNormal(1));
+		assertEquals(Vector.LEFT, Ball.getSideNormal(2));
+		assertEquals(Vector.UP, Ball.getSideNormal(3));
+		assertEquals(Vector.RIGHT, Ball.getSideNormal(4));
+	}
+	
+	@Test
+	void testContactSidesOnHugeField() {
+		Ball ball = new NormalBall(new Point(500000000, 500000000), 1000, new Vector(0, 5));
+		assertEquals(1 << 3, ball.contactSides(499000000, 500000400, 501000000, 500100000));
+		assertEquals(0, ball.contactSides(499000000, 500000600, 501000000, 500100000));
+		
+		Ball edgeBall = new NormalBall(new Point(Integer.MAX_VALUE - 100, 500), 1000, new Vector(5, 0));
+		assertEquals(1 << 2, edgeBall.contactSides(Integer.MAX_VALUE - 50, 0, Integer.MAX_VALUE, 1000));
+	}
+	
 }
@@ -0,0 +1,18 @@
+package breakout;
+
+import java.awt.Color;
+
+/**
+ * A callback that is called for every ball of a breakout state by {@code BreakoutState.forEachBall}.
+ * The ball is described by primitives and its color, so visiting the balls doesn't create any objects.
+ */
+
+@FunctionalInterface
+public interface BallVisitor {
+	
+	/**
+	 * Visits the ball with the given center, diameter and color.
+	 */
+	
+	void visitBall(int centerX, int centerY, int diameter, Color color);
+}
@@ -0,0 +1,244 @@
+package breakout;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact, versioned binary format for complete breakout states, unlike the {@code GameMap} description, which only holds the
+ * layout a game starts from.
+ * 
+ * A state is stored in little-endian byte order as a header followed by the balls and the remaining blocks, column by column:
+ * <pre>
+ *  0  int    magic, the bytes {@code BRST}
+ *  4  int    version
+ *  8  long   state hash, as returned by {@code getStateHash}
+ * 16  int    x and y of the bottom right of the field
+ * 24  int    x and y of the center of the paddle, and its amount of replications
+ * 36  int    substep size and the remainder of {@code tickSubstepped}
+ * 44  int    amount of balls {@code n} and amount of blocks {@code m}
+ * 52  int[n] center x, center y, velocity x, velocity y, diameter and supercharged time (-1 if not supercharged) of the balls
+ *     int[m] left, top, right, bottom and health (-1 if not sturdy) of the blocks
+ *     byte[n] kind of the balls: 0 normal, 1 supercharged
+ *     byte[m] kind of the blocks: 0 normal, 1 sturdy, 2 replicator, 3 powerup
+ * </pre>
+ * The integer columns come first, so they can be read straight into the arrays of the state, also from a memory-mapped file.
+ * The stored hash is checked when a state is read, which catches corrupted files.
+ */
+
+public final class BinaryStateFormat {
+	
+	public static final int MAGIC = 'B' | 'R' << 8 | 'S' << 16 | 'T' << 24;
+	
+	public static final int VERSION = 1;
+	
+	static final int HEADER_SIZE = 52;
+	
+	private BinaryStateFormat() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+	
+	/**
+	 * Returns the amount of bytes {@code state} takes in this format.
+	 * 
+	 * @throws IllegalArgumentException if {@code state} is {@code null}
+	 * 		| state == null
+	 */
+	
+	public static long size(BreakoutState state) {
+		if (state == null)
+			throw new IllegalArgumentException("state can't be null");
+		return size(state.getBallCount(), state.getBlockCount());
+	}
+	
+	private static long size(long balls, long blocks) {
+		return HEADER_SIZE + 25 * balls + 21 * blocks;
+	}
+	
+	/**
+	 * Returns a new buffer holding {@code state} in this format, between position 0 and its limit.
+	 * 
+	 * @throws IllegalArgumentException if {@code state} is {@code null}
+	 * 		| state == null
+	 * @throws IllegalArgumentException if {@code state} is too large for a single buffer
+	 * 
+	 * @creates | result
+	 * 
+	 * @post | result.position() == 0 && result.limit() == size(state)
+	 */
+	
+	public static ByteBuffer encode(BreakoutState state) {
+		long size = size(state);
+		if (size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("state too large");
+		BallStore balls = state.getBallStore();
+		BlockStore blocks = state.getBlockStore();
+		int n = balls.size();
+		int m = blocks.getCount();
+		ByteBuffer buffer = ByteBuffer.allocate((int)size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(state.getStateHash());
+		buffer.putInt(state.getBottomRight().getX()).putInt(state.getBottomRight().getY());
+		buffer.putInt(state.getPaddleCenterX()).putInt(state.getPaddleCenterY()).putInt(state.getPaddleReplications());
+		buffer.putInt(state.getSubstepSize()).putInt(state.getSubstepRemainder());
+		buffer.putInt(n).putInt(m);
+		
+		int[] slots = new int[m];
+		for (int slot = 0, i = 0; i < m; slot++) {
+			if (blocks.isOccupied(slot))
+				slots[i++] = slot;
+		}
+		IntBuffer ints = buffer.asIntBuffer();
+		ints.put(balls.centerX, 0, n).put(balls.centerY, 0, n).put(balls.velocityX, 0, n).put(balls.velocityY, 0, n);
+		ints.put(balls.diameter, 0, n).put(balls.time, 0, n);
+		for (int slot : slots)
+			ints.put(blocks.getTopLeft(slot).getX());
+		for (int slot : slots)
+			ints.put(blocks.getTopLeft(slot).getY());
+		for (int slot : slots)
+			ints.put(blocks.getBottomRight(slot).getX());
+		for (int slot : slots)
+			ints.put(blocks.getBottomRight(slot).getY());
+		for (int slot : slots)
+			ints.put(blocks.getHealth(slot));
+		
+		buffer.position(HEADER_SIZE + 4 * ints.position());
+		buffer.put(balls.kind, 0, n);
+		for (int slot : slots)
+			buffer.put(blocks.getKind(slot));
+		return buffer.flip();
+	}
+	
+	/**
+	 * Writes {@code state} in this format to {@code channel}.
+	 * 
+	 * @throws IllegalArgumentException if {@code state} or {@code channel} is {@code null}
+	 * 		| state == null || channel == null
+	 * @throws IOException if writing fails
+	 */
+	
+	public static void write(BreakoutState state, WritableByteChannel channel) throws IOException {
+		if (channel == null)
+			throw new IllegalArgumentException("channel can't be null");
+		ByteBuffer buffer = encode(state);
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+	
+	/**
+	 * Writes {@code state} in this format to {@code file}, replacing its contents.
+	 * 
+	 * @throws IllegalArgumentException if {@code state} or {@code file} is {@code null}
+	 * 		| state == null || file == null
+	 * @throws IOException if writing fails
+	 */
+	
+	public static void write(BreakoutState state, Path file) throws IOException {
+		if (file == null)
+			throw new IllegalArgumentException("file can't be null");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			write(state, channel);
+		}
+	}
+	
+	/**
+	 * Returns a new state read from {@code file}, which is memory-mapped rather than copied into the heap.
+	 * 
+	 * @throws IllegalArgumentException if {@code file} is {@code null}
+	 * 		| file == null
+	 * @throws IllegalArgumentException if {@code file} doesn't hold a valid state in this format
+	 * @throws IOException if reading fails
+	 */
+	
+	public static BreakoutState read(Path file) throws IOException {
+		if (file == null)
+			throw new IllegalArgumentException("file can't be null");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+	
+	/**
+	 * Returns a new state read from the bytes of {@code buffer} between its position and its limit. The buffer itself is not changed.
+	 * 
+	 * @throws IllegalArgumentException if {@code buffer} is {@code null}
+	 * 		| buffer == null
+	 * @throws IllegalArgumentException if {@code buffer} doesn't hold a valid state in this format
+	 * 
+	 * @inspects | buffer
+	 * 
+	 * @creates | result
+	 */
+	
+	public static BreakoutState decode(ByteBuffer buffer) {
+		if (buffer == null)
+			throw new IllegalArgumentException("buffer can't be null");
+		ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC)
+			throw new IllegalArgumentException("not a breakout state");
+		int version = in.getInt();
+		if (version != VERSION)
+			throw new IllegalArgumentException("unsupported version " + version);
+		long hash = in.getLong();
+		int width = in.getInt();
+		int height = in.getInt();
+		int paddleX = in.getInt();
+		int paddleY = in.getInt();
+		int replications = in.getInt();
+		int substepSize = in.getInt();
+		int substepRemainder = in.getInt();
+		int n = in.getInt();
+		int m = in.getInt();
+		if (n < 0 || m < 0 || in.limit() != size(n, m))
+			throw new IllegalArgumentException("size doesn't match the amount of balls and blocks");
+		if (width < 0 || height < 0)
+			throw new IllegalArgumentException("bottomRight should not be to the left of or above (0, 0)");
+		if (paddleX - PaddleState.SIZE.getX() < 0 || paddleY - PaddleState.SIZE.getY() < 0 ||
+				paddleX + PaddleState.SIZE.getX() > width || paddleY + PaddleState.SIZE.getY() > height)
+			throw new IllegalArgumentException("paddle should be inside of the field");
+		if (replications < 0 || replications > 3 || substepSize <= 0 || substepRemainder < 0)
+			throw new IllegalArgumentException("paddle replications or substeps out of range");
+		
+		IntBuffer ints = in.asIntBuffer();
+		int[] centerX = new int[n];
+		int[] centerY = new int[n];
+		int[] velocityX = new int[n];
+		int[] velocityY = new int[n];
+		int[] diameter = new int[n];
+		int[] time = new int[n];
+		ints.get(centerX).get(centerY).get(velocityX).get(velocityY).get(diameter).get(time);
+		int[] left = new int[m];
+		int[] top = new int[m];
+		int[] right = new int[m];
+		int[] bottom = new int[m];
+		int[] health = new int[m];
+		ints.get(left).get(top).get(right).get(bottom).get(health);
+		in.position(HEADER_SIZE + 4 * ints.position());
+		byte[] ballKind = new byte[n];
+		byte[] blockKind = new byte[m];
+		in.get(ballKind).get(blockKind);
+		
+		for (int i = 0; i < n; i++) {
+			if (diameter[i] < 0 || (ballKind[i] == BallStore.NORMAL ? time[i] != -1 : ballKind[i] != BallStore.SUPERCHARGED || time[i] < 0))
+				throw new IllegalArgumentException("invalid ball " + i);
+		}
+		BlockState[] blocks = new BlockState[m];
+		for (int i = 0; i < m; i++) {
+			byte kind = blockKind[i];
+			if (kind < BlockStore.NORMAL || kind > BlockStore.POWERUP || (kind == BlockStore.STURDY ? health[i] < 1 || health[i] > 3 : health[i] != -1))
+				throw new IllegalArgumentException("invalid block " + i);
+			if (left[i] < 0 || top[i] < 0 || right[i] > width || bottom[i] > height || left[i] >= right[i] || top[i] >= bottom[i])
+				throw new IllegalArgumentException("block " + i + " should be inside of the field");
+			blocks[i] = BlockStore.block(kind, new Point(left[i], top[i]), new Point(right[i], bottom[i]), health[i]);
+		}
+		BreakoutState state = new BreakoutState(new BallStore(centerX, centerY, velocityX, velocityY, diameter, ballKind, time), blocks,
+				new Point(width, height), paddleX, paddleY, replications, substepSize, substepRemainder);
+		if (state.getStateHash() != hash)
+			throw new IllegalArgumentException("state hash doesn't match, the data is corrupt");
+		return state;
+	}
+}
@@ -0,0 +1,95 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class BinaryStateFormatTest {
+
+	private BreakoutFacade facade = new BreakoutFacade();
+
+	private BreakoutState state() {
+		Ball[] balls = {
+				facade.createNormalBall(new Point(10000, 20000), 700, new Vector(7, -19)),
+				facade.createSuperchargedBall(new Point(20000, 22000), 500, new Vector(-11, -17), 1234)
+		};
+		BlockState[] blocks = {
+				facade.createNormalBlockState(new Point(0, 0), new Point(5000, 1000)),
+				facade.createSturdyBlockState(new Point(5000, 0), new Point(10000, 1000), 3),
+				facade.createReplicatorBlockState(new Point(10000, 0), new Point(15000, 1000)),
+				facade.createPowerupBallBlockState(new Point(15000, 0), new Point(20000, 1000))
+		};
+		BreakoutState state = facade.createBreakoutState(balls, blocks, new Point(30000, 30000),
+				new ReplicatorPaddleState(new Point(15000, 28000), 2));
+		state.setSubstepSize(7);
+		state.tickSubstepped(1, 60);
+		return state;
+	}
+
+	private static void assertSameState(BreakoutState expected, BreakoutState actual) {
+		assertEquals(expected.getStateHash(), actual.getStateHash());
+		assertArrayEquals(expected.getBalls(), actual.getBalls());
+		assertArrayEquals(expected.getBlocks(), actual.getBlocks());
+		assertEquals(expected.getPaddle(), actual.getPaddle());
+		assertEquals(expected.getBottomRight(), actual.getBottomRight());
+		assertEquals(expected.getSubstepSize(), actual.getSubstepSize());
+		assertEquals(expected.getSubstepRemainder(), actual.getSubstepRemainder());
+	}
+
+	@Test
+	void testRoundTrip() {
+		BreakoutState state = state();
+		ByteBuffer buffer = BinaryStateFormat.encode(state);
+		assertEquals(BinaryStateFormat.size(state), buffer.limit());
+		BreakoutState copy = BinaryStateFormat.decode(buffer);
+		assertEquals(0, buffer.position());
+		assertSameState(state, copy);
+
+		for (int i = 0; i < 500; i++) {
+			state.tickSubstepped(i % 3 - 1, 20);
+			copy.tickSubstepped(i % 3 - 1, 20);
+		}
+		assertSameState(state, copy);
+		assertSameState(state, BinaryStateFormat.decode(BinaryStateFormat.encode(state)));
+	}
+
+	@Test
+	void testFile() throws IOException {
+		BreakoutState state = state();
+		Path file = Files.createTempFile("breakout", ".brst");
+		try {
+			BinaryStateFormat.write(state, file);
+			assertEquals(BinaryStateFormat.size(state), Files.size(file));
+			assertSameState(state, BinaryStateFormat.read(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void testRejectsInvalidData() {
+		byte[] bytes = BinaryStateFormat.encode(state()).array();
+		assertThrows(IllegalArgumentException.class, () -> BinaryStateFormat.decode(ByteBuffer.wrap(bytes, 0, 20)));
+		assertThrows(IllegalArgumentException.class, () -> BinaryStateFormat.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1))));
+
+		byte[] corrupt = bytes.clone();
+		corrupt[BinaryStateFormat.HEADER_SIZE] ^= 1;
+		assertThrows(IllegalArgumentException.class, () -> BinaryStateFormat.decode(ByteBuffer.wrap(corrupt)));
+
+		byte[] badKind = bytes.clone();
+		badKind[badKind.length - 1] = 9;
+		assertThrows(IllegalArgumentException.class, () -> BinaryStateFormat.decode(ByteBuffer.wrap(badKind)));
+
+		byte[] badVersion = bytes.clone();
+		badVersion[4] = 2;
+		assertThrows(IllegalArgumentException.class, () -> BinaryStateFormat.decode(ByteBuffer.wrap(badVersion)));
+		assertThrows(IllegalArgumentException.class, () -> BinaryStateFormat.decode(null));
+	}
+
+}
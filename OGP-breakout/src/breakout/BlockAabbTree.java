@@ -0,0 +1,221 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * A bounding volume hierarchy of axis-aligned bounding boxes over the blocks of a breakout state.
+ *
+ * The tree is built once, bottom-up over the blocks sorted along a Z-order curve through their centers, which makes it perfectly
+ * balanced: its depth is the base-2 logarithm of the amount of blocks, rounded up. Removing a block empties its leaf and refits the
+ * bounds of the leaf's ancestors, so removals take time proportional to the depth of the tree, whatever the layout of the blocks.
+ * Damaging a sturdy block doesn't change its bounds, so it doesn't touch the tree at all.
+ *
+ * An empty node has bounds with {@code minX > maxX}, so it never overlaps a query.
+ */
+
+class BlockAabbTree extends BlockIndex {
+
+	/**
+	 * @invar | minX != null && minY != null && maxX != null && maxY != null
+	 * @invar | firstChild != null && parent != null && leafOfSlot != null && stack != null
+	 *
+	 * Node {@code 0} is the root. An inner node {@code n} has children {@code firstChild[n]} and {@code firstChild[n] + 1}.
+	 * A leaf has {@code firstChild[n] < 0} and stores the slot {@code -firstChild[n] - 1}.
+	 */
+
+	private final int[] minX;
+	private final int[] minY;
+	private final int[] maxX;
+	private final int[] maxY;
+	private final int[] firstChild;
+	private final int[] parent;
+	private final int[] leafOfSlot;
+	private final int[] stack;
+	private int nodeCount;
+
+	/**
+	 * Initializes this tree so that it stores every block of {@code blocks} under its index.
+	 *
+	 * @pre | blocks != null
+	 * @pre | java.util.Arrays.stream(blocks).noneMatch(b -> b == null)
+	 *
+	 * @inspects | blocks
+	 */
+
+	BlockAabbTree(BlockState[] blocks) {
+		super(blocks);
+		int slots = getSlotCount();
+		int nodes = Math.max(1, 2 * slots - 1);
+		minX = new int[nodes];
+		minY = new int[nodes];
+		maxX = new int[nodes];
+		maxY = new int[nodes];
+		firstChild = new int[nodes];
+		parent = new int[nodes];
+		leafOfSlot = new int[slots];
+		int depth = 1;
+		while ((1 << (depth - 1)) < slots)
+			depth++;
+		stack = new int[depth + 1];
+
+		if (slots == 0) {
+			setEmpty(0);
+			firstChild[0] = -1;
+			nodeCount = 1;
+			return;
+		}
+
+		long sceneMinX = Long.MAX_VALUE;
+		long sceneMinY = Long.MAX_VALUE;
+		long sceneMaxX = Long.MIN_VALUE;
+		long sceneMaxY = Long.MIN_VALUE;
+		for (int slot = 0; slot < slots; slot++) {
+			sceneMinX = Math.min(sceneMinX, centerX(slot));
+			sceneMinY = Math.min(sceneMinY, centerY(slot));
+			sceneMaxX = Math.max(sceneMaxX, centerX(slot));
+			sceneMaxY = Math.max(sceneMaxY, centerY(slot));
+		}
+		long[] order = new long[slots];
+		for (int slot = 0; slot < slots; slot++) {
+			long qx = (centerX(slot) - sceneMinX) * 0x7fff / Math.max(1, sceneMaxX - sceneMinX);
+			long qy = (centerY(slot) - sceneMinY) * 0x7fff / Math.max(1, sceneMaxY - sceneMinY);
+			order[slot] = (interleave(qx) | (interleave(qy) << 1)) << 32 | slot;
+		}
+		Arrays.sort(order);
+		int[] sorted = new int[slots];
+		for (int i = 0; i < slots; i++)
+			sorted[i] = (int)order[i];
+
+		nodeCount = 1;
+		parent[0] = -1;
+		build(0, sorted, 0, slots);
+	}
+
+	private BlockAabbTree(BlockAabbTree other) {
+		super(other);
+		minX = other.minX.clone();
+		minY = other.minY.clone();
+		maxX = other.maxX.clone();
+		maxY = other.maxY.clone();
+		firstChild = other.firstChild;
+		parent = other.parent;
+		leafOfSlot = other.leafOfSlot;
+		stack = new int[other.stack.length];
+		nodeCount = other.nodeCount;
+	}
+
+	@Override
+
+	BlockAabbTree copy() {
+		return new BlockAabbTree(this);
+	}
+
+	@Override
+
+	void copyFrom(BlockIndex other) {
+		BlockAabbTree tree = (BlockAabbTree)other;
+		System.arraycopy(tree.minX, 0, minX, 0, minX.length);
+		System.arraycopy(tree.minY, 0, minY, 0, minY.length);
+		System.arraycopy(tree.maxX, 0, maxX, 0, maxX.length);
+		System.arraycopy(tree.maxY, 0, maxY, 0, maxY.length);
+	}
+
+	private long centerX(int slot) {
+		return ((long)left[slot] + right[slot]) / 2;
+	}
+
+	private long centerY(int slot) {
+		return ((long)top[slot] + bottom[slot]) / 2;
+	}
+
+	/**
+	 * Spreads the lower 16 bits of {@code value} over the even bits of the result.
+	 */
+
+	private static long interleave(long value) {
+		value &= 0xffff;
+		value = (value | (value << 8)) & 0x00ff00ffL;
+		value = (value | (value << 4)) & 0x0f0f0f0fL;
+		value = (value | (value << 2)) & 0x33333333L;
+		value = (value | (value << 1)) & 0x55555555L;
+		return value;
+	}
+
+	private void build(int node, int[] sorted, int from, int to) {
+		if (to - from == 1) {
+			int slot = sorted[from];
+			firstChild[node] = -slot - 1;
+			leafOfSlot[slot] = node;
+			minX[node] = left[slot];
+			minY[node] = top[slot];
+			maxX[node] = right[slot];
+			maxY[node] = bottom[slot];
+			return;
+		}
+		int child = nodeCount;
+		nodeCount += 2;
+		firstChild[node] = child;
+		parent[child] = node;
+		parent[child + 1] = node;
+		int middle = (from + to) >>> 1;
+		build(child, sorted, from, middle);
+		build(child + 1, sorted, middle, to);
+		refit(node);
+	}
+
+	private void setEmpty(int node) {
+		minX[node] = Integer.MAX_VALUE;
+		minY[node] = Integer.MAX_VALUE;
+		maxX[node] = Integer.MIN_VALUE;
+		maxY[node] = Integer.MIN_VALUE;
+	}
+
+	private void refit(int node) {
+		int a = firstChild[node];
+		int b = a + 1;
+		minX[node] = Math.min(minX[a], minX[b]);
+		minY[node] = Math.min(minY[a], minY[b]);
+		maxX[node] = Math.max(maxX[a], maxX[b]);
+		maxY[node] = Math.max(maxY[a], maxY[b]);
+	}
+
+	/**
+	 * Returns the depth of this tree, which is 1 for a tree with a single node.
+	 */
+
+	int getDepth() {
+		return stack.length - 1;
+	}
+
+	@Override
+
+	void remove(int slot) {
+		int node = leafOfSlot[slot];
+		setEmpty(node);
+		for (node = parent[node]; node >= 0; node = parent[node]) {
+			refit(node);
+		}
+	}
+
+	@Override
+
+	int query(int left, int top, int right, int bottom) {
+		int count = 0;
+		int size = 0;
+		stack[size++] = 0;
+		while (size > 0) {
+			int node = stack[--size];
+			if (minX[node] > right || maxX[node] < left || minY[node] > bottom || maxY[node] < top)
+				continue;
+			int child = firstChild[node];
+			if (child < 0) {
+				setCandidate(count++, -child - 1);
+			} else {
+				stack[size++] = child + 1;
+				stack[size++] = child;
+			}
+		}
+		sortCandidates(count);
+		return count;
+	}
+}
@@ -0,0 +1,213 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * A broadphase index over the blocks of a breakout state, used to find the blocks a ball might collide with.
+ * Every block is identified by its slot, which is its index in the array the index was built from.
+ * The bounds of every block are copied into primitive arrays when the index is built, so queries and removals
+ * don't need the {@code BlockState} objects.
+ *
+ * Queries don't allocate: the slots they find are kept in a buffer owned by the index and read with {@code getCandidate}.
+ *
+ * The parts of an index that never change after it is built are shared by its copies, so copying an index only copies what
+ * {@code remove} changes.
+ */
+
+abstract class BlockIndex {
+
+	/**
+	 * Block counts from which {@code create} prefers an AABB tree over a spatial hash.
+	 */
+
+	static final int TREE_MIN_BLOCKS = 1024;
+
+	/**
+	 * How many times larger than the average block a block must be before {@code create} prefers an AABB tree over a spatial hash.
+	 */
+
+	static final int TREE_MAX_EXTENT_RATIO = 8;
+
+	/**
+	 * @invar | left != null && top != null && right != null && bottom != null
+	 * @invar | left.length == top.length && left.length == right.length && left.length == bottom.length
+	 * @invar | candidates != null
+	 */
+
+	final int[] left;
+	final int[] top;
+	final int[] right;
+	final int[] bottom;
+
+	private int[] candidates = new int[16];
+
+	/**
+	 * Initializes this index's bounds arrays with the bounds of the given blocks.
+	 *
+	 * @pre | blocks != null
+	 * @pre | Arrays.stream(blocks).noneMatch(b -> b == null)
+	 *
+	 * @inspects | blocks
+	 */
+
+	BlockIndex(BlockState[] blocks) {
+		left = new int[blocks.length];
+		top = new int[blocks.length];
+		right = new int[blocks.length];
+		bottom = new int[blocks.length];
+		for (int slot = 0; slot < blocks.length; slot++) {
+			left[slot] = blocks[slot].getTopLeft().getX();
+			top[slot] = blocks[slot].getTopLeft().getY();
+			right[slot] = blocks[slot].getBottomRight().getX();
+			bottom[slot] = blocks[slot].getBottomRight().getY();
+		}
+	}
+
+	/**
+	 * Initializes this index as a copy of {@code other}, sharing its bounds arrays.
+	 *
+	 * @pre | other != null
+	 */
+
+	BlockIndex(BlockIndex other) {
+		left = other.left;
+		top = other.top;
+		right = other.right;
+		bottom = other.bottom;
+	}
+
+	/**
+	 * Returns a new index over the given blocks, choosing the kind of index that suits their layout best.
+	 * Levels whose blocks lie on a regular grid get a lattice. Other levels with many blocks, or with blocks of very different sizes,
+	 * get an AABB tree; the remaining levels get a spatial hash.
+	 *
+	 * @pre | blocks != null
+	 * @pre | Arrays.stream(blocks).noneMatch(b -> b == null)
+	 *
+	 * @inspects | blocks
+	 *
+	 * @creates | result
+	 */
+
+	static BlockIndex create(BlockState[] blocks) {
+		if (BlockLattice.isLattice(blocks))
+			return new BlockLattice(blocks);
+		if (blocks.length >= TREE_MIN_BLOCKS)
+			return new BlockAabbTree(blocks);
+		long totalExtent = 0;
+		long maxExtent = 0;
+		for (BlockState block : blocks) {
+			long extent = Math.max((long)block.getBottomRight().getX() - block.getTopLeft().getX(),
+					(long)block.getBottomRight().getY() - block.getTopLeft().getY());
+			totalExtent += extent;
+			maxExtent = Math.max(maxExtent, extent);
+		}
+		if (blocks.length > 0 && maxExtent * blocks.length > TREE_MAX_EXTENT_RATIO * totalExtent)
+			return new BlockAabbTree(blocks);
+		return new BlockSpatialHash(blocks);
+	}
+
+	/**
+	 * Returns the amount of slots this index was built for.
+	 */
+
+	int getSlotCount() {
+		return left.length;
+	}
+
+	/**
+	 * Returns a new index that holds the same blocks as this one and can be changed independently of it.
+	 *
+	 * @creates | result
+	 */
+
+	abstract BlockIndex copy();
+
+	/**
+	 * Makes this index hold the same blocks as {@code other}, reusing the memory of this index.
+	 *
+	 * @pre | other != null
+	 * @pre {@code other} is this index or a copy of it, or they were both copied from the same index
+	 *
+	 * @mutates | this
+	 * @inspects | other
+	 */
+
+	abstract void copyFrom(BlockIndex other);
+
+	/**
+	 * Returns whether {@code other} is this index or a copy of it, or whether they were both copied from the same index.
+	 *
+	 * @pre | other != null
+	 */
+
+	boolean sharesLayoutWith(BlockIndex other) {
+		return left == other.left && getClass() == other.getClass();
+	}
+
+	/**
+	 * Removes the block with the given slot from this index.
+	 *
+	 * @pre The block has not been removed yet
+	 *
+	 * @mutates | this
+	 */
+
+	abstract void remove(int slot);
+
+	/**
+	 * Collects the slots of the blocks that might intersect the rectangle with the given bounds and returns how many there are.
+	 * The slots can be read with {@code getCandidate} in ascending order, every slot appearing once.
+	 * Every remaining block whose bounds intersect the given rectangle is among the candidates.
+	 *
+	 * @mutates | this
+	 *
+	 * @post | result >= 0
+	 */
+
+	abstract int query(int left, int top, int right, int bottom);
+
+	/**
+	 * Returns the slot of the candidate at the given index of the last query.
+	 *
+	 * @pre | 0 <= index
+	 */
+
+	int getCandidate(int index) {
+		return candidates[index];
+	}
+
+	/**
+	 * Stores {@code slot} as candidate number {@code count} of the current query.
+	 *
+	 * @mutates | this
+	 */
+
+	void setCandidate(int count, int slot) {
+		if (count == candidates.length)
+			candidates = Arrays.copyOf(candidates, count * 2);
+		candidates[count] = slot;
+	}
+
+	/**
+	 * Sorts the first {@code count} candidates of the current query, so that blocks are handled in the same order as the blocks array.
+	 *
+	 * @mutates | this
+	 */
+
+	void sortCandidates(int count) {
+		if (count > 32) {
+			Arrays.sort(candidates, 0, count);
+			return;
+		}
+		for (int i = 1; i < count; i++) {
+			int slot = candidates[i];
+			int k = i;
+			while (k > 0 && candidates[k - 1] > slot) {
+				candidates[k] = candidates[k - 1];
+				k--;
+			}
+			candidates[k] = slot;
+		}
+	}
+}
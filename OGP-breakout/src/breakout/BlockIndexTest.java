@@ -0,0 +1,159 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlockIndexTest {
+
+	private BreakoutFacade facade = new BreakoutFacade();
+
+	private BlockState[] blocks;
+	private BlockIndex hash;
+	private BlockIndex tree;
+
+	@BeforeEach
+	void setUp() {
+		blocks = new BlockState[] {
+				facade.createNormalBlockState(new Point(0, 0), new Point(1000, 500)),
+				facade.createSturdyBlockState(new Point(900, 400), new Point(5000, 600), 2),
+				facade.createPowerupBallBlockState(new Point(20000, 20000), new Point(20100, 20100)),
+				facade.createNormalBlockState(new Point(3000, 0), new Point(4000, 300))
+		};
+		hash = new BlockSpatialHash(blocks);
+		tree = new BlockAabbTree(blocks);
+	}
+
+	@Test
+	void testQueryReturnsOverlappingBlocksInOrder() {
+		for (BlockIndex index : new BlockIndex[] {hash, tree}) {
+			assertEquals(3, index.query(950, 300, 3500, 450));
+			assertEquals(0, index.getCandidate(0));
+			assertEquals(1, index.getCandidate(1));
+			assertEquals(3, index.getCandidate(2));
+
+			assertEquals(1, index.query(19000, 19000, 20000, 20000));
+			assertEquals(2, index.getCandidate(0));
+
+			assertEquals(0, index.query(40000, 40000, 41000, 41000));
+		}
+	}
+
+	@Test
+	void testRemove() {
+		for (BlockIndex index : new BlockIndex[] {hash, tree}) {
+			index.remove(1);
+			assertEquals(2, index.query(950, 300, 3500, 450));
+			assertEquals(0, index.getCandidate(0));
+			assertEquals(3, index.getCandidate(1));
+		}
+	}
+
+	@Test
+	void testSpatialHashRejectsTooManyCells() {
+		// The tiny blocks shrink the cells, so that the huge block covers about 20000 by 20000 of them.
+		BlockState[] levelBlocks = new BlockState[20001];
+		for (int i = 0; i < 20000; i++)
+			levelBlocks[i] = facade.createNormalBlockState(new Point(i, 0), new Point(i + 1, 1));
+		levelBlocks[20000] = facade.createNormalBlockState(new Point(0, 0), new Point(40_000_000, 40_000_000));
+		assertThrows(IllegalArgumentException.class, () -> new BlockSpatialHash(levelBlocks));
+	}
+
+	@Test
+	void testCreate() {
+		assertTrue(BlockIndex.create(blocks) instanceof BlockSpatialHash);
+
+		BlockState[] manyBlocks = new BlockState[BlockIndex.TREE_MIN_BLOCKS];
+		for (int i = 0; i < manyBlocks.length; i++)
+			manyBlocks[i] = facade.createNormalBlockState(new Point(i * 100, 0), new Point(i * 100 + 50, 50 + i % 2));
+		assertTrue(BlockIndex.create(manyBlocks) instanceof BlockAabbTree);
+
+		BlockState[] gridBlocks = new BlockState[BlockIndex.TREE_MIN_BLOCKS];
+		for (int i = 0; i < gridBlocks.length; i++)
+			gridBlocks[i] = facade.createNormalBlockState(new Point(i * 100, 0), new Point(i * 100 + 50, 50));
+		assertTrue(BlockIndex.create(gridBlocks) instanceof BlockLattice);
+
+		BlockState[] unevenBlocks = new BlockState[20];
+		for (int i = 0; i < unevenBlocks.length - 1; i++)
+			unevenBlocks[i] = facade.createNormalBlockState(new Point(i * 200, 0), new Point(i * 200 + 100, 100));
+		unevenBlocks[unevenBlocks.length - 1] = facade.createNormalBlockState(new Point(0, 30000), new Point(50000, 30100));
+		assertTrue(BlockIndex.create(unevenBlocks) instanceof BlockAabbTree);
+	}
+
+	@Test
+	void testTreeMatchesBruteForce() {
+		Random random = new Random(42);
+		BlockState[] randomBlocks = new BlockState[3000];
+		for (int i = 0; i < randomBlocks.length; i++) {
+			int x = random.nextInt(100000);
+			int y = random.nextInt(100000);
+			randomBlocks[i] = facade.createNormalBlockState(new Point(x, y), new Point(x + 1 + random.nextInt(3000), y + 1 + random.nextInt(3000)));
+		}
+		BlockAabbTree randomTree = new BlockAabbTree(randomBlocks);
+		assertTrue(randomTree.getDepth() <= 13);
+		boolean[] removed = new boolean[randomBlocks.length];
+		for (int round = 0; round < 500; round++) {
+			int slot = random.nextInt(randomBlocks.length);
+			if (!removed[slot]) {
+				removed[slot] = true;
+				randomTree.remove(slot);
+			}
+			int left = random.nextInt(100000);
+			int top = random.nextInt(100000);
+			int right = left + random.nextInt(5000);
+			int bottom = top + random.nextInt(5000);
+			int count = randomTree.query(left, top, right, bottom);
+			int k = 0;
+			for (int i = 0; i < randomBlocks.length; i++) {
+				BlockState block = randomBlocks[i];
+				if (!removed[i] && block.getTopLeft().getX() <= right && block.getBottomRight().getX() >= left &&
+						block.getTopLeft().getY() <= bottom && block.getBottomRight().getY() >= top) {
+					assertEquals(i, randomTree.getCandidate(k++));
+				}
+			}
+			assertEquals(k, count);
+		}
+	}
+
+	@Test
+	void testLattice() {
+		BlockState[] levelBlocks = GameMap.createStateFromDescription("##########\n# S ! R #\n\n    #\n     o\n\n     =\n\n").getBlocks();
+		assertTrue(BlockLattice.isLattice(levelBlocks));
+		assertFalse(BlockLattice.isLattice(blocks));
+		assertFalse(BlockLattice.isLattice(new BlockState[] {
+				facade.createNormalBlockState(new Point(0, 0), new Point(100, 100)),
+				facade.createNormalBlockState(new Point(50, 0), new Point(150, 100))}));
+
+		BlockLattice lattice = new BlockLattice(levelBlocks);
+		assertEquals(10, lattice.getColumns());
+		assertEquals(4, lattice.getRows());
+
+		Random random = new Random(7);
+		boolean[] removed = new boolean[levelBlocks.length];
+		for (int round = 0; round < 500; round++) {
+			int slot = random.nextInt(levelBlocks.length);
+			if (!removed[slot] && random.nextInt(4) == 0) {
+				removed[slot] = true;
+				lattice.remove(slot);
+			}
+			int left = random.nextInt(60000) - 5000;
+			int top = random.nextInt(40000) - 5000;
+			int right = left + random.nextInt(8000);
+			int bottom = top + random.nextInt(8000);
+			int count = lattice.query(left, top, right, bottom);
+			int k = 0;
+			for (int i = 0; i < levelBlocks.length; i++) {
+				BlockState block = levelBlocks[i];
+				if (!removed[i] && block.getTopLeft().getX() <= right && block.getBottomRight().getX() >= left &&
+						block.getTopLeft().getY() <= bottom && block.getBottomRight().getY() >= top) {
+					assertEquals(i, lattice.getCandidate(k++));
+				}
+			}
+			assertEquals(k, count);
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+package breakout;
+
+/**
+ * An index over blocks that all have the same size and lie on a regular grid, like the levels built by {@code GameMap}.
+ *
+ * The block in column {@code c} and row {@code r} of the grid has its top left corner at
+ * {@code (originX + c * pitchX, originY + r * pitchY)}, and every cell of the grid holds at most one block.
+ * Which cells still hold a block is kept in a bitboard with one bit per cell, so the cells a query overlaps follow
+ * from a division and removing a block clears a single bit. A {@code GameMap} level has 80 cells, which fit in two {@code long}s.
+ */
+
+class BlockLattice extends BlockIndex {
+
+	/**
+	 * The maximum amount of cells a lattice may have per block, apart from a fixed allowance for small levels.
+	 * Sparser layouts are better served by another kind of index.
+	 */
+
+	static final int MAX_CELLS_PER_BLOCK = 4;
+
+	/**
+	 * @invar | pitchX > 0 && pitchY > 0
+	 * @invar | columns >= 1 && rows >= 1
+	 * @invar | occupied != null && slotOfCell != null
+	 * @invar | slotOfCell.length == columns * rows
+	 * @invar | occupied.length == (columns * rows + 63) / 64
+	 */
+
+	private final int originX;
+	private final int originY;
+	private final int pitchX;
+	private final int pitchY;
+	private final int blockWidth;
+	private final int blockHeight;
+	private final int columns;
+	private final int rows;
+	private final long[] occupied;
+	private final int[] slotOfCell;
+
+	/**
+	 * Initializes this lattice so that it stores every block of {@code blocks} under its index.
+	 *
+	 * @pre | blocks != null
+	 * @pre | isLattice(blocks)
+	 *
+	 * @inspects | blocks
+	 */
+
+	BlockLattice(BlockState[] blocks) {
+		super(blocks);
+		int slots = getSlotCount();
+		blockWidth = right[0] - left[0];
+		blockHeight = bottom[0] - top[0];
+		originX = min(left);
+		originY = min(top);
+		pitchX = pitch(left, originX, blockWidth);
+		pitchY = pitch(top, originY, blockHeight);
+		columns = (max(left) - originX) / pitchX + 1;
+		rows = (max(top) - originY) / pitchY + 1;
+		occupied = new long[(columns * rows + 63) / 64];
+		slotOfCell = new int[columns * rows];
+		for (int slot = 0; slot < slots; slot++) {
+			int cell = (top[slot] - originY) / pitchY * columns + (left[slot] - originX) / pitchX;
+			occupied[cell >> 6] |= 1L << cell;
+			slotOfCell[cell] = slot;
+		}
+	}
+
+	private BlockLattice(BlockLattice other) {
+		super(other);
+		originX = other.originX;
+		originY = other.originY;
+		pitchX = other.pitchX;
+		pitchY = other.pitchY;
+		blockWidth = other.blockWidth;
+		blockHeight = other.blockHeight;
+		columns = other.columns;
+		rows = other.rows;
+		occupied = other.occupied.clone();
+		slotOfCell = other.slotOfCell;
+	}
+
+	@Override
+
+	BlockLattice copy() {
+		return new BlockLattice(this);
+	}
+
+	@Override
+
+	void copyFrom(BlockIndex other) {
+		BlockLattice lattice = (BlockLattice)other;
+		System.arraycopy(lattice.occupied, 0, occupied, 0, occupied.length);
+	}
+
+	/**
+	 * Returns whether the given blocks form a lattice this class can index: there is at least one block, all blocks have the
+	 * same size, they lie on a grid whose pitch is at least that size, no two blocks share a cell and the grid isn't much larger
+	 * than the amount of blocks.
+	 *
+	 * @pre | blocks != null
+	 * @pre | java.util.Arrays.stream(blocks).noneMatch(b -> b == null)
+	 *
+	 * @inspects | blocks
+	 */
+
+	static boolean isLattice(BlockState[] blocks) {
+		if (blocks.length == 0)
+			return false;
+		int n = blocks.length;
+		int[] lefts = new int[n];
+		int[] tops = new int[n];
+		int width = blocks[0].getBottomRight().getX() - blocks[0].getTopLeft().getX();
+		int height = blocks[0].getBottomRight().getY() - blocks[0].getTopLeft().getY();
+		for (int i = 0; i < n; i++) {
+			lefts[i] = blocks[i].getTopLeft().getX();
+			tops[i] = blocks[i].getTopLeft().getY();
+			if (blocks[i].getBottomRight().getX() - lefts[i] != width || blocks[i].getBottomRight().getY() - tops[i] != height)
+				return false;
+		}
+		int minX = min(lefts);
+		int minY = min(tops);
+		long spanX = (long)max(lefts) - minX;
+		long spanY = (long)max(tops) - minY;
+		if (spanX > Integer.MAX_VALUE || spanY > Integer.MAX_VALUE)
+			return false;
+		int pitchX = pitch(lefts, minX, width);
+		int pitchY = pitch(tops, minY, height);
+		if (pitchX < width || pitchY < height)
+			return false;
+		long cells = (spanX / pitchX + 1) * (spanY / pitchY + 1);
+		if (cells > (long)MAX_CELLS_PER_BLOCK * n + 64)
+			return false;
+		int columns = (int)(spanX / pitchX + 1);
+		long[] seen = new long[(int)((cells + 63) / 64)];
+		for (int i = 0; i < n; i++) {
+			int cell = (tops[i] - minY) / pitchY * columns + (lefts[i] - minX) / pitchX;
+			if ((seen[cell >> 6] & 1L << cell) != 0)
+				return false;
+			seen[cell >> 6] |= 1L << cell;
+		}
+		return true;
+	}
+
+	private static int min(int[] values) {
+		int result = Integer.MAX_VALUE;
+		for (int value : values)
+			result = Math.min(result, value);
+		return result;
+	}
+
+	private static int max(int[] values) {
+		int result = Integer.MIN_VALUE;
+		for (int value : values)
+			result = Math.max(result, value);
+		return result;
+	}
+
+	/**
+	 * Returns the greatest common divisor of the offsets of {@code values} from {@code origin}, or {@code Math.max(1, size)}
+	 * if all values are equal to {@code origin}.
+	 */
+
+	private static int pitch(int[] values, int origin, int size) {
+		int result = 0;
+		for (int value : values) {
+			int a = value - origin;
+			int b = result;
+			while (b != 0) {
+				int t = a % b;
+				a = b;
+				b = t;
+			}
+			result = a;
+		}
+		return result == 0 ? Math.max(1, size) : result;
+	}
+
+	/**
+	 * Returns the amount of columns of this lattice.
+	 */
+
+	int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the amount of rows of this lattice.
+	 */
+
+	int getRows() {
+		return rows;
+	}
+
+	@Override
+
+	void remove(int slot) {
+		int cell = (top[slot] - originY) / pitchY * columns + (left[slot] - originX) / pitchX;
+		occupied[cell >> 6] &= ~(1L << cell);
+	}
+
+	@Override
+
+	int query(int left, int top, int right, int bottom) {
+		int fromColumn = (int)Math.max(0, Math.floorDiv((long)left - originX - blockWidth + pitchX - 1, pitchX));
+		int toColumn = (int)Math.min(columns - 1, Math.floorDiv((long)right - originX, pitchX));
+		int fromRow = (int)Math.max(0, Math.floorDiv((long)top - originY - blockHeight + pitchY - 1, pitchY));
+		int toRow = (int)Math.min(rows - 1, Math.floorDiv((long)bottom - originY, pitchY));
+		int count = 0;
+		for (int row = fromRow; row <= toRow; row++) {
+			for (int column = fromColumn; column <= toColumn; column++) {
+				int cell = row * columns + column;
+				if ((occupied[cell >> 6] & 1L << cell) != 0)
+					setCandidate(count++, slotOfCell[cell]);
+			}
+		}
+		sortCandidates(count);
+		return count;
+	}
+}
@@ -0,0 +1,249 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * A uniform spatial hash over the blocks of a breakout state.
+ * The field is divided into cells of {@code getCellWidth()} by {@code getCellHeight()} units and every block is stored
+ * in each cell its bounds cover. Cells are addressed through an open-addressing hash table, so arbitrary block placements
+ * and huge fields only cost memory for the cells that actually contain blocks.
+ *
+ * @invar | getCellWidth() > 0
+ * @invar | getCellHeight() > 0
+ */
+
+class BlockSpatialHash extends BlockIndex {
+
+	/**
+	 * @invar | cellWidth > 0 && cellHeight > 0
+	 * @invar | keys != null && cellStart != null && cellSize != null
+	 * @invar | keys.length == cellStart.length && keys.length == cellSize.length
+	 * @invar | entries != null
+	 * @invar | stamps != null
+	 *
+	 * The slots of the blocks in a cell are stored in ascending order in
+	 * {@code entries[cellStart[c]]} up to (but not including) {@code entries[cellStart[c] + cellSize[c]]}.
+	 */
+
+	private static final long EMPTY = -1;
+
+	/** The most cell references the table takes, so that its capacity, four times as many rounded down to a power of two, fits an {@code int}. */
+	private static final long MAX_REFERENCES = 1 << 28;
+
+	private final int cellWidth;
+	private final int cellHeight;
+	private final long[] keys;
+	private final int[] cellStart;
+	private final int[] cellSize;
+	private final int[] entries;
+	private final int mask;
+	private int minCellX = Integer.MAX_VALUE;
+	private int minCellY = Integer.MAX_VALUE;
+	private int maxCellX = Integer.MIN_VALUE;
+	private int maxCellY = Integer.MIN_VALUE;
+
+	private final int[] stamps;
+	private int stamp;
+
+	/**
+	 * Initializes this spatial hash so that it stores every block of {@code blocks} under its index.
+	 * The cell size is the average width and height of the given blocks.
+	 *
+	 * @pre | blocks != null
+	 * @pre | java.util.Arrays.stream(blocks).noneMatch(b -> b == null)
+	 *
+	 * @throws IllegalArgumentException if the blocks cover more than {@code MAX_REFERENCES} cells in total
+	 *
+	 * @inspects | blocks
+	 */
+
+	BlockSpatialHash(BlockState[] blocks) {
+		super(blocks);
+		int slots = getSlotCount();
+		long totalWidth = 0;
+		long totalHeight = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			totalWidth += right[slot] - left[slot];
+			totalHeight += bottom[slot] - top[slot];
+		}
+		cellWidth = slots == 0 ? 1 : (int)Math.max(1, totalWidth / slots);
+		cellHeight = slots == 0 ? 1 : (int)Math.max(1, totalHeight / slots);
+
+		long references = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			minCellX = Math.min(minCellX, cellX(left[slot]));
+			minCellY = Math.min(minCellY, cellY(top[slot]));
+			maxCellX = Math.max(maxCellX, cellX(right[slot]));
+			maxCellY = Math.max(maxCellY, cellY(bottom[slot]));
+			references += (long)(cellX(right[slot]) - cellX(left[slot]) + 1) * (cellY(bottom[slot]) - cellY(top[slot]) + 1);
+		}
+		if (references > MAX_REFERENCES)
+			throw new IllegalArgumentException("the blocks cover " + references + " cells, more than a spatial hash holds");
+		int capacity = (int)Long.highestOneBit(Math.max(2, references) * 4);
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		cellStart = new int[capacity];
+		cellSize = new int[capacity];
+		mask = capacity - 1;
+
+		// First pass counts the blocks per cell, second pass fills the cells in slot order.
+		for (int slot = 0; slot < slots; slot++) {
+			for (int y = cellY(top[slot]); y <= cellY(bottom[slot]); y++) {
+				for (int x = cellX(left[slot]); x <= cellX(right[slot]); x++) {
+					cellSize[findOrInsert(x, y)]++;
+				}
+			}
+		}
+		int start = 0;
+		for (int c = 0; c < capacity; c++) {
+			cellStart[c] = start;
+			start += cellSize[c];
+			cellSize[c] = 0;
+		}
+		entries = new int[start];
+		for (int slot = 0; slot < slots; slot++) {
+			for (int y = cellY(top[slot]); y <= cellY(bottom[slot]); y++) {
+				for (int x = cellX(left[slot]); x <= cellX(right[slot]); x++) {
+					int c = findOrInsert(x, y);
+					entries[cellStart[c] + cellSize[c]++] = slot;
+				}
+			}
+		}
+		stamps = new int[slots];
+	}
+
+	private BlockSpatialHash(BlockSpatialHash other) {
+		super(other);
+		cellWidth = other.cellWidth;
+		cellHeight = other.cellHeight;
+		keys = other.keys;
+		cellStart = other.cellStart;
+		cellSize = other.cellSize.clone();
+		entries = other.entries.clone();
+		mask = other.mask;
+		minCellX = other.minCellX;
+		minCellY = other.minCellY;
+		maxCellX = other.maxCellX;
+		maxCellY = other.maxCellY;
+		stamps = new int[other.stamps.length];
+	}
+
+	@Override
+
+	BlockSpatialHash copy() {
+		return new BlockSpatialHash(this);
+	}
+
+	@Override
+
+	void copyFrom(BlockIndex other) {
+		BlockSpatialHash hash = (BlockSpatialHash)other;
+		System.arraycopy(hash.cellSize, 0, cellSize, 0, cellSize.length);
+		System.arraycopy(hash.entries, 0, entries, 0, entries.length);
+	}
+
+	/**
+	 * Returns the width of a cell of this spatial hash.
+	 */
+
+	int getCellWidth() {
+		return cellWidth;
+	}
+
+	/**
+	 * Returns the height of a cell of this spatial hash.
+	 */
+
+	int getCellHeight() {
+		return cellHeight;
+	}
+
+	private int cellX(int x) {
+		return Math.floorDiv(x, cellWidth);
+	}
+
+	private int cellY(int y) {
+		return Math.floorDiv(y, cellHeight);
+	}
+
+	private static long key(int x, int y) {
+		return ((long)x << 32) | (y & 0xffffffffL);
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	private int findOrInsert(int x, int y) {
+		long key = key(x, y);
+		int c = hash(key) & mask;
+		while (keys[c] != EMPTY && keys[c] != key) {
+			c = (c + 1) & mask;
+		}
+		keys[c] = key;
+		return c;
+	}
+
+	private int find(int x, int y) {
+		long key = key(x, y);
+		int c = hash(key) & mask;
+		while (keys[c] != EMPTY) {
+			if (keys[c] == key)
+				return c;
+			c = (c + 1) & mask;
+		}
+		return -1;
+	}
+
+	@Override
+
+	void remove(int slot) {
+		for (int y = cellY(top[slot]); y <= cellY(bottom[slot]); y++) {
+			for (int x = cellX(left[slot]); x <= cellX(right[slot]); x++) {
+				int c = find(x, y);
+				if (c < 0)
+					continue;
+				int start = cellStart[c];
+				int end = start + cellSize[c];
+				for (int i = start; i < end; i++) {
+					if (entries[i] == slot) {
+						System.arraycopy(entries, i + 1, entries, i, end - i - 1);
+						cellSize[c]--;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+
+	int query(int left, int top, int right, int bottom) {
+		if (++stamp == 0) {
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		int count = 0;
+		int fromX = Math.max(minCellX, cellX(left));
+		int toX = Math.min(maxCellX, cellX(right));
+		int toY = Math.min(maxCellY, cellY(bottom));
+		for (int y = Math.max(minCellY, cellY(top)); y <= toY; y++) {
+			for (int x = fromX; x <= toX; x++) {
+				int c = find(x, y);
+				if (c < 0)
+					continue;
+				int end = cellStart[c] + cellSize[c];
+				for (int i = cellStart[c]; i < end; i++) {
+					int slot = entries[i];
+					if (stamps[slot] == stamp)
+						continue;
+					stamps[slot] = stamp;
+					setCandidate(count++, slot);
+				}
+			}
+		}
+		sortCandidates(count);
+		return count;
+	}
+}
@@ -123,6 +123,20 @@ public abstract class BlockState {
 				((BlockState)obj).getBottomRight().equals(getBottomRight());
 	}
 	
+	/**
+	 * Returns a hash code for this block that is consistent with {@code equals}.
+	 */
+	
+	@Override
+	
+	public int hashCode() {
+		final int prime = 31;
+		int result = getClass().getName().hashCode();
+		result = prime * result + topLeft.hashCode();
+		result = prime * result + bottomRight.hashCode();
+		return prime * result + getHealth();
+	}
+	
 	/**
 	 * Returns {@code ball}, unless {@code this} is a powerup block.
 	 * 
@@ -0,0 +1,406 @@
+package breakout;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * The blocks of a breakout state, stored as a type code and a health per slot instead of as {@code BlockState} objects.
+ * A slot is the index of a block in the array the store was built from, like in {@code BlockIndex}.
+ *
+ * Which slots still hold a block is kept in a bitboard with one bit per slot. Damaging a sturdy block decrements its health
+ * and destroying a block clears its bit, so hitting a block never creates objects. The rules follow {@code BlockState} and its subclasses
+ * exactly. {@code BlockState} objects are only created on demand, by {@code get} and {@code toArray}.
+ * The store also keeps the exclusive or of the {@code StateHash} keys of its remaining blocks up to date.
+ * The bounds and kinds of the blocks never change, so copies of a store share them.
+ *
+ * @invar | 0 <= getCount() && getCount() <= getSlotCount()
+ */
+
+final class BlockStore {
+
+	static final byte NORMAL = 0;
+	static final byte STURDY = 1;
+	static final byte REPLICATOR = 2;
+	static final byte POWERUP = 3;
+
+	/**
+	 * @invar | topLeft != null && bottomRight != null && kind != null && health != null && occupied != null
+	 * @invar | bottomRight.length == topLeft.length && kind.length == topLeft.length && health.length == topLeft.length
+	 * @invar | occupied.length == (topLeft.length + 63) / 64
+	 * @invar The amount of set bits in {@code occupied} is {@code count}
+	 * @invar {@code hash} is the exclusive or of {@code key(slot)} over the occupied slots
+	 */
+
+	private final Point[] topLeft;
+	private final Point[] bottomRight;
+	private final byte[] kind;
+	private final int[] health;
+	private final long[] occupied;
+	private int count;
+	private long hash;
+
+	/**
+	 * Initializes this store so that it holds the given blocks, each in the slot of its index.
+	 *
+	 * @pre | blocks != null
+	 * @pre | java.util.Arrays.stream(blocks).noneMatch(b -> b == null)
+	 *
+	 * @inspects | blocks
+	 *
+	 * @post | getCount() == blocks.length
+	 * @post | java.util.stream.IntStream.range(0, blocks.length).allMatch(i -> get(i).equals(blocks[i]))
+	 */
+
+	BlockStore(BlockState[] blocks) {
+		int slots = blocks.length;
+		topLeft = new Point[slots];
+		bottomRight = new Point[slots];
+		kind = new byte[slots];
+		health = new int[slots];
+		occupied = new long[(slots + 63) / 64];
+		for (int slot = 0; slot < slots; slot++) {
+			BlockState block = blocks[slot];
+			topLeft[slot] = block.getTopLeft();
+			bottomRight[slot] = block.getBottomRight();
+			kind[slot] = block instanceof SturdyBlockState ? STURDY :
+				block instanceof ReplicatorBlockState ? REPLICATOR :
+				block instanceof PowerupBlockState ? POWERUP : NORMAL;
+			health[slot] = block.getHealth();
+			occupied[slot >> 6] |= 1L << slot;
+			hash ^= key(slot);
+		}
+		count = slots;
+	}
+
+	/**
+	 * Initializes this store as a copy of {@code other} that can be changed independently of it.
+	 *
+	 * @pre | other != null
+	 *
+	 * @inspects | other
+	 *
+	 * @post | getCount() == other.getCount()
+	 */
+
+	BlockStore(BlockStore other) {
+		topLeft = other.topLeft;
+		bottomRight = other.bottomRight;
+		kind = other.kind;
+		health = other.health.clone();
+		occupied = other.occupied.clone();
+		count = other.count;
+		hash = other.hash;
+	}
+
+	/**
+	 * Returns whether {@code other} is this store or a copy of it, or whether they were both copied from the same store.
+	 *
+	 * @pre | other != null
+	 */
+
+	boolean sharesLayoutWith(BlockStore other) {
+		return kind == other.kind;
+	}
+
+	/**
+	 * Returns whether this store holds the same blocks as {@code other}, with the same health.
+	 *
+	 * @pre | other != null
+	 * @pre | sharesLayoutWith(other)
+	 */
+
+	boolean hasSameBlocksAs(BlockStore other) {
+		return count == other.count && Arrays.equals(occupied, other.occupied) && Arrays.equals(health, other.health);
+	}
+
+	/**
+	 * Makes this store hold the same blocks as {@code other}, reusing the memory of this store.
+	 *
+	 * @pre | other != null
+	 * @pre | sharesLayoutWith(other)
+	 *
+	 * @mutates | this
+	 * @inspects | other
+	 *
+	 * @post | getCount() == other.getCount()
+	 */
+
+	void copyFrom(BlockStore other) {
+		System.arraycopy(other.health, 0, health, 0, health.length);
+		System.arraycopy(other.occupied, 0, occupied, 0, occupied.length);
+		count = other.count;
+		hash = other.hash;
+	}
+
+	/**
+	 * Returns the exclusive or of the {@code StateHash} keys of the remaining blocks.
+	 */
+
+	long hash() {
+		return hash;
+	}
+
+	private long key(int slot) {
+		return StateHash.block(kind[slot], topLeft[slot], bottomRight[slot], health[slot]);
+	}
+
+	/**
+	 * Returns the amount of slots of this store.
+	 */
+
+	int getSlotCount() {
+		return kind.length;
+	}
+
+	/**
+	 * Returns the amount of blocks that haven't been destroyed yet.
+	 */
+
+	int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns whether the given slot still holds a block.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 */
+
+	boolean isOccupied(int slot) {
+		return (occupied[slot >> 6] & 1L << slot) != 0;
+	}
+
+	/**
+	 * Returns the first slot from {@code from} onwards that still holds a block, or -1 if there is none.
+	 *
+	 * @pre | 0 <= from
+	 *
+	 * @post | result == -1 || result >= from && isOccupied(result)
+	 */
+
+	int nextOccupied(int from) {
+		int word = from >> 6;
+		if (word >= occupied.length)
+			return -1;
+		long bits = occupied[word] & -1L << from;
+		while (bits == 0) {
+			if (++word == occupied.length)
+				return -1;
+			bits = occupied[word];
+		}
+		return word << 6 | Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Returns the slot of the block at the given index in the order of {@code toArray}, so without the destroyed blocks.
+	 *
+	 * @pre | 0 <= index && index < getCount()
+	 *
+	 * @post | isOccupied(result)
+	 */
+
+	int slotOf(int index) {
+		int word = 0;
+		for (int bits = Long.bitCount(occupied[0]); index >= bits; bits = Long.bitCount(occupied[++word])) {
+			index -= bits;
+		}
+		long bits = occupied[word];
+		for (; index > 0; index--) {
+			bits &= bits - 1;
+		}
+		return word << 6 | Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Returns the top left corner of the block in the given slot.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 */
+
+	Point getTopLeft(int slot) {
+		return topLeft[slot];
+	}
+
+	/**
+	 * Returns the bottom right corner of the block in the given slot.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 */
+
+	Point getBottomRight(int slot) {
+		return bottomRight[slot];
+	}
+
+	/**
+	 * Returns the kind of the block in the given slot, one of {@code NORMAL}, {@code STURDY}, {@code REPLICATOR} and {@code POWERUP}.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 */
+
+	byte getKind(int slot) {
+		return kind[slot];
+	}
+
+	/**
+	 * Returns the health of the block in the given slot, like {@code BlockState.getHealth}.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 */
+
+	int getHealth(int slot) {
+		return health[slot];
+	}
+
+	/**
+	 * Returns the color of the block in the given slot, like {@code BlockState.getColor}.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 * @pre | isOccupied(slot)
+	 */
+
+	Color getColor(int slot) {
+		switch (kind[slot]) {
+		case STURDY:
+			return health[slot] == 1 ? Color.YELLOW : health[slot] == 2 ? Color.ORANGE : Color.RED;
+		case REPLICATOR:
+			return Color.GREEN;
+		case POWERUP:
+			return Color.BLUE;
+		default:
+			return Color.WHITE;
+		}
+	}
+
+	/**
+	 * Calls {@code visitor} for every remaining block, in the order of their slots.
+	 *
+	 * @pre | visitor != null
+	 */
+
+	void forEach(BlockVisitor visitor) {
+		for (int word = 0; word < occupied.length; word++) {
+			for (long bits = occupied[word]; bits != 0; bits &= bits - 1) {
+				int slot = word << 6 | Long.numberOfTrailingZeros(bits);
+				visitor.visitBlock(topLeft[slot], bottomRight[slot], getColor(slot));
+			}
+		}
+	}
+
+	/**
+	 * Returns a new block object equal to the block in the given slot.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 * @pre | isOccupied(slot)
+	 *
+	 * @creates | result
+	 */
+
+	BlockState get(int slot) {
+		return block(kind[slot], topLeft[slot], bottomRight[slot], health[slot]);
+	}
+
+	/**
+	 * Returns a new block object of the given kind with the given corners and, for a sturdy block, the given health.
+	 *
+	 * @pre | kind == NORMAL || kind == STURDY || kind == REPLICATOR || kind == POWERUP
+	 *
+	 * @creates | result
+	 */
+
+	static BlockState block(byte kind, Point topLeft, Point bottomRight, int health) {
+		switch (kind) {
+		case STURDY:
+			return new SturdyBlockState(topLeft, bottomRight, health);
+		case REPLICATOR:
+			return new ReplicatorBlockState(topLeft, bottomRight);
+		case POWERUP:
+			return new PowerupBlockState(topLeft, bottomRight);
+		default:
+			return new NormalBlockState(topLeft, bottomRight);
+		}
+	}
+
+	/**
+	 * Returns a new array containing new block objects equal to the remaining blocks, in the order of their slots.
+	 *
+	 * @creates | result, ...result
+	 *
+	 * @post | result.length == getCount()
+	 */
+
+	BlockState[] toArray() {
+		BlockState[] result = new BlockState[count];
+		int i = 0;
+		for (int word = 0; word < occupied.length; word++) {
+			for (long bits = occupied[word]; bits != 0; bits &= bits - 1) {
+				result[i++] = get(word << 6 | Long.numberOfTrailingZeros(bits));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether the block in the given slot gets destroyed when a ball hits it, like {@code BlockState.getsDestroyedOnCollision}.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 * @pre | isOccupied(slot)
+	 */
+
+	boolean getsDestroyedOnCollision(int slot) {
+		return kind[slot] != STURDY || health[slot] <= 1;
+	}
+
+	/**
+	 * Returns the amount of replications of the paddle after a ball hit the block in the given slot, given the amount of replications
+	 * {@code replications} of the paddle before, like {@code BlockState.specialBlockHandler(PaddleState)}.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 * @pre | isOccupied(slot)
+	 */
+
+	int specialBlockHandler(int slot, int replications) {
+		if (kind[slot] == REPLICATOR)
+			return 3;
+		return replications;
+	}
+
+	/**
+	 * Applies the effect of the block in the given slot to the ball at index {@code ball} of {@code balls},
+	 * like {@code BlockState.specialBlockHandler(Ball)}.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 * @pre | isOccupied(slot)
+	 * @pre | balls != null
+	 * @pre | 0 <= ball && ball < balls.size()
+	 *
+	 * @mutates | balls
+	 */
+
+	void specialBlockHandler(int slot, BallStore balls, int ball) {
+		if (kind[slot] == POWERUP)
+			balls.supercharge(ball);
+	}
+
+	/**
+	 * Damages the block in the given slot after a ball hit it, like {@code BlockState.specialBlockHandler()}, and returns whether it got destroyed.
+	 *
+	 * @pre | 0 <= slot && slot < getSlotCount()
+	 * @pre | isOccupied(slot)
+	 *
+	 * @mutates | this
+	 *
+	 * @post | result == !isOccupied(slot)
+	 */
+
+	boolean specialBlockHandler(int slot) {
+		hash ^= key(slot);
+		if (kind[slot] == STURDY && health[slot] > 1) {
+			health[slot]--;
+			hash ^= key(slot);
+			return false;
+		}
+		occupied[slot >> 6] &= ~(1L << slot);
+		count--;
+		return true;
+	}
+}
@@ -0,0 +1,97 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlockStoreTest {
+
+	BlockState[] blocks;
+	BlockStore store;
+
+	@BeforeEach
+	void setUp() {
+		blocks = new BlockState[] {
+				new NormalBlockState(new Point(0, 0), new Point(100, 100)),
+				new SturdyBlockState(new Point(200, 0), new Point(300, 100), 2),
+				new ReplicatorBlockState(new Point(400, 0), new Point(500, 100)),
+				new PowerupBlockState(new Point(600, 0), new Point(700, 100))
+		};
+		store = new BlockStore(blocks);
+	}
+
+	@Test
+	void testMaterialize() {
+		assertEquals(4, store.getCount());
+		for (int slot = 0; slot < blocks.length; slot++) {
+			assertTrue(store.isOccupied(slot));
+			assertEquals(blocks[slot], store.get(slot));
+		}
+		assertArrayEquals(blocks, store.toArray());
+	}
+
+	@Test
+	void testHitsMatchBlockState() {
+		for (int slot = 0; slot < blocks.length; slot++) {
+			assertEquals(blocks[slot].getsDestroyedOnCollision(), store.getsDestroyedOnCollision(slot));
+		}
+
+		assertFalse(store.specialBlockHandler(1));
+		assertEquals(blocks[1].specialBlockHandler(), store.get(1));
+		assertTrue(store.getsDestroyedOnCollision(1));
+		assertTrue(store.specialBlockHandler(1));
+		assertFalse(store.isOccupied(1));
+
+		assertTrue(store.specialBlockHandler(0));
+		assertEquals(2, store.getCount());
+		assertArrayEquals(new BlockState[] {blocks[2], blocks[3]}, store.toArray());
+	}
+
+	@Test
+	void testHashTracksChanges() {
+		store.specialBlockHandler(1);
+		store.specialBlockHandler(2);
+		assertEquals(new BlockStore(store.toArray()).hash(), store.hash());
+		store.specialBlockHandler(1);
+		store.specialBlockHandler(0);
+		store.specialBlockHandler(3);
+		assertEquals(0, store.hash());
+	}
+
+	@Test
+	void testSlotOf() {
+		store.specialBlockHandler(0);
+		store.specialBlockHandler(2);
+		assertEquals(1, store.slotOf(0));
+		assertEquals(3, store.slotOf(1));
+		assertEquals(blocks[1].getColor(), store.getColor(1));
+		assertEquals(blocks[3].getColor(), store.getColor(3));
+
+		BlockState[] many = new BlockState[130];
+		for (int i = 0; i < many.length; i++)
+			many[i] = new NormalBlockState(new Point(i * 10, 0), new Point(i * 10 + 5, 5));
+		BlockStore manyStore = new BlockStore(many);
+		for (int slot = 0; slot < many.length; slot += 3)
+			manyStore.specialBlockHandler(slot);
+		BlockState[] remaining = manyStore.toArray();
+		for (int i = 0; i < remaining.length; i++)
+			assertEquals(remaining[i].getTopLeft(), manyStore.getTopLeft(manyStore.slotOf(i)));
+	}
+
+	@Test
+	void testSpecialBlocks() {
+		PaddleState paddle = new NormalPaddleState(new Point(5000, 5000));
+		assertEquals(paddle.getAmountOfReplications(), store.specialBlockHandler(0, paddle.getAmountOfReplications()));
+		assertEquals(blocks[2].specialBlockHandler(paddle).getAmountOfReplications(), store.specialBlockHandler(2, paddle.getAmountOfReplications()));
+		assertEquals(2, store.specialBlockHandler(3, 2));
+
+		Ball ball = new NormalBall(new Point(650, 200), 100, new Vector(3, -4));
+		BallStore balls = new BallStore(new Ball[] {ball});
+		store.specialBlockHandler(0, balls, 0);
+		assertEquals(ball, balls.get(0));
+		store.specialBlockHandler(3, balls, 0);
+		assertEquals(blocks[3].specialBlockHandler(ball), balls.get(0));
+	}
+
+}
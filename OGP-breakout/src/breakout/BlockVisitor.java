@@ -0,0 +1,18 @@
+package breakout;
+
+import java.awt.Color;
+
+/**
+ * A callback that is called for every block of a breakout state by {@code BreakoutState.forEachBlock}.
+ * The corners are the state's own immutable points, so visiting the blocks doesn't create any objects.
+ */
+
+@FunctionalInterface
+public interface BlockVisitor {
+	
+	/**
+	 * Visits the block with the given corners and color.
+	 */
+	
+	void visitBlock(Point topLeft, Point bottomRight, Color color);
+}
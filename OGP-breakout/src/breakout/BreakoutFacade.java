@@ -61,6 +61,22 @@ public class BreakoutFacade {
 		return breakoutState.getBalls();
 	}
 
+	public int getBallCount(BreakoutState breakoutState) {
+		return breakoutState.getBallCount();
+	}
+
+	public void forEachBall(BreakoutState breakoutState, BallVisitor visitor) {
+		breakoutState.forEachBall(visitor);
+	}
+
+	public int getBlockCount(BreakoutState breakoutState) {
+		return breakoutState.getBlockCount();
+	}
+
+	public void forEachBlock(BreakoutState breakoutState, BlockVisitor visitor) {
+		breakoutState.forEachBlock(visitor);
+	}
+
 	public Color getColor(BlockState block) {
 		return block.getColor();
 	}
@@ -0,0 +1,37 @@
+package breakout;
+
+/**
+ * The state of a breakout game at some point in time, which {@code BreakoutState.restore} can bring the game, or any fork of it,
+ * back to any number of times.
+ * 
+ * @immutable
+ */
+
+public final class BreakoutSnapshot {
+	
+	/**
+	 * A private fork of the game, which is never changed.
+	 * 
+	 * @invar | state != null
+	 * 
+	 * @representationObject
+	 */
+	
+	final BreakoutState state;
+	
+	/**
+	 * @pre | state != null
+	 */
+	
+	BreakoutSnapshot(BreakoutState state) {
+		this.state = state;
+	}
+	
+	/**
+	 * Returns the state hash of the game at the time of this snapshot.
+	 */
+	
+	public long getStateHash() {
+		return state.getStateHash();
+	}
+}
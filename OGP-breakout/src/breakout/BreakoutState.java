@@ -1,7 +1,9 @@
 package breakout;
 
+import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.stream.IntStream;
 
 /**
@@ -42,37 +44,96 @@ public class BreakoutState {
 	
 	/**
 	 * @invar | balls != null
-	 * @invar | Arrays.stream(balls).noneMatch(e -> e == null)
 	 * 
 	 * @invar | blocks != null
-	 * @invar | Arrays.stream(blocks).noneMatch(e -> e == null)
-	 * @invar | Arrays.stream(blocks).noneMatch(e -> 
+	 * @invar | Arrays.stream(blocks.toArray()).noneMatch(e -> 
 	 * 		  |		e.getTopLeft().getX() < 0 || 
 	 *        | 	e.getBottomRight().getX() > bottomRight.getX() ||
 	 *        |		e.getTopLeft().getY() < 0 || 
 	 *        |		e.getBottomRight().getY() > bottomRight.getY() )
+	 * @invar Every block keeps its slot in {@code blocks} and in {@code blockIndex}, and destroyed blocks are removed from both
+	 *        | blockIndex != null && blockIndex.getSlotCount() == blocks.getSlotCount()
 	 * 
 	 * @invar | bottomRight != null
 	 * @invar | bottomRight.getX() >= 0 && bottomRight.getY() >= 0
 	 * 
-	 * @invar | paddle != null
-	 * @invar | paddle.getBottomRight().getX() <= bottomRight.getX() && 
-	 *        | paddle.getBottomRight().getY() <= bottomRight.getY() && 
-	 *        | paddle.getTopLeft().getX() >= 0 && 
-	 *        | paddle.getTopLeft().getY() >= 0 
+	 * @invar The paddle, centered at {@code (paddleX, paddleY)}, is entirely inside the field
+	 *        | paddleX + PaddleState.SIZE.getX() <= bottomRight.getX() && 
+	 *        | paddleY + PaddleState.SIZE.getY() <= bottomRight.getY() && 
+	 *        | paddleX - PaddleState.SIZE.getX() >= 0 && 
+	 *        | paddleY - PaddleState.SIZE.getY() >= 0 
+	 * @invar | 0 <= paddleReplications && paddleReplications <= 3
+	 * @invar {@code paddle} is either {@code null} or a paddle with the current center and amount of replications
+	 *        | paddle == null || 
+	 *        | paddle.getCenter().equals(new Point(paddleX, paddleY)) && paddle.getAmountOfReplications() == paddleReplications
 	 * @representationObject
 	 */
 	
-	private Ball[] balls;
+	private final BallStore balls;
 	/** @representationObject */
-	private BlockState[] blocks;
+	private final BlockStore blocks;
+	private final BlockIndex blockIndex;
 	private final Point bottomRight;
+	
+	/**
+	 * The paddle is stored as its center and its amount of replications, so moving it and testing it for collisions doesn't create
+	 * any objects. {@code paddle} caches the object {@code getPaddle} returns, until the paddle moves or changes kind.
+	 */
+	
+	private int paddleX;
+	private int paddleY;
+	private int paddleReplications;
 	private PaddleState paddle;
 	
 	private static final int MAX_SUPERCHARGED_TIME = 10000;
 	
 	public final static int MAX_ELAPSED_TIME = 50;
 	
+	public final static int DEFAULT_SUBSTEP_SIZE = 10;
+	
+	private static final int MAX_CONTACTS_PER_BALL = 10000;
+	
+	private static final int CONTACT_LEFT_WALL = 1;
+	private static final int CONTACT_TOP_WALL = 2;
+	private static final int CONTACT_RIGHT_WALL = 3;
+	private static final int CONTACT_LOWER_WALL = 4;
+	private static final int CONTACT_PADDLE = 5;
+	private static final int CONTACT_BLOCK = 6;
+	
+	/**
+	 * Scratch space for {@code tickContinuous}, indexed like the balls in {@code balls} and reused across ticks.
+	 */
+	
+	private double[] sweepX = new double[0];
+	private double[] sweepY = new double[0];
+	private double[] sweepTime = new double[0];
+	private double[] contactTime = new double[0];
+	private int[] contactKind = new int[0];
+	private int[] contactTarget = new int[0];
+	private int[] contactSide = new int[0];
+	private int[] contactCount = new int[0];
+	private boolean[] sweepLost = new boolean[0];
+	
+	/**
+	 * @invar | substepSize > 0
+	 * @invar | substepAccumulator >= 0
+	 */
+	
+	private int substepSize = DEFAULT_SUBSTEP_SIZE;
+	private int substepAccumulator;
+	
+	private static final GameEventListener[] NO_LISTENERS = {};
+	
+	/**
+	 * The listeners are kept in an array that is replaced, rather than changed, when a listener is added or removed, so raising an
+	 * event loops over a plain array, which is empty when nobody listens.
+	 * 
+	 * @invar | listeners != null
+	 * @invar | Arrays.stream(listeners).noneMatch(l -> l == null)
+	 */
+	
+	private GameEventListener[] listeners = NO_LISTENERS;
+	
 	/**
 	 * Initializes this object so that it stores the given balls, blocks, bottomRight point paddle.
 	 * 
@@ -157,40 +218,547 @@ public class BreakoutState {
 			throw new IllegalArgumentException("bottomRight should not be to the left of or above (0, 0)");
 		}
 			
-		this.balls = balls.clone();
-		this.blocks = blocks.clone();
+		this.balls = new BallStore(balls);
+		this.blocks = new BlockStore(blocks);
+		this.blockIndex = BlockIndex.create(blocks);
 		this.bottomRight = bottomRight;
+		this.paddleX = paddle.getCenter().getX();
+		this.paddleY = paddle.getCenter().getY();
+		this.paddleReplications = paddle.getAmountOfReplications();
 		this.paddle = paddle;
 	}
 	
 	/**
-	 * Returns a new array containing all the balls
+	 * Initializes this object so that it stores the given balls, blocks and field, and a paddle centered at {@code (paddleX, paddleY)}
+	 * with {@code paddleReplications} replications. Nothing is validated, so the caller should make sure the invariants hold.
+	 * 
+	 * @pre | balls != null && blocks != null && bottomRight != null
+	 * @pre | substepSize > 0 && substepAccumulator >= 0
+	 * 
+	 * @inspects | blocks
+	 */
+	
+	BreakoutState(BallStore balls, BlockState[] blocks, Point bottomRight, int paddleX, int paddleY, int paddleReplications,
+			int substepSize, int substepAccumulator) {
+		this.balls = balls;
+		this.blocks = new BlockStore(blocks);
+		this.blockIndex = BlockIndex.create(blocks);
+		this.bottomRight = bottomRight;
+		this.paddleX = paddleX;
+		this.paddleY = paddleY;
+		this.paddleReplications = paddleReplications;
+		this.substepSize = substepSize;
+		this.substepAccumulator = substepAccumulator;
+	}
+	
+	/**
+	 * Initializes this object as a copy of {@code other} that evolves independently of it. The copy is trusted, so nothing is validated,
+	 * and it shares everything that never changes during a game, like the bounds of the blocks, with {@code other}.
+	 * 
+	 * @pre | other != null
+	 * 
+	 * @inspects | other
+	 */
+	
+	private BreakoutState(BreakoutState other) {
+		this.balls = new BallStore(other.balls);
+		this.blocks = new BlockStore(other.blocks);
+		this.blockIndex = other.blockIndex.copy();
+		this.bottomRight = other.bottomRight;
+		this.paddleX = other.paddleX;
+		this.paddleY = other.paddleY;
+		this.paddleReplications = other.paddleReplications;
+		this.paddle = other.paddle;
+		this.substepSize = other.substepSize;
+		this.substepAccumulator = other.substepAccumulator;
+	}
+	
+	/**
+	 * Returns a new game in the same state as this one, which evolves independently of it.
+	 * 
+	 * Forking costs a handful of small array copies: unlike the public constructor, it doesn't validate anything or build a block index.
 	 * 
 	 * @creates | result
+	 * 
+	 * @post | result.getStateHash() == getStateHash()
+	 * @post | Arrays.equals(result.getBalls(), getBalls())
+	 * @post | Arrays.equals(result.getBlocks(), getBlocks())
+	 * @post | result.getPaddle().equals(getPaddle())
+	 * @post | result.getSubstepSize() == getSubstepSize() && result.getSubstepRemainder() == getSubstepRemainder()
 	 */
 	
-	public Ball[] getBalls() {
-		return balls.clone();
+	public BreakoutState fork() {
+		return new BreakoutState(this);
 	}
 	
 	/**
-	 * Returns a new array containing all the blocks 
+	 * Returns a snapshot of the current state of this game, which {@code restore} can bring this game, or any fork of it, back to.
 	 * 
 	 * @creates | result
 	 */
+	
+	public BreakoutSnapshot snapshot() {
+		return new BreakoutSnapshot(fork());
+	}
+	
+	/**
+	 * Brings this game back to the state of {@code snapshot}, reusing the memory of this game, so that restoring doesn't allocate
+	 * once this game has held as many balls as the snapshot.
+	 * 
+	 * @throws IllegalArgumentException if {@code snapshot} is {@code null}
+	 * 		| snapshot == null
+	 * @throws IllegalArgumentException if {@code snapshot} was not taken from this game, a fork of it or a game it was forked from
+	 * 
+	 * @mutates | this
+	 * 
+	 * @post | getStateHash() == snapshot.getStateHash()
+	 */
+	
+	public void restore(BreakoutSnapshot snapshot) {
+		if (snapshot == null)
+			throw new IllegalArgumentException("snapshot can't be null");
+		if (!sharesLayoutWith(snapshot.state))
+			throw new IllegalArgumentException("snapshot was taken from another game");
+		copyFrom(snapshot.state);
+	}
+	
+	/**
+	 * Returns whether this game and {@code other} are forks of the same game, so that {@code copyFrom} can copy one into the other.
+	 * 
+	 * @pre | other != null
+	 */
+	
+	boolean sharesLayoutWith(BreakoutState other) {
+		return blocks.sharesLayoutWith(other.blocks) && blockIndex.sharesLayoutWith(other.blockIndex);
+	}
+	
+	/**
+	 * Makes this game equal to {@code other}, reusing the memory of this game.
+	 * 
+	 * @pre | other != null
+	 * @pre | sharesLayoutWith(other)
+	 * 
+	 * @mutates | this
+	 * @inspects | other
+	 * 
+	 * @post | getStateHash() == other.getStateHash()
+	 */
+	
+	void copyFrom(BreakoutState other) {
+		balls.copyFrom(other.balls);
+		blocks.copyFrom(other.blocks);
+		blockIndex.copyFrom(other.blockIndex);
+		paddleX = other.paddleX;
+		paddleY = other.paddleY;
+		paddleReplications = other.paddleReplications;
+		paddle = other.paddle;
+		substepSize = other.substepSize;
+		substepAccumulator = other.substepAccumulator;
+	}
+	
+	/**
+	 * Registers {@code listener} to be told about the events of this game, after the listeners registered before it.
+	 * A listener that is registered more than once is told about every event that many times.
+	 * Forks and snapshots of this game don't inherit its listeners, and restoring a snapshot keeps them.
+	 * 
+	 * @throws IllegalArgumentException if {@code listener} is {@code null}
+	 * 		| listener == null
+	 * 
+	 * @mutates | this
+	 */
+	
+	public void addListener(GameEventListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("listener can't be null");
+		GameEventListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+		result[listeners.length] = listener;
+		listeners = result;
+	}
+	
+	/**
+	 * Removes one registration of {@code listener} (the most recent), so that a listener that was registered more than once is told
+	 * about every event one time less. Does nothing if {@code listener} isn't registered.
+	 * 
+	 * @throws IllegalArgumentException if {@code listener} is {@code null}
+	 * 		| listener == null
+	 * 
+	 * @mutates | this
+	 */
+	
+	public void removeListener(GameEventListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("listener can't be null");
+		for (int i = listeners.length - 1; i >= 0; i--) {
+			if (listeners[i] == listener) {
+				GameEventListener[] result = new GameEventListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, result, 0, i);
+				System.arraycopy(listeners, i + 1, result, i, result.length - i);
+				listeners = result.length == 0 ? NO_LISTENERS : result;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Stops telling any listener about the events of this game, so that it can be reused for another game after {@code restore}.
+	 * 
+	 * @mutates | this
+	 */
+	
+	public void removeAllListeners() {
+		listeners = NO_LISTENERS;
+	}
+	
+	/**
+	 * Returns a new array containing all the balls.
+	 * The balls are stored as primitives, so every call creates new ball objects: changing them doesn't change this object.
+	 * 
+	 * @creates | result, ...result
+	 */
+	
+	public Ball[] getBalls() {
+		return balls.toArray();
+	}
+	
+	/**
+	 * Returns a new array containing all the blocks.
+	 * The blocks are stored as primitives, so every call creates new block objects.
+	 * 
+	 * @creates | result, ...result
+	 */
 
 	public BlockState[] getBlocks() {
-		return blocks.clone();
+		return blocks.toArray();
+	}
+	
+	/**
+	 * Returns the amount of balls, without creating any objects.
+	 * 
+	 * @post | result == getBalls().length
+	 */
+	
+	public int getBallCount() {
+		return balls.size();
+	}
+	
+	/**
+	 * Returns the x coordinate of the center of the ball at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a ball
+	 * 		| i < 0 || i >= getBallCount()
+	 * 
+	 * @post | result == getBalls()[i].getCenter().getX()
+	 */
+	
+	public int getBallCenterX(int i) {
+		return balls.centerX[checkBallIndex(i)];
+	}
+	
+	/**
+	 * Returns the y coordinate of the center of the ball at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a ball
+	 * 		| i < 0 || i >= getBallCount()
+	 * 
+	 * @post | result == getBalls()[i].getCenter().getY()
+	 */
+	
+	public int getBallCenterY(int i) {
+		return balls.centerY[checkBallIndex(i)];
+	}
+	
+	/**
+	 * Returns the diameter of the ball at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a ball
+	 * 		| i < 0 || i >= getBallCount()
+	 * 
+	 * @post | result == getBalls()[i].getDiameter()
+	 */
+	
+	public int getBallDiameter(int i) {
+		return balls.diameter[checkBallIndex(i)];
+	}
+	
+	/**
+	 * Returns the x component of the velocity of the ball at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a ball
+	 * 		| i < 0 || i >= getBallCount()
+	 * 
+	 * @post | result == getBalls()[i].getVelocity().getX()
+	 */
+	
+	public int getBallVelocityX(int i) {
+		return balls.velocityX[checkBallIndex(i)];
+	}
+	
+	/**
+	 * Returns the y component of the velocity of the ball at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a ball
+	 * 		| i < 0 || i >= getBallCount()
+	 * 
+	 * @post | result == getBalls()[i].getVelocity().getY()
+	 */
+	
+	public int getBallVelocityY(int i) {
+		return balls.velocityY[checkBallIndex(i)];
 	}
 	
 	/**
-	 * Returns the paddle 
+	 * Returns the color of the ball at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a ball
+	 * 		| i < 0 || i >= getBallCount()
+	 * 
+	 * @post | result == getBalls()[i].getColor()
+	 */
+	
+	public Color getBallColor(int i) {
+		return balls.getColor(checkBallIndex(i));
+	}
+	
+	private int checkBallIndex(int i) {
+		return Objects.checkIndex(i, balls.size());
+	}
+	
+	/**
+	 * Calls {@code visitor} for every ball, in the order of {@code getBalls()}, without creating any objects.
+	 * The visitor should not change this object.
+	 * 
+	 * @throws IllegalArgumentException if {@code visitor} is {@code null}
+	 * 		| visitor == null
+	 */
+	
+	public void forEachBall(BallVisitor visitor) {
+		if (visitor == null) {
+			throw new IllegalArgumentException("visitor can't be null");
+		}
+		balls.forEach(visitor);
+	}
+	
+	/**
+	 * Returns the amount of blocks, without creating any objects.
+	 * 
+	 * @post | result == getBlocks().length
+	 */
+	
+	public int getBlockCount() {
+		return blocks.getCount();
+	}
+	
+	/**
+	 * Returns the top left corner of the block at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a block
+	 * 		| i < 0 || i >= getBlockCount()
+	 * 
+	 * @post | result.equals(getBlocks()[i].getTopLeft())
+	 */
+	
+	public Point getBlockTopLeft(int i) {
+		return blocks.getTopLeft(blockSlot(i));
+	}
+	
+	/**
+	 * Returns the bottom right corner of the block at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a block
+	 * 		| i < 0 || i >= getBlockCount()
+	 * 
+	 * @post | result.equals(getBlocks()[i].getBottomRight())
+	 */
+	
+	public Point getBlockBottomRight(int i) {
+		return blocks.getBottomRight(blockSlot(i));
+	}
+	
+	/**
+	 * Returns the color of the block at the given index.
+	 * 
+	 * @throws IndexOutOfBoundsException if {@code i} is not the index of a block
+	 * 		| i < 0 || i >= getBlockCount()
+	 * 
+	 * @post | result == getBlocks()[i].getColor()
+	 */
+	
+	public Color getBlockColor(int i) {
+		return blocks.getColor(blockSlot(i));
+	}
+	
+	private int blockSlot(int i) {
+		return blocks.slotOf(Objects.checkIndex(i, blocks.getCount()));
+	}
+	
+	/**
+	 * Calls {@code visitor} for every block, in the order of {@code getBlocks()}, without creating any objects.
+	 * The visitor should not change this object.
+	 * 
+	 * @throws IllegalArgumentException if {@code visitor} is {@code null}
+	 * 		| visitor == null
+	 */
+	
+	public void forEachBlock(BlockVisitor visitor) {
+		if (visitor == null) {
+			throw new IllegalArgumentException("visitor can't be null");
+		}
+		blocks.forEach(visitor);
+	}
+	
+	/**
+	 * Returns the paddle.
+	 * The same paddle object is returned until the paddle moves or changes kind, starting with the paddle given to the constructor.
 	 */
 	
 	public PaddleState getPaddle() {
+		if (paddle == null) {
+			Point center = new Point(paddleX, paddleY);
+			paddle = paddleReplications == 0 ? new NormalPaddleState(center) : new ReplicatorPaddleState(center, paddleReplications);
+		}
 		return paddle;
 	}
 	
+	/**
+	 * Returns the x coordinate of the center of the paddle, without creating any objects.
+	 * 
+	 * @post | result == getPaddle().getCenter().getX()
+	 */
+	
+	public int getPaddleCenterX() {
+		return paddleX;
+	}
+	
+	/**
+	 * Returns the y coordinate of the center of the paddle, without creating any objects.
+	 * 
+	 * @post | result == getPaddle().getCenter().getY()
+	 */
+	
+	public int getPaddleCenterY() {
+		return paddleY;
+	}
+	
+	/**
+	 * Returns the amount of replications of the paddle, without creating any objects.
+	 * 
+	 * @post | result == getPaddle().getAmountOfReplications()
+	 */
+	
+	int getPaddleReplications() {
+		return paddleReplications;
+	}
+	
+	/** Returns the store that holds the balls of this game. */
+	BallStore getBallStore() {
+		return balls;
+	}
+	
+	/** Returns the store that holds the blocks of this game. */
+	BlockStore getBlockStore() {
+		return blocks;
+	}
+	
+	/** Returns the index over the blocks of this game. */
+	BlockIndex getBlockIndex() {
+		return blockIndex;
+	}
+	
+	/**
+	 * Moves the paddle to {@code (x, y)} and gives it {@code replications} replications.
+	 * 
+	 * @pre The paddle stays inside the field
+	 * @pre | 0 <= replications && replications <= 3
+	 * 
+	 * @mutates | this
+	 */
+	
+	void setPaddle(int x, int y, int replications) {
+		if (y != paddleY) {
+			paddleY = y;
+			paddle = null;
+		}
+		movePaddleTo(x);
+		setPaddleReplications(replications);
+	}
+	
+	/**
+	 * Damages the block in the given slot of the block store once, like a ball hitting it does, and returns whether it got destroyed.
+	 * 
+	 * @pre | 0 <= slot && slot < getBlockStore().getSlotCount()
+	 * @pre | getBlockStore().isOccupied(slot)
+	 * 
+	 * @mutates | this
+	 */
+	
+	boolean damageBlock(int slot) {
+		if (blocks.specialBlockHandler(slot)) {
+			blockIndex.remove(slot);
+			return true;
+		}
+		return false;
+	}
+	
+	private void setPaddleReplications(int replications) {
+		if (replications != paddleReplications) {
+			paddleReplications = replications;
+			paddle = null;
+		}
+	}
+	
+	/**
+	 * Handles the paddle being hit by the ball at index {@code i}, like {@code PaddleState.hitPaddleReplicationHandler} followed by
+	 * {@code PaddleState.ballHitPaddle}.
+	 */
+	
+	private void ballHitPaddle(int i) {
+		for (GameEventListener listener : listeners)
+			listener.paddleHit(i);
+		if (paddleReplications > 0) {
+			int amount = paddleReplications;
+			balls.replicate(i, amount);
+			setPaddleReplications(amount - 1);
+			for (GameEventListener listener : listeners)
+				listener.ballReplicated(i, amount);
+		}
+	}
+	
+	/**
+	 * Handles the block in the given slot being hit by the ball at index {@code i}, like {@code BlockState.specialBlockHandler},
+	 * and returns whether the block got destroyed. Bouncing the ball off the block is left to the caller.
+	 */
+	
+	private boolean ballHitBlock(int slot, int i) {
+		setPaddleReplications(blocks.specialBlockHandler(slot, paddleReplications));
+		blocks.specialBlockHandler(slot, balls, i);
+		boolean destroyed = blocks.specialBlockHandler(slot);
+		if (destroyed)
+			blockIndex.remove(slot);
+		for (GameEventListener listener : listeners) {
+			if (destroyed)
+				listener.blockDestroyed(i, blocks.getTopLeft(slot), blocks.getBottomRight(slot));
+			else
+				listener.blockDamaged(i, blocks.getTopLeft(slot), blocks.getBottomRight(slot), blocks.getHealth(slot));
+			if (blocks.getKind(slot) == BlockStore.POWERUP)
+				listener.powerupActivated(i);
+		}
+		return destroyed;
+	}
+	
+	/**
+	 * Returns a 64-bit hash of the balls, the blocks and the paddle of this game.
+	 * 
+	 * The hash is kept up to date while the game changes, at a constant cost per changed ball, block or paddle, so querying it is cheap
+	 * after every tick. It doesn't depend on the JVM or on the run, so it can be compared across machines to detect diverging simulations.
+	 * 
+	 * @post Games whose balls are equal and in the same order, whose blocks are equal and whose paddles are equal have the same hash
+	 * 		| true
+	 */
+	
+	public long getStateHash() {
+		return balls.hash() ^ blocks.hash() ^ StateHash.paddle(paddleX, paddleY, paddleReplications);
+	}
+	
 	/**
 	 * Returns the coordinates of the bottom right of the field
 	 * 
@@ -222,8 +790,6 @@ public class BreakoutState {
 			superchargedTimeHandler(elapsedTime);
 		
 			moveAllBalls(elapsedTime);
-		
-			wallCollisionHandler();
 			
 			lowerWallCollisionHandler();
 			
@@ -232,88 +798,349 @@ public class BreakoutState {
 			paddleCollisionHandler(paddleDir);
 	}
 	
-	private void superchargedTimeHandler(int elapsedTime) {
-		for (int i=0;i<balls.length;i++) {
-			balls[i] = balls[i].superchargedTimeHandler(elapsedTime, MAX_SUPERCHARGED_TIME);
+	/**
+	 * Returns the size, in milliseconds, of the steps {@code tickSubstepped} advances the game by.
+	 * 
+	 * @post | result > 0
+	 */
+	
+	public int getSubstepSize() {
+		return substepSize;
+	}
+	
+	/**
+	 * Sets the size, in milliseconds, of the steps {@code tickSubstepped} advances the game by.
+	 * Time that was accumulated but not yet simulated is kept, unless it now covers a whole step, in which case the next call of
+	 * {@code tickSubstepped} simulates it.
+	 * 
+	 * @throws IllegalArgumentException if {@code substepSize} is not greater than 0
+	 * 		| substepSize <= 0
+	 * 
+	 * @mutates | this
+	 * 
+	 * @post | getSubstepSize() == substepSize
+	 */
+	
+	public void setSubstepSize(int substepSize) {
+		if (substepSize <= 0) {
+			throw new IllegalArgumentException("substepSize should be greater than 0");
 		}
+		this.substepSize = substepSize;
 	}
 	
-	private void moveAllBalls(int elapsedTime) {		
-		for (int i=0; i<balls.length; i++) {
-			balls[i].moveBall(getBottomRight(), elapsedTime);
+	/**
+	 * Returns the amount of milliseconds that were passed to {@code tickSubstepped} but have not been simulated yet,
+	 * because they don't add up to a whole step.
+	 * 
+	 * @post | result >= 0
+	 */
+	
+	public int getSubstepRemainder() {
+		return substepAccumulator;
+	}
+	
+	/**
+	 * Moves the paddle in the direction {@code paddleDir} and advances the game by {@code elapsedTime} milliseconds in steps of 
+	 * {@code getSubstepSize()} milliseconds, and returns the amount of steps that were taken.
+	 * 
+	 * Every step moves the paddle like {@code movePaddleLeft} or {@code movePaddleRight} and then calls {@code tick} with the step size,
+	 * so arbitrarily large elapsed times are simulated with the same accuracy as small ones.
+	 * Time that doesn't add up to a whole step is accumulated and simulated by a later call.
+	 * Once the game is won or lost, no more steps are taken and any remaining time is dropped.
+	 * 
+	 * @pre Argument {@code paddleDir} should be -1, 0 or 1
+	 * 		| paddleDir == -1 || paddleDir == 0 || paddleDir == 1
+	 * @pre Argument {@code elapsedTime} should not be less than 0.
+	 * 		| elapsedTime >= 0
+	 * 
+	 * @mutates | this
+	 * 
+	 * @post | result >= 0
+	 * @post | getSubstepRemainder() < getSubstepSize()
+	 */
+	
+	public int tickSubstepped(int paddleDir, int elapsedTime) {
+		long pending = (long)substepAccumulator + elapsedTime;
+		int steps = 0;
+		while (pending >= substepSize) {
+			if (isDead() || isWon()) {
+				pending = 0;
+				break;
+			}
+			if (paddleDir == -1)
+				movePaddleLeft(substepSize);
+			if (paddleDir == 1)
+				movePaddleRight(substepSize);
+			tick(paddleDir, substepSize);
+			pending -= substepSize;
+			steps++;
 		}
+		substepAccumulator = (int)pending;
+		return steps;
 	}
 	
-	private void wallCollisionHandler() {
-		for (Ball ball: balls) {
-			if (ball.raaktRechthoek(new Rect(new Point(-1, 0), new Point(0, bottomRight.getY())), 4)) {
-				ball.bounceWall(1);
-				continue;
+	/**
+	 * Advances the game by {@code elapsedTime} milliseconds using continuous collision detection.
+	 * 
+	 * Instead of moving every ball by its full displacement and testing for overlaps afterwards, like {@code tick} does,
+	 * this method sweeps every ball along its path and resolves all contacts with the walls, the blocks and the paddle in the order
+	 * in which they happen during the tick. A ball therefore never passes through a block or the paddle, however large
+	 * {@code elapsedTime} or the ball's velocity is. Contacts are handled with the same rules as {@code tick}: 
+	 * balls bounce off the left, top and right walls, are lost when they reach the bottom of the field,
+	 * bounce off the paddle (which may replicate them) and bounce off or pass through blocks depending on their kind.
+	 * The paddle is treated as standing still during the tick.
+	 * 
+	 * @pre Argument {@code paddleDir} should be -1, 0 or 1
+	 * 		| paddleDir == -1 || paddleDir == 0 || paddleDir == 1
+	 * @pre Argument {@code elapsedTime} should be greater than 0.
+	 * 		| elapsedTime > 0
+	 * 
+	 * @mutates | this
+	 */
+	
+	public void tickContinuous(int paddleDir, int elapsedTime) {
+		superchargedTimeHandler(elapsedTime);
+		
+		ensureSweepCapacity(balls.size());
+		for (int i = 0; i < balls.size(); i++) {
+			startSweep(i, balls.centerX[i], balls.centerY[i], 0);
+		}
+		for (int i = 0; i < balls.size(); i++) {
+			predictContact(i, elapsedTime);
+		}
+		
+		while (true) {
+			int next = -1;
+			for (int i = 0; i < balls.size(); i++) {
+				if (contactTime[i] != SweptCollision.NO_CONTACT && (next == -1 || contactTime[i] < contactTime[next]))
+					next = i;
 			}
-			if (ball.raaktRechthoek(new Rect(new Point(0, -1), new Point(getBottomRight().getX(), 0)), 1)) {
-				ball.bounceWall(2);
+			if (next == -1)
+				break;
+			resolveContact(next, paddleDir, elapsedTime);
+		}
+		
+		int kept = 0;
+		for (int i = 0; i < balls.size(); i++) {
+			if (sweepLost[i])
 				continue;
+			advanceSweep(i, elapsedTime);
+			balls.setCenter(i, (int)Math.round(sweepX[i]), (int)Math.round(sweepY[i]));
+			balls.move(i, kept++);
+		}
+		balls.truncate(kept);
+	}
+	
+	private void ensureSweepCapacity(int capacity) {
+		if (sweepX.length >= capacity)
+			return;
+		int newCapacity = Math.max(capacity, sweepX.length * 2);
+		sweepX = Arrays.copyOf(sweepX, newCapacity);
+		sweepY = Arrays.copyOf(sweepY, newCapacity);
+		sweepTime = Arrays.copyOf(sweepTime, newCapacity);
+		contactTime = Arrays.copyOf(contactTime, newCapacity);
+		contactKind = Arrays.copyOf(contactKind, newCapacity);
+		contactTarget = Arrays.copyOf(contactTarget, newCapacity);
+		contactSide = Arrays.copyOf(contactSide, newCapacity);
+		contactCount = Arrays.copyOf(contactCount, newCapacity);
+		sweepLost = Arrays.copyOf(sweepLost, newCapacity);
+	}
+	
+	private void startSweep(int i, double x, double y, double time) {
+		sweepX[i] = x;
+		sweepY[i] = y;
+		sweepTime[i] = time;
+		contactTime[i] = SweptCollision.NO_CONTACT;
+		contactCount[i] = 0;
+		sweepLost[i] = false;
+	}
+	
+	private void advanceSweep(int i, double time) {
+		sweepX[i] += balls.velocityX[i] * (time - sweepTime[i]);
+		sweepY[i] += balls.velocityY[i] * (time - sweepTime[i]);
+		sweepTime[i] = time;
+	}
+	
+	private void predictContact(int i, int elapsedTime) {
+		double x = sweepX[i];
+		double y = sweepY[i];
+		int vx = balls.velocityX[i];
+		int vy = balls.velocityY[i];
+		int radius = balls.diameter[i]/2;
+		double remaining = elapsedTime - sweepTime[i];
+		
+		double best = SweptCollision.NO_CONTACT;
+		int kind = 0;
+		double t = SweptCollision.timeToWall(x, vx, radius, 0, remaining);
+		if (t < best) { best = t; kind = CONTACT_LEFT_WALL; }
+		t = SweptCollision.timeToWall(y, vy, radius, 0, remaining);
+		if (t < best) { best = t; kind = CONTACT_TOP_WALL; }
+		t = SweptCollision.timeToWall(x, vx, radius, bottomRight.getX(), remaining);
+		if (t < best) { best = t; kind = CONTACT_RIGHT_WALL; }
+		t = SweptCollision.timeToWall(y, vy, radius, bottomRight.getY(), remaining);
+		if (t < best) { best = t; kind = CONTACT_LOWER_WALL; }
+		
+		int paddleLeft = paddleX - PaddleState.SIZE.getX();
+		int paddleTop = paddleY - PaddleState.SIZE.getY();
+		int paddleRight = paddleX + PaddleState.SIZE.getX();
+		int paddleBottom = paddleY + PaddleState.SIZE.getY();
+		t = SweptCollision.timeOfImpact(x, y, vx, vy, radius, paddleLeft, paddleTop, paddleRight, paddleBottom, remaining);
+		if (t < best) {
+			int side = SweptCollision.contactSide(x, y, vx, vy, radius, paddleLeft, paddleTop, paddleRight, paddleBottom);
+			// Like in tick, balls don't bounce off the bottom side of the paddle.
+			if (side != 1) {
+				best = t;
+				kind = CONTACT_PADDLE;
+				contactSide[i] = side;
 			}
-			if (ball.raaktRechthoek(new Rect(new Point(bottomRight.getX(), 0), new Point(bottomRight.getX() + 1, bottomRight.getY())), 2)) {
-				ball.bounceWall(3);
-				continue;
+		}
+		
+		double endX = x + vx * remaining;
+		double endY = y + vy * remaining;
+		int candidates = blockIndex.query((int)Math.floor(Math.min(x, endX)) - radius, (int)Math.floor(Math.min(y, endY)) - radius,
+				(int)Math.ceil(Math.max(x, endX)) + radius, (int)Math.ceil(Math.max(y, endY)) + radius);
+		for (int k = 0; k < candidates; k++) {
+			int slot = blockIndex.getCandidate(k);
+			int left = blockIndex.left[slot];
+			int top = blockIndex.top[slot];
+			int right = blockIndex.right[slot];
+			int bottom = blockIndex.bottom[slot];
+			t = SweptCollision.timeOfImpact(x, y, vx, vy, radius, left, top, right, bottom, remaining);
+			if (t < best) {
+				best = t;
+				kind = CONTACT_BLOCK;
+				contactTarget[i] = slot;
+				contactSide[i] = SweptCollision.contactSide(x, y, vx, vy, radius, left, top, right, bottom);
 			}
 		}
-	}  
+		
+		contactKind[i] = kind;
+		contactTime[i] = best == SweptCollision.NO_CONTACT ? best : sweepTime[i] + best;
+	}
+	
+	private void resolveContact(int i, int paddleDir, int elapsedTime) {
+		advanceSweep(i, contactTime[i]);
+		switch (contactKind[i]) {
+		case CONTACT_LEFT_WALL:
+			balls.bounceWall(i, 1);
+			break;
+		case CONTACT_TOP_WALL:
+			balls.bounceWall(i, 2);
+			break;
+		case CONTACT_RIGHT_WALL:
+			balls.bounceWall(i, 3);
+			break;
+		case CONTACT_LOWER_WALL:
+			sweepLost[i] = true;
+			contactTime[i] = SweptCollision.NO_CONTACT;
+			for (GameEventListener listener : listeners)
+				listener.ballLost((int)Math.round(sweepX[i]), (int)Math.round(sweepY[i]), balls.diameter[i]);
+			return;
+		case CONTACT_PADDLE:
+			balls.bouncePaddle(i, paddleDir, contactSide[i] == 3 ? 2 : contactSide[i] == 2 ? 1 : 3);
+			int oldSize = balls.size();
+			ballHitPaddle(i);
+			ensureSweepCapacity(balls.size());
+			for (int j = oldSize; j < balls.size(); j++) {
+				startSweep(j, sweepX[i], sweepY[i], sweepTime[i]);
+				predictContact(j, elapsedTime);
+			}
+			break;
+		case CONTACT_BLOCK:
+			int slot = contactTarget[i];
+			balls.hitBlockSide(i, contactSide[i], blocks.getsDestroyedOnCollision(slot));
+			if (ballHitBlock(slot, i)) {
+				for (int j = 0; j < balls.size(); j++) {
+					if (j != i && !sweepLost[j] && contactKind[j] == CONTACT_BLOCK && contactTarget[j] == slot)
+						predictContact(j, elapsedTime);
+				}
+			}
+			break;
+		}
+		if (++contactCount[i] >= MAX_CONTACTS_PER_BALL) {
+			// A ball that keeps bouncing in place stops for the rest of this tick rather than stalling the game.
+			sweepTime[i] = elapsedTime;
+			contactTime[i] = SweptCollision.NO_CONTACT;
+			return;
+		}
+		predictContact(i, elapsedTime);
+	}
+	
+	private void superchargedTimeHandler(int elapsedTime) {
+		for (int i=0;i<balls.size();i++) {
+			if (balls.superchargedTimeHandler(i, elapsedTime, MAX_SUPERCHARGED_TIME)) {
+				for (GameEventListener listener : listeners)
+					listener.powerupExpired(i);
+			}
+		}
+	}
+	
+	private void moveAllBalls(int elapsedTime) {
+		// Every ball moves and bounces off the left, top and right walls on its own, so the kernel does both in one pass,
+		// several balls at a time if the Vector API is available.
+		balls.moveAndBounceWalls(BallKernel.get(), bottomRight.getX(), bottomRight.getY(), elapsedTime);
+	}
 	
 	private void lowerWallCollisionHandler() {
-		balls = Arrays.stream(balls).filter(e -> !(e.raaktRechthoek(new Rect(new Point(0, bottomRight.getY()), new Point(bottomRight.getX(), bottomRight.getY()+1)), 3))).toArray(Ball[]::new);
+		int width = bottomRight.getX();
+		int height = bottomRight.getY();
+		// Compacting in place, rather than swapping the last ball into each hole, keeps the balls in order:
+		// the order in which balls are handled decides which ball hits a block first, so it must not depend on which balls were lost.
+		int kept = 0;
+		for (int i=0; i<balls.size(); i++) {
+			if ((balls.contactSides(i, 0, height, width, height + 1) & 1 << 3) == 0) {
+				balls.move(i, kept++);
+				continue;
+			}
+			for (GameEventListener listener : listeners)
+				listener.ballLost(balls.centerX[i], balls.centerY[i], balls.diameter[i]);
+		}
+		balls.truncate(kept);
 	}
 	
 	private void blockCollisionHandler() {
-		for (int j=0; j < balls.length;j++) {
-			BlockState[] tempBlocks = getBlocks();
-			for (int i=0; i<tempBlocks.length; i++) {
-				boolean geraakt = false;
-				Rect blockRechthoek = new Rect(tempBlocks[i].getTopLeft(), tempBlocks[i].getBottomRight());
-				if (balls[j].raaktRechthoek(blockRechthoek, 1)) {
-					geraakt = true;
-				}
-				if (balls[j].raaktRechthoek(blockRechthoek, 2)) {
-					geraakt = true;
-				}
-				if (balls[j].raaktRechthoek(blockRechthoek, 3)) {
-					geraakt = true;
-				}
-				if (balls[j].raaktRechthoek(blockRechthoek, 4)) {
-					geraakt = true;
-				}
-				if (geraakt) {
-				balls[j].hitBlock(blockRechthoek, tempBlocks[i].getsDestroyedOnCollision());
-				
-				paddle = tempBlocks[i].specialBlockHandler(paddle);
-				balls[j] = tempBlocks[i].specialBlockHandler(balls[j]);
-				tempBlocks[i] = tempBlocks[i].specialBlockHandler();
+		for (int j=0; j < balls.size();j++) {
+			int radius = balls.diameter[j]/2;
+			int candidates = blockIndex.query(balls.centerX[j] - radius, balls.centerY[j] - radius, balls.centerX[j] + radius, balls.centerY[j] + radius);
+			for (int k=0; k<candidates; k++) {
+				int i = blockIndex.getCandidate(k);
+				int sides = balls.contactSides(j, blockIndex.left[i], blockIndex.top[i], blockIndex.right[i], blockIndex.bottom[i]);
+				if (sides != 0) {
+					balls.hitBlockSide(j, Ball.firstContactSide(sides), blocks.getsDestroyedOnCollision(i));
+					
+					ballHitBlock(i, j);
 				}
 			}
-			blocks = Arrays.stream(tempBlocks).filter(b -> b != null).toArray(BlockState[]::new);
 		}
 	}
 	
 	private void paddleCollisionHandler(int paddleDir) {
-		Rect paddleRect = new Rect(paddle.getTopLeft(), paddle.getBottomRight());
-		for (Ball ball: getBalls()) {
+		int left = paddleX - PaddleState.SIZE.getX();
+		int top = paddleY - PaddleState.SIZE.getY();
+		int right = paddleX + PaddleState.SIZE.getX();
+		int bottom = paddleY + PaddleState.SIZE.getY();
+		// Balls that are replicated during this handler are appended to the store, but only get handled from the next tick on.
+		int count = balls.size();
+		for (int j=0; j<count; j++) {
+			// A bounce changes the ball's velocity, so the remaining sides are classified again after every bounce.
 			boolean geraakt = false;
-			if (ball.raaktRechthoek(paddleRect, 3)) {
-				ball.bouncePaddle(paddleDir, 2);
+			int sides = balls.contactSides(j, left, top, right, bottom);
+			if ((sides & 1 << 3) != 0) {
+				balls.bouncePaddle(j, paddleDir, 2);
 				geraakt = true;
+				sides = balls.contactSides(j, left, top, right, bottom);
 			}
-			if (ball.raaktRechthoek(paddleRect, 2)) {
-				ball.bouncePaddle(paddleDir, 1);
+			if ((sides & 1 << 2) != 0) {
+				balls.bouncePaddle(j, paddleDir, 1);
 				geraakt = true;
+				sides = balls.contactSides(j, left, top, right, bottom);
 			}
-			if (ball.raaktRechthoek(paddleRect, 4)) {
-				ball.bouncePaddle(paddleDir, 3);
+			if ((sides & 1 << 4) != 0) {
+				balls.bouncePaddle(j, paddleDir, 3);
 				geraakt = true;
 			}
 			if (geraakt) {
-				balls = Arrays.stream(paddle.hitPaddleReplicationHandler(getBalls(), ball)).filter(b -> b != null).toArray(Ball[]::new);
-				paddle = paddle.ballHitPaddle();
+				ballHitPaddle(j);
 			}
 		}
 	} 
@@ -336,7 +1163,10 @@ public class BreakoutState {
 	 */
 	
 	public void movePaddleRight(int elapsedTime) {
-		paddle = paddle.movePaddleRight(getBottomRight(), elapsedTime);
+		int newX = paddleX + 10 * elapsedTime;
+		if (newX + PaddleState.SIZE.getX() > bottomRight.getX())
+			newX = bottomRight.getX() - PaddleState.SIZE.getX();
+		movePaddleTo(newX);
 	}
 	
 	/**
@@ -357,7 +1187,17 @@ public class BreakoutState {
 	 */
 	
 	public void movePaddleLeft(int elapsedTime) {
-		paddle = paddle.movePaddleLeft(elapsedTime);
+		int newX = paddleX - 10 * elapsedTime;
+		if (newX - PaddleState.SIZE.getX() < 0)
+			newX = PaddleState.SIZE.getX();
+		movePaddleTo(newX);
+	}
+	
+	private void movePaddleTo(int newX) {
+		if (newX != paddleX) {
+			paddleX = newX;
+			paddle = null;
+		}
 	}
 	
 	/**
@@ -368,7 +1208,7 @@ public class BreakoutState {
 	 */
 	
 	public boolean isWon() {
-		return blocks.length == 0 && balls.length > 0;
+		return blocks.getCount() == 0 && balls.size() > 0;
 	}
 	
 	/**
@@ -379,6 +1219,6 @@ public class BreakoutState {
 	 */
 
 	public boolean isDead() {
-		return balls.length == 0;
+		return balls.size() == 0;
 	}
 }
@@ -2,6 +2,8 @@ package breakout;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -41,6 +43,43 @@ class BreakoutStateTest {
 		assertTrue(state1.getPaddle().equals(paddle));
 	}
 	
+	@Test
+	void testPaddleIsCached() {
+		assertSame(paddle, state1.getPaddle());
+		state1.movePaddleLeft(1000);
+		PaddleState atLeftWall = state1.getPaddle();
+		assertEquals(new NormalPaddleState(new Point(1500, 5000)), atLeftWall);
+		assertEquals(1500, state1.getPaddleCenterX());
+		assertEquals(5000, state1.getPaddleCenterY());
+		assertSame(atLeftWall, state1.getPaddle());
+		state1.movePaddleLeft(10);
+		assertSame(atLeftWall, state1.getPaddle());
+		
+		PaddleState replicator = new ReplicatorPaddleState(new Point(5000, 9000), 1);
+		Ball fallingBall = facade.createNormalBall(new Point(5000, 8600), 100, new Vector(0, 5));
+		BreakoutState state = facade.createBreakoutState(new Ball[] {fallingBall}, oneBlock, br1, replicator);
+		state.tick(0, 30);
+		assertEquals(2, state.getBallCount());
+		assertEquals(new NormalPaddleState(new Point(5000, 9000)), state.getPaddle());
+	}
+	
+	@Test
+	void testStateHash() {
+		BreakoutState copy = facade.createBreakoutState(new Ball[] {facade.createNormalBall(center1, diameter1, Velocity1)},
+				new BlockState[] {facade.createNormalBlockState(new Point(2000, 2000), new Point(5000, 5000))}, br1, new NormalPaddleState(paddleCenter1));
+		assertEquals(state1.getStateHash(), copy.getStateHash());
+		
+		state1.movePaddleRight(10);
+		assertNotEquals(state1.getStateHash(), copy.getStateHash());
+		state1.tick(1, 20);
+		BreakoutState rebuilt = new BreakoutState(state1.getBalls(), state1.getBlocks(), br1, state1.getPaddle());
+		assertEquals(rebuilt.getStateHash(), state1.getStateHash());
+		
+		assertEquals(ball1.hashCode(), facade.createNormalBall(center1, diameter1, Velocity1).hashCode());
+		assertEquals(block1.hashCode(), copy.getBlocks()[0].hashCode());
+		assertEquals(paddle.hashCode(), new NormalPaddleState(paddleCenter1).hashCode());
+	}
+	
 	@Test
 	void testBreakoutConstructor() {
 		assertThrows(IllegalArgumentException.class, () -> new BreakoutState(null, oneBlock, br1, paddle));
@@ -52,5 +91,159 @@ class BreakoutStateTest {
 		BlockState[] illegalBlocks = {block1, blockOutOfField};
 		assertThrows(IllegalArgumentException.class, () -> new BreakoutState(oneBall, illegalBlocks, br1, paddle));
 	}
+	
+	@Test
+	void testReadApi() {
+		Ball superchargedBall = facade.createSuperchargedBall(new Point(20000, 20000), 700, new Vector(-3, 4), 0);
+		BlockState sturdyBlock = facade.createSturdyBlockState(new Point(6000, 2000), new Point(9000, 5000), 2);
+		BreakoutState state = facade.createBreakoutState(new Ball[] {ball1, superchargedBall}, new BlockState[] {block1, sturdyBlock}, br1, paddle);
+		Ball[] balls = state.getBalls();
+		BlockState[] blocks = state.getBlocks();
+		
+		assertEquals(balls.length, state.getBallCount());
+		for (int i = 0; i < balls.length; i++) {
+			assertEquals(balls[i].getCenter(), new Point(state.getBallCenterX(i), state.getBallCenterY(i)));
+			assertEquals(balls[i].getVelocity(), new Vector(state.getBallVelocityX(i), state.getBallVelocityY(i)));
+			assertEquals(balls[i].getDiameter(), state.getBallDiameter(i));
+			assertEquals(balls[i].getColor(), state.getBallColor(i));
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> state.getBallCenterX(2));
+		
+		assertEquals(blocks.length, state.getBlockCount());
+		for (int i = 0; i < blocks.length; i++) {
+			assertEquals(blocks[i].getTopLeft(), state.getBlockTopLeft(i));
+			assertEquals(blocks[i].getBottomRight(), state.getBlockBottomRight(i));
+			assertEquals(blocks[i].getColor(), state.getBlockColor(i));
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> state.getBlockColor(-1));
+		
+		int[] visited = {0};
+		state.forEachBall((x, y, diameter, color) -> {
+			Ball ball = balls[visited[0]++];
+			assertEquals(ball.getCenter(), new Point(x, y));
+			assertEquals(ball.getDiameter(), diameter);
+			assertEquals(ball.getColor(), color);
+		});
+		assertEquals(balls.length, visited[0]);
+		
+		visited[0] = 0;
+		state.forEachBlock((topLeft, bottomRight, color) -> {
+			BlockState block = blocks[visited[0]++];
+			assertEquals(block.getTopLeft(), topLeft);
+			assertEquals(block.getBottomRight(), bottomRight);
+			assertEquals(block.getColor(), color);
+		});
+		assertEquals(blocks.length, visited[0]);
+		assertThrows(IllegalArgumentException.class, () -> state.forEachBall(null));
+	}
+	
+	@Test
+	void testTickContinuousDoesNotTunnel() {
+		Ball fastBall = facade.createNormalBall(new Point(5000, 8000), 100, new Vector(0, -10));
+		BlockState thinBlock = facade.createNormalBlockState(new Point(0, 4000), new Point(10000, 4010));
+		PaddleState paddle = facade.createNormalPaddleState(new Point(5000, 9500));
+		BreakoutState state = facade.createBreakoutState(new Ball[] {fastBall}, new BlockState[] {thinBlock}, new Point(10000, 10000), paddle);
+		
+		state.tickContinuous(0, 1000);
+		assertEquals(0, state.getBlocks().length);
+		assertEquals(1, state.getBalls().length);
+		assertEquals(new Vector(0, -10), state.getBalls()[0].getVelocity());
+		assertEquals(new Point(5000, 8280), state.getBalls()[0].getCenter());
+	}
+	
+	@Test
+	void testTickContinuousLosesBall() {
+		Ball fallingBall = facade.createNormalBall(new Point(1000, 8000), 100, new Vector(0, 10));
+		BreakoutState state = facade.createBreakoutState(new Ball[] {fallingBall}, oneBlock, br1, paddle);
+		
+		state.tickContinuous(0, 10000);
+		assertTrue(state.isDead());
+	}
+	
+	@Test
+	void testTickSubstepped() {
+		BreakoutState reference = GameMap.createStateFromDescription(SubmissionTestSuite.initMapBeforeBounce);
+		BreakoutState substepped = GameMap.createStateFromDescription(SubmissionTestSuite.initMapBeforeBounce);
+		substepped.setSubstepSize(5);
+		
+		assertEquals(0, substepped.tickSubstepped(1, 3));
+		assertEquals(3, substepped.getSubstepRemainder());
+		assertEquals(100, substepped.tickSubstepped(1, 499));
+		assertEquals(2, substepped.getSubstepRemainder());
+		for (int i = 0; i < 100; i++) {
+			reference.movePaddleRight(5);
+			reference.tick(1, 5);
+		}
+		assertTrue(Arrays.equals(reference.getBalls(), substepped.getBalls()));
+		assertTrue(Arrays.equals(reference.getBlocks(), substepped.getBlocks()));
+		assertEquals(reference.getPaddle(), substepped.getPaddle());
+		
+		assertThrows(IllegalArgumentException.class, () -> substepped.setSubstepSize(0));
+	}
+	
+	/**
+	 * Returns a game on a field of {@code width} by 30000 units with the given blocks and three balls flying up into them.
+	 */
+	
+	private BreakoutState game(int width, BlockState[] blocks) {
+		Ball[] balls = {
+				facade.createNormalBall(new Point(width / 4, 20000), 700, new Vector(7, -19)),
+				facade.createNormalBall(new Point(width / 2, 22000), 700, new Vector(-11, -17)),
+				facade.createNormalBall(new Point(3 * width / 4, 24000), 700, new Vector(13, -15))
+		};
+		return facade.createBreakoutState(balls, blocks, new Point(width, 30000), facade.createNormalPaddleState(new Point(width / 2, 28000)));
+	}
+	
+	private static void play(BreakoutState state, long seed, int ticks) {
+		java.util.Random random = new java.util.Random(seed);
+		for (int i = 0; i < ticks; i++)
+			state.tickSubstepped(random.nextInt(3) - 1, 20);
+	}
+	
+	@Test
+	void testForkAndRestore() {
+		BlockState[] grid = new BlockState[40];
+		for (int i = 0; i < grid.length; i++)
+			grid[i] = facade.createNormalBlockState(new Point(i % 10 * 5000, i / 10 * 1000), new Point(i % 10 * 5000 + 5000, i / 10 * 1000 + 1000));
+		BlockState[] uneven = new BlockState[30];
+		for (int i = 0; i < uneven.length; i++)
+			uneven[i] = i % 2 == 0 ?
+					facade.createNormalBlockState(new Point(i * 1600 + i % 3 * 100, i % 4 * 800), new Point(i * 1600 + 1500, i % 4 * 800 + 700 + i % 5 * 50)) :
+					facade.createSturdyBlockState(new Point(i * 1600, i % 4 * 800), new Point(i * 1600 + 1500, i % 4 * 800 + 1500), 2);
+		BlockState[] many = new BlockState[BlockIndex.TREE_MIN_BLOCKS];
+		for (int i = 0; i < many.length; i++)
+			many[i] = facade.createNormalBlockState(new Point(i % 64 * 781, i / 64 * 400 + i % 7), new Point(i % 64 * 781 + 700, i / 64 * 400 + 390));
+		
+		for (BreakoutState state : new BreakoutState[] {game(50000, grid), game(50000, uneven), game(50000, many)}) {
+			play(state, 1, 10);
+			BreakoutState fork = state.fork();
+			BreakoutSnapshot snapshot = state.snapshot();
+			long start = state.getStateHash();
+			assertEquals(start, fork.getStateHash());
+			assertEquals(start, snapshot.getStateHash());
+			
+			int blockCount = state.getBlockCount();
+			play(state, 2, 150);
+			assertTrue(state.getBlockCount() < blockCount);
+			assertEquals(start, fork.getStateHash());
+			assertEquals(start, snapshot.getStateHash());
+			play(fork, 2, 150);
+			assertEquals(state.getStateHash(), fork.getStateHash());
+			assertArrayEquals(state.getBalls(), fork.getBalls());
+			assertArrayEquals(state.getBlocks(), fork.getBlocks());
+			
+			state.restore(snapshot);
+			assertEquals(start, state.getStateHash());
+			assertEquals(blockCount, state.getBlockCount());
+			play(state, 3, 150);
+			fork.restore(snapshot);
+			play(fork, 3, 150);
+			assertEquals(state.getStateHash(), fork.getStateHash());
+			assertArrayEquals(state.getBlocks(), fork.getBlocks());
+		}
+		
+		assertThrows(IllegalArgumentException.class, () -> state1.restore(null));
+		assertThrows(IllegalArgumentException.class, () -> state1.restore(game(50000, grid).snapshot()));
+	}
 
 }
@@ -0,0 +1,149 @@
+package breakout;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Applies the deltas written by {@code DeltaEncoder} to replicas of a game.
+ */
+
+public final class DeltaDecoder {
+	
+	private DeltaDecoder() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+	
+	/**
+	 * Reads a delta from {@code in}, starting at its position, and applies it to {@code replica}, which should have been in the state
+	 * the delta was encoded against: equal balls in the same order, equal remaining blocks in the same order and an equal paddle.
+	 * The delta was then encoded from a game that {@code replica} is now equal to, apart from the substep remainder.
+	 * 
+	 * @throws IllegalArgumentException if {@code replica} or {@code in} is {@code null}
+	 * 		| replica == null || in == null
+	 * @throws IllegalArgumentException if the delta is malformed or doesn't fit {@code replica}; the replica may then have been
+	 * 		partly changed
+	 * 
+	 * @mutates | replica, in
+	 */
+	
+	public static void apply(BreakoutState replica, ByteBuffer in) {
+		if (replica == null || in == null)
+			throw new IllegalArgumentException("replica and in can't be null");
+		try {
+			applyPaddle(replica, in);
+			applyBalls(replica.getBallStore(), in);
+			applyBlocks(replica, in);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("truncated delta", e);
+		}
+	}
+	
+	private static void applyPaddle(BreakoutState replica, ByteBuffer in) {
+		int flags = in.get();
+		if ((flags & ~DeltaEncoder.PADDLE_CHANGED) != 0)
+			throw new IllegalArgumentException("unknown flags " + flags);
+		if (flags == 0)
+			return;
+		int x = replica.getPaddleCenterX() + getSigned(in);
+		int y = replica.getPaddleCenterY() + getSigned(in);
+		int replications = in.get();
+		Point bottomRight = replica.getBottomRight();
+		if (x - PaddleState.SIZE.getX() < 0 || y - PaddleState.SIZE.getY() < 0 ||
+				x + PaddleState.SIZE.getX() > bottomRight.getX() || y + PaddleState.SIZE.getY() > bottomRight.getY() ||
+				replications < 0 || replications > 3)
+			throw new IllegalArgumentException("paddle out of range");
+		replica.setPaddle(x, y, replications);
+	}
+	
+	private static void applyBalls(BallStore balls, ByteBuffer in) {
+		int size = balls.size();
+		int kept = 0;
+		int next = -1;
+		for (int lost = getUnsigned(in); lost != 0; lost = getUnsigned(in)) {
+			if (lost < 0 || lost > size - 1 - next)
+				throw new IllegalArgumentException("lost ball out of range");
+			for (int i = next + 1; i < next + lost; i++)
+				balls.move(i, kept++);
+			next += lost;
+		}
+		for (int i = next + 1; i < size; i++)
+			balls.move(i, kept++);
+		balls.truncate(kept);
+		
+		for (int i = 0; i < kept; i++) {
+			int mask = in.get();
+			if (mask == 0)
+				continue;
+			int centerX = balls.centerX[i] + ((mask & DeltaEncoder.CENTER_X) != 0 ? getSigned(in) : 0);
+			int centerY = balls.centerY[i] + ((mask & DeltaEncoder.CENTER_Y) != 0 ? getSigned(in) : 0);
+			int velocityX = balls.velocityX[i] + ((mask & DeltaEncoder.VELOCITY_X) != 0 ? getSigned(in) : 0);
+			int velocityY = balls.velocityY[i] + ((mask & DeltaEncoder.VELOCITY_Y) != 0 ? getSigned(in) : 0);
+			int diameter = balls.diameter[i] + ((mask & DeltaEncoder.DIAMETER) != 0 ? getSigned(in) : 0);
+			byte kind = (mask & DeltaEncoder.KIND) != 0 ? in.get() : balls.kind[i];
+			int time = balls.time[i] + ((mask & DeltaEncoder.TIME) != 0 ? getSigned(in) : 0);
+			checkBall(diameter, kind, time);
+			balls.set(i, centerX, centerY, velocityX, velocityY, diameter, kind, time);
+		}
+		
+		int added = getUnsigned(in);
+		if (added < 0)
+			throw new IllegalArgumentException("too many added balls");
+		for (int i = 0; i < added; i++) {
+			int centerX = getSigned(in);
+			int centerY = getSigned(in);
+			int velocityX = getSigned(in);
+			int velocityY = getSigned(in);
+			int diameter = getSigned(in);
+			byte kind = in.get();
+			int time = getSigned(in);
+			checkBall(diameter, kind, time);
+			balls.append(centerX, centerY, velocityX, velocityY, diameter, kind, time);
+		}
+	}
+	
+	private static void checkBall(int diameter, byte kind, int time) {
+		if (diameter < 0 || (kind == BallStore.NORMAL ? time != -1 : kind != BallStore.SUPERCHARGED || time < 0))
+			throw new IllegalArgumentException("invalid ball");
+	}
+	
+	private static void applyBlocks(BreakoutState replica, ByteBuffer in) {
+		BlockStore blocks = replica.getBlockStore();
+		// Walks the remaining blocks in order; destroying the current block doesn't affect the blocks after it.
+		int slot = -1;
+		for (int distance = getUnsigned(in); distance != 0; distance = getUnsigned(in)) {
+			if (distance < 0)
+				throw new IllegalArgumentException("block out of range");
+			for (int i = 0; i < distance; i++) {
+				slot = blocks.nextOccupied(slot + 1);
+				if (slot < 0)
+					throw new IllegalArgumentException("block out of range");
+			}
+			int health = getUnsigned(in);
+			if (health != 0 && (blocks.getKind(slot) != BlockStore.STURDY || health < 1 || health > blocks.getHealth(slot)))
+				throw new IllegalArgumentException("invalid health for block " + slot);
+			while (blocks.isOccupied(slot) && blocks.getHealth(slot) != health) {
+				replica.damageBlock(slot);
+			}
+		}
+	}
+	
+	/**
+	 * Reads a varint of at most five bytes as an unsigned 32-bit number.
+	 */
+	
+	static int getUnsigned(ByteBuffer in) {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.get();
+			result |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0)
+				return result;
+		}
+		throw new IllegalArgumentException("malformed varint");
+	}
+	
+	static int getSigned(ByteBuffer in) {
+		int value = getUnsigned(in);
+		return value >>> 1 ^ -(value & 1);
+	}
+}
@@ -0,0 +1,254 @@
+package breakout;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes how a breakout game changed since the previous call of {@code encode}, or since this encoder was created, as a compact
+ * delta that {@code DeltaDecoder.apply} turns a replica of the game into the current state with.
+ * 
+ * The encoder keeps a private copy of the balls, the blocks and the paddle as they were at the previous delta, and compares the game
+ * with it. Balls are matched by their ids in the ball store, so a delta tells lost balls and added balls (replicas) apart from moved
+ * ones. Blocks are identified by their rank among the remaining blocks, so replicas don't need the slots of the original game.
+ * 
+ * A delta consists of unsigned LEB128 varints; signed values are zigzag encoded and fields that change are sent as the difference
+ * with their previous value:
+ * <ol>
+ * <li>a flags byte; if bit 0 is set, the paddle changed and its x and y difference and its amount of replications follow</li>
+ * <li>the positions of the lost balls among the previous balls, each as one more than its distance to the previous lost ball,
+ *     ending with 0</li>
+ * <li>for every remaining ball, in order, a byte with a bit per changed field (center x and y, velocity x and y, diameter, kind and
+ *     supercharged time), followed by the changes; a changed kind is sent as is</li>
+ * <li>the amount of added balls, followed by all fields of each</li>
+ * <li>the changed blocks, each as one more than its distance in rank to the previous changed block, followed by its new health,
+ *     or 0 if it was destroyed, ending with 0</li>
+ * </ol>
+ * The substep remainder is not part of a delta.
+ * 
+ * Blocks only ever lose health or disappear during a game, and a delta can't express anything else. A game that gets a block back,
+ * or a block with more health, because it was restored to an earlier snapshot, can therefore not be followed: {@code encode} then
+ * throws an {@code IllegalStateException}, and a new encoder has to be created along with a new replica.
+ * 
+ * @invar | getState() != null
+ */
+
+public final class DeltaEncoder {
+	
+	static final int PADDLE_CHANGED = 1;
+	
+	static final int CENTER_X = 1;
+	static final int CENTER_Y = 2;
+	static final int VELOCITY_X = 4;
+	static final int VELOCITY_Y = 8;
+	static final int DIAMETER = 16;
+	static final int KIND = 32;
+	static final int TIME = 64;
+	
+	/**
+	 * @invar | state != null && balls != null && blocks != null
+	 * @invar | blocks.sharesLayoutWith(state.getBlockStore())
+	 * 
+	 * @representationObject
+	 */
+	
+	private final BreakoutState state;
+	private final BallStore balls;
+	private final BlockStore blocks;
+	private int paddleX;
+	private int paddleY;
+	private int paddleReplications;
+	
+	/**
+	 * Initializes this encoder so that its first delta holds the changes to {@code state} from now on.
+	 * 
+	 * @throws IllegalArgumentException if {@code state} is {@code null}
+	 * 		| state == null
+	 * 
+	 * @post | getState() == state
+	 */
+	
+	public DeltaEncoder(BreakoutState state) {
+		if (state == null)
+			throw new IllegalArgumentException("state can't be null");
+		this.state = state;
+		this.balls = new BallStore(state.getBallStore());
+		this.blocks = new BlockStore(state.getBlockStore());
+		this.paddleX = state.getPaddleCenterX();
+		this.paddleY = state.getPaddleCenterY();
+		this.paddleReplications = state.getPaddleReplications();
+	}
+	
+	/** Returns the game whose changes this encoder encodes. */
+	public BreakoutState getState() {
+		return state;
+	}
+	
+	/**
+	 * Returns an upper bound on the size, in bytes, of the next delta, if the game doesn't change before it is encoded.
+	 * 
+	 * @post | result > 0
+	 */
+	
+	public int getMaxDeltaSize() {
+		long size = 16 + 5L * balls.size() + 37L * state.getBallCount() + 10L * blocks.getCount();
+		return (int)Math.min(Integer.MAX_VALUE, size);
+	}
+	
+	/**
+	 * Writes the changes to the game since the previous delta to {@code out}, starting at its position, and returns the amount of bytes
+	 * written. No objects are created, so {@code out} can be reused for every delta.
+	 * 
+	 * @throws IllegalArgumentException if {@code out} is {@code null}
+	 * 		| out == null
+	 * @throws BufferOverflowException if {@code out} has less room than the delta needs, which is at most {@code getMaxDeltaSize()}
+	 * 		bytes; this encoder is then left unchanged
+	 * @throws IllegalStateException if a block of the game reappeared or gained health since the previous delta, which happens when
+	 * 		the game is restored to an earlier snapshot; this encoder is then left unchanged
+	 * 
+	 * @mutates | this, out
+	 * 
+	 * @post | result > 0
+	 */
+	
+	public int encode(ByteBuffer out) {
+		if (out == null)
+			throw new IllegalArgumentException("out can't be null");
+		int start = out.position();
+		try {
+			encodePaddle(out);
+			encodeBalls(out, state.getBallStore());
+			encodeBlocks(out, state.getBlockStore());
+		} catch (BufferOverflowException | IllegalStateException e) {
+			out.position(start);
+			throw e;
+		}
+		balls.copyFrom(state.getBallStore());
+		if (!blocks.hasSameBlocksAs(state.getBlockStore()))
+			blocks.copyFrom(state.getBlockStore());
+		paddleX = state.getPaddleCenterX();
+		paddleY = state.getPaddleCenterY();
+		paddleReplications = state.getPaddleReplications();
+		return out.position() - start;
+	}
+	
+	private void encodePaddle(ByteBuffer out) {
+		if (state.getPaddleCenterX() == paddleX && state.getPaddleCenterY() == paddleY && state.getPaddleReplications() == paddleReplications) {
+			out.put((byte)0);
+			return;
+		}
+		out.put((byte)PADDLE_CHANGED);
+		putSigned(out, state.getPaddleCenterX() - paddleX);
+		putSigned(out, state.getPaddleCenterY() - paddleY);
+		out.put((byte)state.getPaddleReplications());
+	}
+	
+	private void encodeBalls(ByteBuffer out, BallStore now) {
+		// Both stores list their ids in increasing order and added balls have larger ids than all previous balls,
+		// so a single merge finds the lost balls.
+		int n = now.size();
+		int j = 0;
+		int previous = -1;
+		for (int i = 0; i < balls.size(); i++) {
+			if (j < n && now.id[j] == balls.id[i]) {
+				j++;
+			} else {
+				putUnsigned(out, i - previous);
+				previous = i;
+			}
+		}
+		putUnsigned(out, 0);
+		int remaining = j;
+		
+		j = 0;
+		for (int i = 0; j < remaining; i++) {
+			if (now.id[j] != balls.id[i])
+				continue;
+			int mask = (now.centerX[j] != balls.centerX[i] ? CENTER_X : 0) |
+					(now.centerY[j] != balls.centerY[i] ? CENTER_Y : 0) |
+					(now.velocityX[j] != balls.velocityX[i] ? VELOCITY_X : 0) |
+					(now.velocityY[j] != balls.velocityY[i] ? VELOCITY_Y : 0) |
+					(now.diameter[j] != balls.diameter[i] ? DIAMETER : 0) |
+					(now.kind[j] != balls.kind[i] ? KIND : 0) |
+					(now.time[j] != balls.time[i] ? TIME : 0);
+			out.put((byte)mask);
+			if ((mask & CENTER_X) != 0)
+				putSigned(out, now.centerX[j] - balls.centerX[i]);
+			if ((mask & CENTER_Y) != 0)
+				putSigned(out, now.centerY[j] - balls.centerY[i]);
+			if ((mask & VELOCITY_X) != 0)
+				putSigned(out, now.velocityX[j] - balls.velocityX[i]);
+			if ((mask & VELOCITY_Y) != 0)
+				putSigned(out, now.velocityY[j] - balls.velocityY[i]);
+			if ((mask & DIAMETER) != 0)
+				putSigned(out, now.diameter[j] - balls.diameter[i]);
+			if ((mask & KIND) != 0)
+				out.put(now.kind[j]);
+			if ((mask & TIME) != 0)
+				putSigned(out, now.time[j] - balls.time[i]);
+			j++;
+		}
+		
+		putUnsigned(out, n - remaining);
+		for (; j < n; j++) {
+			putSigned(out, now.centerX[j]);
+			putSigned(out, now.centerY[j]);
+			putSigned(out, now.velocityX[j]);
+			putSigned(out, now.velocityY[j]);
+			putSigned(out, now.diameter[j]);
+			out.put(now.kind[j]);
+			putSigned(out, now.time[j]);
+		}
+	}
+	
+	private void encodeBlocks(ByteBuffer out, BlockStore now) {
+		// Most ticks don't hit any block, and comparing the arrays as a whole is much faster than walking the blocks.
+		if (blocks.hasSameBlocksAs(now)) {
+			putUnsigned(out, 0);
+			return;
+		}
+		int rank = 0;
+		int previous = -1;
+		int remaining = 0;
+		for (int slot = blocks.nextOccupied(0); slot >= 0; slot = blocks.nextOccupied(slot + 1), rank++) {
+			boolean destroyed = !now.isOccupied(slot);
+			if (!destroyed) {
+				remaining++;
+				if (now.getHealth(slot) > blocks.getHealth(slot))
+					throw restored();
+			}
+			if (destroyed || now.getHealth(slot) != blocks.getHealth(slot)) {
+				putUnsigned(out, rank - previous);
+				putUnsigned(out, destroyed ? 0 : now.getHealth(slot));
+				previous = rank;
+			}
+		}
+		// Every block the game has now was walked above, unless a block came back in a slot that was empty at the previous delta.
+		if (remaining != now.getCount())
+			throw restored();
+		putUnsigned(out, 0);
+	}
+	
+	private static IllegalStateException restored() {
+		return new IllegalStateException("the state was restored to an earlier snapshot; create a new encoder and replica");
+	}
+	
+	/**
+	 * Writes {@code value}, taken as an unsigned 32-bit number, as a varint of one to five bytes.
+	 */
+	
+	static void putUnsigned(ByteBuffer out, int value) {
+		while ((value & ~0x7f) != 0) {
+			out.put((byte)(value | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte)value);
+	}
+	
+	/**
+	 * Writes the zigzag encoding of {@code value}, which maps small negative and positive values to small unsigned values, as a varint.
+	 */
+	
+	static void putSigned(ByteBuffer out, int value) {
+		putUnsigned(out, value << 1 ^ value >> 31);
+	}
+}
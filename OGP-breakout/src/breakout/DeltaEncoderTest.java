@@ -0,0 +1,141 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DeltaEncoderTest {
+
+	private BreakoutFacade facade = new BreakoutFacade();
+
+	private BreakoutState state() {
+		Ball[] balls = new Ball[6];
+		for (int i = 0; i < balls.length; i++)
+			balls[i] = facade.createNormalBall(new Point(4000 + i * 4000, 15000 + i * 1000), 700, new Vector(5 + i, -(9 + i)));
+		BlockState[] blocks = new BlockState[24];
+		for (int i = 0; i < blocks.length; i++) {
+			Point topLeft = new Point(i % 8 * 3500, i / 8 * 1200);
+			Point bottomRight = new Point(i % 8 * 3500 + 3500, i / 8 * 1200 + 1200);
+			blocks[i] = i % 4 == 0 ? facade.createSturdyBlockState(topLeft, bottomRight, 3) :
+				i % 4 == 1 ? facade.createPowerupBallBlockState(topLeft, bottomRight) :
+				i % 4 == 2 ? facade.createReplicatorBlockState(topLeft, bottomRight) : facade.createNormalBlockState(topLeft, bottomRight);
+		}
+		return facade.createBreakoutState(balls, blocks, new Point(28000, 30000), new ReplicatorPaddleState(new Point(14000, 28000), 3));
+	}
+
+	@Test
+	void testReplicaFollowsGame() {
+		BreakoutState state = state();
+		BreakoutState replica = state.fork();
+		DeltaEncoder encoder = new DeltaEncoder(state);
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		Random random = new Random(7);
+		boolean gained = false;
+		boolean lost = false;
+		int destroyed = 0;
+		for (int frame = 0; frame < 2000 && !state.isDead(); frame++) {
+			int balls = state.getBallCount();
+			int blocks = state.getBlockCount();
+			state.tickSubstepped(random.nextInt(3) - 1, 20);
+			gained |= state.getBallCount() > balls;
+			lost |= state.getBallCount() < balls;
+			destroyed += blocks - state.getBlockCount();
+
+			assertTrue(encoder.getMaxDeltaSize() <= buffer.capacity());
+			buffer.clear();
+			int size = encoder.encode(buffer);
+			assertEquals(size, buffer.position());
+			assertTrue(size <= encoder.getMaxDeltaSize());
+			buffer.flip();
+			DeltaDecoder.apply(replica, buffer);
+			assertFalse(buffer.hasRemaining());
+			assertEquals(state.getStateHash(), replica.getStateHash());
+		}
+		assertTrue(gained && lost && destroyed > 0);
+		assertArrayEquals(state.getBalls(), replica.getBalls());
+		assertArrayEquals(state.getBlocks(), replica.getBlocks());
+		assertEquals(state.getPaddle(), replica.getPaddle());
+
+		buffer.clear();
+		assertEquals(4, encoder.encode(buffer));
+	}
+
+	@Test
+	void testReplicaWithoutDestroyedBlocks() {
+		BreakoutState state = state();
+		for (int frame = 0; frame < 500 && state.getBlockCount() == 24; frame++)
+			state.tickSubstepped(0, 20);
+		assertTrue(state.getBlockCount() < 24);
+		// A loaded state only holds the remaining blocks, so its slots differ from those of the original game.
+		BreakoutState replica = BinaryStateFormat.decode(BinaryStateFormat.encode(state));
+		DeltaEncoder encoder = new DeltaEncoder(state);
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		for (int frame = 0; frame < 300; frame++) {
+			state.tickSubstepped(1, 20);
+			buffer.clear();
+			encoder.encode(buffer);
+			DeltaDecoder.apply(replica, buffer.flip());
+		}
+		assertEquals(state.getStateHash(), replica.getStateHash());
+		assertArrayEquals(state.getBlocks(), replica.getBlocks());
+	}
+
+	@Test
+	void testRestoredBlocksAreRejected() {
+		BreakoutState state = state();
+		BreakoutSnapshot start = state.snapshot();
+		DeltaEncoder encoder = new DeltaEncoder(state);
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		while (state.getBlockCount() == 24) {
+			state.tickSubstepped(0, 20);
+			buffer.clear();
+			encoder.encode(buffer);
+		}
+		state.restore(start);
+		buffer.clear();
+		assertThrows(IllegalStateException.class, () -> encoder.encode(buffer));
+		assertEquals(0, buffer.position());
+
+		// A sturdy block is damaged before it is destroyed, so a restore may also give a block its health back.
+		BreakoutState sturdy = facade.createBreakoutState(new Ball[] {facade.createNormalBall(new Point(1750, 1900), 700, new Vector(0, -5))},
+				new BlockState[] {facade.createSturdyBlockState(new Point(0, 0), new Point(3500, 1200), 3)},
+				new Point(28000, 30000), new ReplicatorPaddleState(new Point(14000, 28000), 3));
+		BreakoutSnapshot undamaged = sturdy.snapshot();
+		DeltaEncoder sturdyEncoder = new DeltaEncoder(sturdy);
+		while (sturdy.getBlocks()[0].getHealth() == 3) {
+			sturdy.tick(0, 20);
+			buffer.clear();
+			sturdyEncoder.encode(buffer);
+		}
+		sturdy.restore(undamaged);
+		buffer.clear();
+		assertThrows(IllegalStateException.class, () -> sturdyEncoder.encode(buffer));
+	}
+
+	@Test
+	void testOverflowAndMalformedDeltas() {
+		BreakoutState state = state();
+		BreakoutState replica = state.fork();
+		DeltaEncoder encoder = new DeltaEncoder(state);
+		state.tickSubstepped(1, 20);
+		ByteBuffer small = ByteBuffer.allocate(8);
+		assertThrows(BufferOverflowException.class, () -> encoder.encode(small));
+		assertEquals(0, small.position());
+
+		ByteBuffer buffer = ByteBuffer.allocate(encoder.getMaxDeltaSize());
+		encoder.encode(buffer);
+		buffer.flip();
+		ByteBuffer truncated = buffer.duplicate().limit(buffer.limit() - 1);
+		assertThrows(IllegalArgumentException.class, () -> DeltaDecoder.apply(replica.fork(), truncated));
+		assertThrows(IllegalArgumentException.class, () -> DeltaDecoder.apply(replica, ByteBuffer.wrap(new byte[] {4})));
+		assertThrows(IllegalArgumentException.class, () -> DeltaDecoder.apply(replica, ByteBuffer.wrap(new byte[] {0, 7, 0})));
+		DeltaDecoder.apply(replica, buffer);
+		assertEquals(state.getStateHash(), replica.getStateHash());
+		assertThrows(IllegalArgumentException.class, () -> new DeltaEncoder(null));
+	}
+
+}
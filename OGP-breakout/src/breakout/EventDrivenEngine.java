@@ -0,0 +1,384 @@
+package breakout;
+
+import java.util.Arrays;
+
+/**
+ * Advances a breakout game by many ticks at once, producing exactly the state that moving the paddle with {@code movePaddleLeft}
+ * or {@code movePaddleRight} and calling {@code tick} once per tick would, like {@code HeadlessRunner} does, while doing work only
+ * at the ticks at which something can happen.
+ *
+ * Between two collisions a ball moves by the same amount every tick, so for every ball the engine computes the first tick at which
+ * it can touch a wall, a block or the horizontal band the paddle moves in, or stops being supercharged, and keeps these ticks in a
+ * priority queue. The prediction is conservative: the ball may not actually collide at its tick, but it can't collide any earlier.
+ * Every tick before the earliest predicted tick only moves the balls and the paddle, so the engine skips those ticks by moving
+ * everything at once. At a predicted tick it calls {@code tick} itself, and only predicts the balls that were due and the balls that
+ * were added again. A prediction doesn't depend on where the paddle is, so changing the paddle input between runs costs nothing.
+ *
+ * The engine assumes the game only changes through it. If the game's state hash differs from what the engine left it at,
+ * or the tick length changes, it predicts all balls again before running.
+ *
+ * @invar | getState() != null
+ * @invar | getTicks() >= 0 && 0 <= getEventTicks() && getEventTicks() <= getTicks()
+ */
+
+public final class EventDrivenEngine {
+
+	/** The tick of an event that never happens. */
+	private static final long NEVER = Long.MAX_VALUE;
+
+	/** The distance the paddle moves per millisecond, like {@code BreakoutState.movePaddleRight}. */
+	private static final int PADDLE_SPEED = 10;
+
+	/** A coordinate beyond any coordinate a ball can reach, which keeps the arithmetic on coordinates from overflowing. */
+	private static final long FAR = 1L << 40;
+
+	/**
+	 * @invar | state != null
+	 * @invar {@code queueTick} and {@code queueId} form a binary min-heap of {@code queueSize} pairs, ordered by tick,
+	 *        holding the next predicted tick of every ball of {@code state} with an id of at most {@code lastId}, and possibly
+	 *        pairs of balls that are gone
+	 * @invar | queueTick != null && queueId != null && queueTick.length == queueId.length
+	 * @invar | 0 <= queueSize && queueSize <= queueTick.length
+	 *
+	 * @representationObject
+	 */
+
+	private final BreakoutState state;
+	private long[] queueTick = new long[16];
+	private long[] queueId = new long[16];
+	private int queueSize;
+	private long lastId = -1;
+	private int elapsedTime;
+	private long expectedHash;
+	private long ticks;
+	private long eventTicks;
+
+	/** Scratch space for {@code firstPaddleTick}. */
+	private final long[] range = new long[2];
+
+	/**
+	 * Initializes this engine so that it advances {@code state}.
+	 *
+	 * @throws IllegalArgumentException if {@code state} is {@code null}
+	 * 		| state == null
+	 *
+	 * @post | getState() == state
+	 * @post | getTicks() == 0 && getEventTicks() == 0
+	 */
+
+	public EventDrivenEngine(BreakoutState state) {
+		if (state == null)
+			throw new IllegalArgumentException("state can't be null");
+		this.state = state;
+	}
+
+	/** Returns the game this engine advances. */
+	public BreakoutState getState() {
+		return state;
+	}
+
+	/** Returns the amount of ticks this engine advanced its game by. */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/** Returns the amount of ticks at which this engine actually called {@code tick}. */
+	public long getEventTicks() {
+		return eventTicks;
+	}
+
+	/**
+	 * Advances the game by {@code count} ticks of {@code elapsedTime} milliseconds, moving the paddle in direction {@code paddleDir}
+	 * before every tick.
+	 *
+	 * @throws IllegalArgumentException if {@code paddleDir} is not -1, 0 or 1
+	 * 		| paddleDir != -1 && paddleDir != 0 && paddleDir != 1
+	 * @throws IllegalArgumentException if {@code elapsedTime} is not positive
+	 * 		| elapsedTime <= 0
+	 * @throws IllegalArgumentException if {@code count} is negative
+	 * 		| count < 0
+	 *
+	 * @mutates | this, getState()
+	 *
+	 * @post | getTicks() == old(getTicks()) + count
+	 */
+
+	public void run(int paddleDir, int elapsedTime, long count) {
+		advance(paddleDir, elapsedTime, count, false);
+	}
+
+	/**
+	 * Advances the game like {@code run}, but stops as soon as the game is won or lost, and returns the amount of ticks it advanced
+	 * the game by.
+	 *
+	 * @throws IllegalArgumentException if {@code paddleDir} is not -1, 0 or 1
+	 * 		| paddleDir != -1 && paddleDir != 0 && paddleDir != 1
+	 * @throws IllegalArgumentException if {@code elapsedTime} is not positive
+	 * 		| elapsedTime <= 0
+	 * @throws IllegalArgumentException if {@code maxCount} is negative
+	 * 		| maxCount < 0
+	 *
+	 * @mutates | this, getState()
+	 *
+	 * @post | 0 <= result && result <= maxCount
+	 * @post | getTicks() == old(getTicks()) + result
+	 * @post | result == maxCount || getState().isWon() || getState().isDead()
+	 */
+
+	public long runUntilOver(int paddleDir, int elapsedTime, long maxCount) {
+		return advance(paddleDir, elapsedTime, maxCount, true);
+	}
+
+	private long advance(int paddleDir, int elapsedTime, long count, boolean stopWhenOver) {
+		if (paddleDir != -1 && paddleDir != 0 && paddleDir != 1)
+			throw new IllegalArgumentException("paddleDir must be -1, 0 or 1");
+		if (elapsedTime <= 0)
+			throw new IllegalArgumentException("elapsedTime must be positive");
+		if (count < 0)
+			throw new IllegalArgumentException("count can't be negative");
+		if (elapsedTime != this.elapsedTime || state.getStateHash() != expectedHash) {
+			this.elapsedTime = elapsedTime;
+			predictAll();
+		}
+		long start = ticks;
+		long end = ticks + Math.min(count, NEVER - 1 - ticks);
+		while (!(stopWhenOver && (state.isWon() || state.isDead()))) {
+			long next = queueSize == 0 ? NEVER : queueTick[0];
+			if (next > end) {
+				skip(paddleDir, end - ticks);
+				break;
+			}
+			skip(paddleDir, next - 1 - ticks);
+			if (paddleDir == -1)
+				state.movePaddleLeft(elapsedTime);
+			if (paddleDir == 1)
+				state.movePaddleRight(elapsedTime);
+			state.tick(paddleDir, elapsedTime);
+			ticks = next;
+			eventTicks++;
+			predictDue();
+		}
+		expectedHash = state.getStateHash();
+		return ticks - start;
+	}
+
+	/**
+	 * Advances the game by {@code steps} ticks during which, according to the predictions, nothing happens but moving.
+	 */
+
+	private void skip(int paddleDir, long steps) {
+		if (steps <= 0)
+			return;
+		BallStore balls = state.getBallStore();
+		for (int i = 0; i < balls.size(); i++)
+			balls.advance(i, steps, elapsedTime);
+		// Moving the paddle further than the width of the field moves it against the wall, like moving it step by step does.
+		int distance = (int)Math.min(steps * elapsedTime, state.getBottomRight().getX());
+		if (paddleDir == -1)
+			state.movePaddleLeft(distance);
+		if (paddleDir == 1)
+			state.movePaddleRight(distance);
+		ticks += steps;
+	}
+
+	private void predictAll() {
+		queueSize = 0;
+		lastId = -1;
+		BallStore balls = state.getBallStore();
+		for (int i = 0; i < balls.size(); i++)
+			schedule(i, balls.getId(i));
+		if (balls.size() > 0)
+			lastId = balls.getId(balls.size() - 1);
+	}
+
+	/**
+	 * Predicts the balls that were due at the current tick, and the balls that were added during it, again.
+	 */
+
+	private void predictDue() {
+		BallStore balls = state.getBallStore();
+		while (queueSize > 0 && queueTick[0] == ticks) {
+			long id = queueId[0];
+			pop();
+			int i = indexOf(balls, id);
+			if (i >= 0)
+				schedule(i, id);
+		}
+		// Balls are added at the end of the store, with larger ids than any ball before them.
+		int added = balls.size();
+		while (added > 0 && balls.getId(added - 1) > lastId)
+			added--;
+		for (int i = added; i < balls.size(); i++)
+			schedule(i, balls.getId(i));
+		if (added < balls.size())
+			lastId = balls.getId(balls.size() - 1);
+	}
+
+	private void schedule(int i, long id) {
+		long delay = nextEvent(i);
+		push(delay == NEVER ? NEVER : ticks + delay, id);
+	}
+
+	private static int indexOf(BallStore balls, long id) {
+		int low = 0;
+		int high = balls.size() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleId = balls.getId(middle);
+			if (middleId < id)
+				low = middle + 1;
+			else if (middleId > id)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the amount of ticks from now until the first tick at which the ball at index {@code i} may touch a wall, a block or
+	 * the band of the paddle, or stops being supercharged, or {@code NEVER}.
+	 *
+	 * @post | result >= 1
+	 */
+
+	private long nextEvent(int i) {
+		BallStore balls = state.getBallStore();
+		long x = balls.centerX[i];
+		long y = balls.centerY[i];
+		long vx = (long)balls.velocityX[i] * elapsedTime;
+		long vy = (long)balls.velocityY[i] * elapsedTime;
+		int radius = balls.diameter[i] / 2;
+		int width = state.getBottomRight().getX();
+		int height = state.getBottomRight().getY();
+
+		// A ball touches a wall, and may get pushed back into the field by moveBall, once its bounds reach the wall.
+		long result = firstTick(x, vx, -FAR, radius, y, vy, -FAR, FAR);
+		result = Math.min(result, firstTick(x, vx, width - radius, FAR, y, vy, -FAR, FAR));
+		result = Math.min(result, firstTick(x, vx, -FAR, FAR, y, vy, -FAR, radius));
+		result = Math.min(result, firstTick(x, vx, -FAR, FAR, y, vy, height - radius, FAR));
+		result = Math.min(result, firstPaddleTick(x, vx, y, vy, radius));
+		if (balls.kind[i] == BallStore.SUPERCHARGED) {
+			long remaining = state.getMaxSuperchargedTime() - balls.time[i];
+			result = Math.min(result, Math.max(1, -Math.floorDiv(-remaining, elapsedTime)));
+		}
+
+		// Only the blocks the ball passes before its first other event matter: it is predicted again at that event.
+		long horizon = result == NEVER ? 1 : result;
+		long toX = x + horizon * vx;
+		long toY = y + horizon * vy;
+		BlockIndex blockIndex = state.getBlockIndex();
+		int candidates = blockIndex.query((int)(Math.min(x, toX) - radius - 1), (int)(Math.min(y, toY) - radius - 1),
+				(int)(Math.max(x, toX) + radius + 1), (int)(Math.max(y, toY) + radius + 1));
+		for (int k = 0; k < candidates; k++) {
+			int slot = blockIndex.getCandidate(k);
+			result = Math.min(result, firstTick(x, vx, blockIndex.left[slot] - radius, blockIndex.right[slot] + radius,
+					y, vy, blockIndex.top[slot] - radius, blockIndex.bottom[slot] + radius));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first tick {@code k >= 1} at which the ball with the given center, velocity per tick and radius may touch the paddle,
+	 * or {@code NEVER}. Whatever the paddle input, the paddle moves at most {@code PADDLE_SPEED * elapsedTime} per tick, so the ball
+	 * must overlap the band the paddle moves in and be within that reach of the paddle.
+	 */
+
+	private long firstPaddleTick(long x, long vx, long y, long vy, int radius) {
+		long top = state.getPaddleCenterY() - PaddleState.SIZE.getY() - radius;
+		long bottom = state.getPaddleCenterY() + PaddleState.SIZE.getY() + radius;
+		long first = firstInside(y, vy, top, bottom);
+		long last = lastInside(y, vy, top, bottom);
+		if (first == NEVER || first > last)
+			return NEVER;
+		// |x + k * vx - paddleX| <= reach + k * speed, as two linear constraints on k
+		long dx = x - state.getPaddleCenterX();
+		long reach = PaddleState.SIZE.getX() + radius;
+		long speed = (long)PADDLE_SPEED * elapsedTime;
+		range[0] = first;
+		range[1] = last;
+		if (!restrict(range, vx - speed, reach - dx) || !restrict(range, -vx - speed, reach + dx))
+			return NEVER;
+		return range[0];
+	}
+
+	/**
+	 * Narrows the range of ticks {@code bounds[0] <= k <= bounds[1]} to the ticks for which {@code a * k <= b} and returns whether
+	 * any tick remains.
+	 */
+
+	private static boolean restrict(long[] bounds, long a, long b) {
+		if (a > 0)
+			bounds[1] = Math.min(bounds[1], Math.floorDiv(b, a));
+		else if (a < 0)
+			bounds[0] = Math.max(bounds[0], -Math.floorDiv(-b, a));
+		else if (b < 0)
+			return false;
+		return bounds[0] <= bounds[1];
+	}
+
+	/**
+	 * Returns the first tick {@code k >= 1} at which a point that starts at {@code (x, y)} and moves {@code (vx, vy)} per tick lies
+	 * in the closed rectangle with the given bounds, or {@code NEVER}.
+	 */
+
+	static long firstTick(long x, long vx, long left, long right, long y, long vy, long top, long bottom) {
+		long first = Math.max(firstInside(x, vx, left, right), firstInside(y, vy, top, bottom));
+		if (first == NEVER || first > lastInside(x, vx, left, right) || first > lastInside(y, vy, top, bottom))
+			return NEVER;
+		return first;
+	}
+
+	/** Returns the first tick {@code k >= 1} for which {@code low <= p + k * v}, if {@code v >= 0}, or {@code p + k * v <= high}. */
+	private static long firstInside(long p, long v, long low, long high) {
+		if (v == 0)
+			return low <= p && p <= high ? 1 : NEVER;
+		long bound = v > 0 ? low : high;
+		return Math.max(1, -Math.floorDiv(p - bound, v));
+	}
+
+	/** Returns the last tick {@code k} for which {@code p + k * v <= high}, if {@code v >= 0}, or {@code low <= p + k * v}. */
+	private static long lastInside(long p, long v, long low, long high) {
+		if (v == 0)
+			return NEVER;
+		return Math.floorDiv(v > 0 ? high - p : low - p, v);
+	}
+
+	private void push(long tick, long id) {
+		if (queueSize == queueTick.length) {
+			queueTick = Arrays.copyOf(queueTick, 2 * queueSize);
+			queueId = Arrays.copyOf(queueId, 2 * queueSize);
+		}
+		int k = queueSize++;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (queueTick[parent] <= tick)
+				break;
+			queueTick[k] = queueTick[parent];
+			queueId[k] = queueId[parent];
+			k = parent;
+		}
+		queueTick[k] = tick;
+		queueId[k] = id;
+	}
+
+	private void pop() {
+		long tick = queueTick[--queueSize];
+		long id = queueId[queueSize];
+		int k = 0;
+		while (true) {
+			int child = 2 * k + 1;
+			if (child >= queueSize)
+				break;
+			if (child + 1 < queueSize && queueTick[child + 1] < queueTick[child])
+				child++;
+			if (queueTick[child] >= tick)
+				break;
+			queueTick[k] = queueTick[child];
+			queueId[k] = queueId[child];
+			k = child;
+		}
+		queueTick[k] = tick;
+		queueId[k] = id;
+	}
+}
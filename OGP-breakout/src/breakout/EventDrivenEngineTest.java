@@ -0,0 +1,133 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EventDrivenEngineTest {
+
+	static final String[] maps = {
+			"""
+##########
+###!######
+##########
+SSS!SSS!#S
+     o
+
+     =
+
+""",
+			"""
+#SRP#SRP##
+
+  o  o  o
+
+     =
+
+""",
+			"""
+PPPPPPPPPP
+RRRRRRRRRR
+
+ o  o  o
+
+     =
+
+"""
+	};
+
+	static void tick(BreakoutState state, int paddleDir, int elapsedTime, int count) {
+		for (int i = 0; i < count; i++) {
+			if (paddleDir == -1)
+				state.movePaddleLeft(elapsedTime);
+			if (paddleDir == 1)
+				state.movePaddleRight(elapsedTime);
+			state.tick(paddleDir, elapsedTime);
+		}
+	}
+
+	static void assertSameState(BreakoutState expected, BreakoutState actual) {
+		assertEquals(expected.getStateHash(), actual.getStateHash());
+		assertArrayEquals(expected.getBalls(), actual.getBalls());
+		assertArrayEquals(expected.getBlocks(), actual.getBlocks());
+		assertEquals(expected.getPaddle(), actual.getPaddle());
+	}
+
+	@Test
+	void testMatchesTick() {
+		Random random = new Random(5);
+		for (String map : maps) {
+			for (int elapsedTime : new int[] {1, 7, 20}) {
+				BreakoutState reference = GameMap.createStateFromDescription(map);
+				EventDrivenEngine engine = new EventDrivenEngine(GameMap.createStateFromDescription(map));
+				Autopilot autopilot = new Autopilot();
+				while (!reference.isWon() && !reference.isDead()) {
+					int paddleDir = autopilot.paddleDirection(reference, elapsedTime);
+					int count = 1 + random.nextInt(3);
+					tick(reference, paddleDir, elapsedTime, count);
+					engine.run(paddleDir, elapsedTime, count);
+					assertEquals(reference.getStateHash(), engine.getState().getStateHash());
+				}
+				assertSameState(reference, engine.getState());
+				assertTrue(engine.getEventTicks() < engine.getTicks());
+			}
+		}
+	}
+
+	@Test
+	void testFastForward() {
+		BreakoutState reference = GameMap.createStateFromDescription(maps[0]);
+		EventDrivenEngine engine = new EventDrivenEngine(GameMap.createStateFromDescription(maps[0]));
+		long ticks = engine.runUntilOver(1, 1, 1_000_000);
+		assertTrue(engine.getState().isDead());
+		assertEquals(ticks, engine.getTicks());
+		assertTrue(engine.getEventTicks() * 100 < ticks);
+		int count = 0;
+		while (!reference.isDead()) {
+			tick(reference, 1, 1, 1);
+			count++;
+		}
+		assertEquals(count, ticks);
+		assertSameState(reference, engine.getState());
+		assertEquals(0, engine.runUntilOver(1, 1, 10));
+	}
+
+	@Test
+	void testNoticesOutsideChanges() {
+		BreakoutState reference = GameMap.createStateFromDescription(maps[1]);
+		EventDrivenEngine engine = new EventDrivenEngine(GameMap.createStateFromDescription(maps[1]));
+		BreakoutSnapshot start = engine.getState().snapshot();
+		engine.run(-1, 20, 200);
+		engine.getState().restore(start);
+		engine.run(1, 10, 150);
+		tick(reference, 1, 10, 150);
+		assertSameState(reference, engine.getState());
+		engine.getState().movePaddleLeft(100);
+		reference.movePaddleLeft(100);
+		engine.run(0, 10, 150);
+		tick(reference, 0, 10, 150);
+		assertSameState(reference, engine.getState());
+	}
+
+	@Test
+	void testFirstTick() {
+		assertEquals(3, EventDrivenEngine.firstTick(0, 10, 25, 40, 0, 0, -5, 5));
+		assertEquals(Long.MAX_VALUE, EventDrivenEngine.firstTick(0, 10, 25, 40, 0, 0, 1, 5));
+		assertEquals(Long.MAX_VALUE, EventDrivenEngine.firstTick(0, 10, 25, 28, 0, 0, -5, 5));
+		assertEquals(4, EventDrivenEngine.firstTick(100, -10, 50, 60, 0, 3, 10, 100));
+		assertEquals(1, EventDrivenEngine.firstTick(0, 0, -1, 1, 0, 0, 0, 0));
+	}
+
+	@Test
+	void testIllegalArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new EventDrivenEngine(null));
+		EventDrivenEngine engine = new EventDrivenEngine(GameMap.createStateFromDescription(maps[0]));
+		assertThrows(IllegalArgumentException.class, () -> engine.run(2, 20, 1));
+		assertThrows(IllegalArgumentException.class, () -> engine.run(0, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> engine.run(0, 20, -1));
+		assertThrows(IllegalArgumentException.class, () -> engine.runUntilOver(0, 20, -1));
+	}
+
+}
@@ -0,0 +1,58 @@
+package breakout;
+
+/**
+ * A listener for the events that happen while a breakout state ticks, registered with {@code BreakoutState.addListener}.
+ *
+ * Events are raised synchronously, from inside the tick, at the moment they happen. They are described by primitives and by the
+ * {@code Point}s the state already stores, so raising them doesn't create any objects. A ball is identified by its index in
+ * {@code BreakoutState.getBalls()} at the moment of the event; the indices of the other balls may change later during the same tick,
+ * when balls are lost or replicated. Listeners must not change the state they listen to.
+ *
+ * Every method does nothing by default, so a listener only overrides the events it cares about.
+ */
+
+public interface GameEventListener {
+
+	/**
+	 * Called when the ball at index {@code ball} damaged the block with the given corners without destroying it,
+	 * leaving it with health {@code health}.
+	 */
+
+	default void blockDamaged(int ball, Point topLeft, Point bottomRight, int health) {}
+
+	/**
+	 * Called when the ball at index {@code ball} destroyed the block with the given corners.
+	 */
+
+	default void blockDestroyed(int ball, Point topLeft, Point bottomRight) {}
+
+	/**
+	 * Called when a ball with the given center and diameter reached the bottom of the field and was removed from the game.
+	 */
+
+	default void ballLost(int centerX, int centerY, int diameter) {}
+
+	/**
+	 * Called when the ball at index {@code ball} was replicated {@code amount} times. The replicas were appended to the balls.
+	 */
+
+	default void ballReplicated(int ball, int amount) {}
+
+	/**
+	 * Called when the ball at index {@code ball} hit a powerup block and became supercharged, or started over being supercharged.
+	 */
+
+	default void powerupActivated(int ball) {}
+
+	/**
+	 * Called when the ball at index {@code ball} stopped being supercharged because its time ran out.
+	 */
+
+	default void powerupExpired(int ball) {}
+
+	/**
+	 * Called when the ball at index {@code ball} bounced off the paddle.
+	 */
+
+	default void paddleHit(int ball) {}
+}
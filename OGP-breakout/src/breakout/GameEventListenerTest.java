@@ -0,0 +1,121 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GameEventListenerTest {
+
+	BreakoutFacade facade = new BreakoutFacade();
+	Point sturdyTopLeft = new Point(2000, 2000);
+	Point sturdyBottomRight = new Point(5000, 5000);
+	Point powerupTopLeft = new Point(6000, 2000);
+	Point powerupBottomRight = new Point(9000, 5000);
+	BreakoutState state;
+	List<String> events;
+	GameEventListener recorder;
+
+	@BeforeEach
+	void setUp() {
+		Ball[] balls = {
+				facade.createNormalBall(new Point(3500, 5400), 700, new Vector(0, -5)),
+				facade.createSuperchargedBall(new Point(30000, 20000), 700, new Vector(0, 1), 9990),
+				facade.createNormalBall(new Point(10000, 49600), 700, new Vector(0, 5)),
+				facade.createNormalBall(new Point(20000, 39300), 700, new Vector(0, 10)),
+				facade.createNormalBall(new Point(7500, 5400), 700, new Vector(0, -5))
+		};
+		BlockState[] blocks = {
+				facade.createSturdyBlockState(sturdyTopLeft, sturdyBottomRight, 2),
+				facade.createPowerupBallBlockState(powerupTopLeft, powerupBottomRight)
+		};
+		state = facade.createBreakoutState(balls, blocks, new Point(50000, 50000), new ReplicatorPaddleState(new Point(20000, 40000), 2));
+		events = new ArrayList<>();
+		recorder = new GameEventListener() {
+			@Override
+			public void blockDamaged(int ball, Point topLeft, Point bottomRight, int health) {
+				events.add("blockDamaged " + ball + " " + topLeft + " " + bottomRight + " " + health);
+			}
+			@Override
+			public void blockDestroyed(int ball, Point topLeft, Point bottomRight) {
+				events.add("blockDestroyed " + ball + " " + topLeft + " " + bottomRight);
+			}
+			@Override
+			public void ballLost(int centerX, int centerY, int diameter) {
+				events.add("ballLost " + centerX + " " + centerY + " " + diameter);
+			}
+			@Override
+			public void ballReplicated(int ball, int amount) {
+				events.add("ballReplicated " + ball + " " + amount);
+			}
+			@Override
+			public void powerupActivated(int ball) {
+				events.add("powerupActivated " + ball);
+			}
+			@Override
+			public void powerupExpired(int ball) {
+				events.add("powerupExpired " + ball);
+			}
+			@Override
+			public void paddleHit(int ball) {
+				events.add("paddleHit " + ball);
+			}
+		};
+	}
+
+	@Test
+	void testTickRaisesEvents() {
+		BreakoutState quiet = state.fork();
+		state.addListener(recorder);
+		state.tick(0, 20);
+		assertEquals(List.of(
+				"powerupExpired 1",
+				"ballLost 10000 49650 700",
+				"blockDamaged 0 " + sturdyTopLeft + " " + sturdyBottomRight + " 1",
+				"blockDestroyed 3 " + powerupTopLeft + " " + powerupBottomRight,
+				"powerupActivated 3",
+				"paddleHit 2",
+				"ballReplicated 2 2"), events);
+		assertEquals(6, state.getBallCount());
+
+		quiet.tick(0, 20);
+		assertEquals(quiet.getStateHash(), state.getStateHash());
+	}
+
+	@Test
+	void testTickContinuousRaisesEvents() {
+		state.addListener(recorder);
+		state.tickContinuous(0, 20);
+		assertTrue(events.contains("powerupExpired 1"));
+		assertTrue(events.contains("blockDamaged 0 " + sturdyTopLeft + " " + sturdyBottomRight + " 1"));
+		assertTrue(events.contains("blockDestroyed 4 " + powerupTopLeft + " " + powerupBottomRight));
+		assertTrue(events.contains("powerupActivated 4"));
+		assertTrue(events.contains("paddleHit 3"));
+		assertTrue(events.contains("ballReplicated 3 2"));
+		assertTrue(events.stream().anyMatch(e -> e.startsWith("ballLost 10000 ")));
+	}
+
+	@Test
+	void testAddAndRemoveListeners() {
+		assertThrows(IllegalArgumentException.class, () -> state.addListener(null));
+		assertThrows(IllegalArgumentException.class, () -> state.removeListener(null));
+
+		state.addListener(recorder);
+		state.addListener(recorder);
+		BreakoutState fork = state.fork();
+		fork.tick(0, 20);
+		assertTrue(events.isEmpty());
+
+		state.removeListener(recorder);
+		state.tick(0, 20);
+		assertEquals(7, events.size());
+		state.removeListener(recorder);
+		state.removeListener(recorder);
+		events.clear();
+		state.tick(0, 10000);
+		assertTrue(events.isEmpty());
+	}
+}
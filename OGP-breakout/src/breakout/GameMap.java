@@ -12,6 +12,25 @@ public class GameMap {
 	private static final Vector INIT_BALL_VELOCITY = new Vector(4, 5);
 	private static BreakoutFacade facade = new BreakoutFacade();
 
+	/**
+	 * The map the application starts with, which the headless tools also play when they aren't given one.
+	 */
+	public static final String DEFAULT_MAP = """
+##########
+###!######
+##########
+SSS!SSS!#S
+     o
+
+     =
+
+""";
+
+	/**
+	 * The amount of game time, in milliseconds, the application simulates every tick, which is also the time between its ticks.
+	 */
+	public static final int DEFAULT_TICK_TIME = 20;
+
 	private GameMap() {
 		throw new AssertionError("This class is not intended to be instantiated");
 	}
@@ -0,0 +1,109 @@
+package breakout;
+
+/**
+ * Allocation-free geometry on points and vectors packed into a single {@code long}.
+ *
+ * The x coordinate is stored in the upper 32 bits and the y coordinate in the lower 32 bits, so every {@code int} pair has exactly
+ * one packed representation. All operations wrap around on overflow exactly like the corresponding {@code int} arithmetic
+ * of {@code Point} and {@code Vector}, which delegate to this class.
+ */
+public final class PackedGeometry {
+
+	private PackedGeometry() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Return the packed representation of the pair {@code (x, y)}.
+	 *
+	 * @post | getX(result) == x
+	 * @post | getY(result) == y
+	 */
+	public static long pack(int x, int y) {
+		return (long)x << 32 | (y & 0xffffffffL);
+	}
+
+	/** Return the x coordinate of the packed pair {@code p}. */
+	public static int getX(long p) {
+		return (int)(p >> 32);
+	}
+
+	/** Return the y coordinate of the packed pair {@code p}. */
+	public static int getY(long p) {
+		return (int)p;
+	}
+
+	/**
+	 * Return the sum of the packed pairs {@code a} and {@code b}.
+	 *
+	 * @post | result == pack(getX(a) + getX(b), getY(a) + getY(b))
+	 */
+	public static long plus(long a, long b) {
+		return pack(getX(a) + getX(b), getY(a) + getY(b));
+	}
+
+	/**
+	 * Return the difference of the packed pairs {@code a} and {@code b}.
+	 *
+	 * @post | result == pack(getX(a) - getX(b), getY(a) - getY(b))
+	 */
+	public static long minus(long a, long b) {
+		return pack(getX(a) - getX(b), getY(a) - getY(b));
+	}
+
+	/**
+	 * Return the packed pair {@code a} scaled by {@code factor}.
+	 *
+	 * @post | result == pack(getX(a) * factor, getY(a) * factor)
+	 */
+	public static long scaled(long a, int factor) {
+		return pack(getX(a) * factor, getY(a) * factor);
+	}
+
+	/**
+	 * Return the packed pair {@code a} with both coordinates divided by {@code d}.
+	 *
+	 * @pre | d != 0
+	 * @post | result == pack(getX(a) / d, getY(a) / d)
+	 */
+	public static long scaledDiv(long a, int d) {
+		return pack(getX(a) / d, getY(a) / d);
+	}
+
+	/**
+	 * Return the dot product of the packed vectors {@code a} and {@code b}.
+	 *
+	 * @post | result == getX(a) * getX(b) + getY(a) * getY(b)
+	 */
+	public static int dot(long a, long b) {
+		return getX(a) * getX(b) + getY(a) * getY(b);
+	}
+
+	/**
+	 * Return the packed vector {@code v} mirrored over the packed normal vector {@code m}.
+	 *
+	 * @pre | dot(m, m) == 1
+	 * @post | result == minus(v, scaled(m, 2 * dot(v, m)))
+	 */
+	public static long mirrorOver(long v, long m) {
+		return minus(v, scaled(m, 2 * dot(v, m)));
+	}
+
+	/**
+	 * Return the packed point {@code p} mirrored over the vertical line through point {@code (xmirror, 0)}.
+	 *
+	 * @post | result == pack(2 * xmirror - getX(p), getY(p))
+	 */
+	public static long reflectVertical(long p, int xmirror) {
+		return pack(2 * xmirror - getX(p), getY(p));
+	}
+
+	/**
+	 * Return the packed point {@code p} mirrored over the horizontal line through point {@code (0, ymirror)}.
+	 *
+	 * @post | result == pack(getX(p), 2 * ymirror - getY(p))
+	 */
+	public static long reflectHorizontal(long p, int ymirror) {
+		return pack(getX(p), 2 * ymirror - getY(p));
+	}
+}
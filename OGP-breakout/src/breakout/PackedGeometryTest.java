@@ -0,0 +1,51 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PackedGeometryTest {
+	long p34;
+	long pm28;
+	long vm25;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		p34 = PackedGeometry.pack(3, 4);
+		pm28 = PackedGeometry.pack(-2, 8);
+		vm25 = PackedGeometry.pack(-2, -5);
+	}
+
+	@Test
+	void testPack() {
+		assertEquals(-2, PackedGeometry.getX(pm28));
+		assertEquals(8, PackedGeometry.getY(pm28));
+		assertEquals(-5, PackedGeometry.getY(vm25));
+		long extremes = PackedGeometry.pack(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		assertEquals(Integer.MIN_VALUE, PackedGeometry.getX(extremes));
+		assertEquals(Integer.MAX_VALUE, PackedGeometry.getY(extremes));
+		assertEquals(new Point(-2, 8), Point.fromPacked(new Point(-2, 8).toPacked()));
+		assertEquals(new Vector(-2, -5), Vector.fromPacked(new Vector(-2, -5).toPacked()));
+	}
+
+	@Test
+	void testArithmetic() {
+		assertEquals(PackedGeometry.pack(1, 12), PackedGeometry.plus(p34, pm28));
+		assertEquals(PackedGeometry.pack(5, 9), PackedGeometry.minus(p34, vm25));
+		assertEquals(PackedGeometry.pack(-6, -15), PackedGeometry.scaled(vm25, 3));
+		assertEquals(PackedGeometry.pack(-1, -2), PackedGeometry.scaledDiv(vm25, 2));
+		assertEquals(-26, PackedGeometry.dot(p34, vm25));
+		assertEquals(PackedGeometry.pack(Integer.MIN_VALUE, 0), PackedGeometry.plus(PackedGeometry.pack(Integer.MAX_VALUE, -1), PackedGeometry.pack(1, 1)));
+	}
+
+	@Test
+	void testReflections() {
+		assertEquals(PackedGeometry.pack(-2, 5), PackedGeometry.mirrorOver(vm25, Vector.DOWN.toPacked()));
+		assertEquals(PackedGeometry.pack(2, -5), PackedGeometry.mirrorOver(vm25, Vector.LEFT.toPacked()));
+		assertEquals(PackedGeometry.pack(7, 4), PackedGeometry.reflectVertical(p34, 5));
+		assertEquals(PackedGeometry.pack(3, 6), PackedGeometry.reflectHorizontal(p34, 5));
+		assertEquals(new Vector(-2, -5).mirrorOver(Vector.UP), Vector.fromPacked(PackedGeometry.mirrorOver(vm25, Vector.UP.toPacked())));
+	}
+
+}
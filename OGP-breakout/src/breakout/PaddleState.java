@@ -26,7 +26,7 @@ public abstract class PaddleState {
 	 */
 	
 	private final Point center;
-	private static final Vector SIZE = new Vector(1500, 250);
+	static final Vector SIZE = new Vector(1500, 250);
 	private static final Vector[] ADDED_VELOCITIES = {new Vector(2, -2), new Vector(2, 2), new Vector(-2, 2)};
 	
 	/**
@@ -121,6 +121,18 @@ public abstract class PaddleState {
 		return ADDED_VELOCITIES.clone();
 	}
 	
+	/**
+	 * Returns the velocity at index {@code index} of {@code getAddedVelocities()}, without copying the array.
+	 * 
+	 * @pre | 0 <= index && index < getAddedVelocities().length
+	 * 
+	 * @post | result.equals(getAddedVelocities()[index])
+	 */
+	
+	static Vector getAddedVelocity(int index) {
+		return ADDED_VELOCITIES[index];
+	}
+	
 	/**
 	 * Returns a new paddle after this paddle was hit by a ball. The new paddle's properties depend on the current paddle's properties
 	 * 
@@ -159,6 +171,19 @@ public abstract class PaddleState {
 				((PaddleState)obj).getCenter().equals(getCenter());
 	}
 	
+	/**
+	 * Returns a hash code for this paddle that is consistent with {@code equals}.
+	 */
+	
+	@Override
+	
+	public int hashCode() {
+		final int prime = 31;
+		int result = getClass().getName().hashCode();
+		result = prime * result + center.hashCode();
+		return prime * result + getAmountOfReplications();
+	}
+	
 	/**
 	 * Returns a new array, containing all balls in the given array {@code balls} as well as any balls that were cloned as a result of
 	 * {@code ball} colliding with the paddle. If no balls were cloned, a copy of {@code balls} is returned.
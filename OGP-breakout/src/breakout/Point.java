@@ -57,6 +57,27 @@ public class Point {
 		return y;
 	}
 
+	/**
+	 * Return this point's coordinates packed into a single {@code long}, as used by {@code PackedGeometry}.
+	 * 
+	 * @post | PackedGeometry.getX(result) == getX()
+	 * @post | PackedGeometry.getY(result) == getY()
+	 */
+	public long toPacked() {
+		return PackedGeometry.pack(x, y);
+	}
+
+	/**
+	 * Return a new Point with the coordinates of the packed pair {@code p}.
+	 * 
+	 * @post | result != null
+	 * @post | result.getX() == PackedGeometry.getX(p)
+	 * @post | result.getY() == PackedGeometry.getY(p)
+	 */
+	public static Point fromPacked(long p) {
+		return new Point(PackedGeometry.getX(p), PackedGeometry.getY(p));
+	}
+
 	/**
 	 * Return the point obtained by adding vector `v` to this point.
 	 * 
@@ -66,7 +87,7 @@ public class Point {
 	 * @post | result.getY() == getY() + v.getY()
 	 */
 	public Point plus(Vector v) { 
-		return new Point(x + v.getX(), y + v.getY());
+		return fromPacked(PackedGeometry.plus(toPacked(), v.toPacked()));
 	}
 
 	/**
@@ -78,7 +99,7 @@ public class Point {
 	 * @post | result.getY() == getY() - v.getY()
 	 */
 	public Point minus(Vector v) {
-		return plus(v.scaled(-1));
+		return fromPacked(PackedGeometry.minus(toPacked(), v.toPacked()));
 	}
 
 	/**
@@ -97,7 +118,7 @@ public class Point {
 	 * @post | result.getX() == 2*xmirror - getX() 
 	 */
 	public Point reflectVertical(int xmirror) {
-		return new Point(2*xmirror-x,y);
+		return fromPacked(PackedGeometry.reflectVertical(toPacked(), xmirror));
 	}
 	/**
 	 * Return the point obtained by mirroring this point over the horizontal line through point (0,ymirror).
@@ -107,7 +128,7 @@ public class Point {
 	 * @post | result.getY() == 2*ymirror - getY() 
 	 */
 	public Point reflectHorizontal(int ymirror) {
-		return new Point(x,2*ymirror-y);
+		return fromPacked(PackedGeometry.reflectHorizontal(toPacked(), ymirror));
 	}
 	
 	/**
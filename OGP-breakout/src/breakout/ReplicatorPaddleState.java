@@ -137,22 +137,10 @@ public class ReplicatorPaddleState extends PaddleState{
 	@Override
 	
 	public Ball[] hitPaddleReplicationHandler(Ball[] balls, Ball ball) {
-		Ball[] newBalls = new Ball[balls.length + amountOfReplications];
-		
-		int i = 0;
-		for (;i<balls.length; i++) {
-			newBalls[i] = balls[i];
-		}
-		
-		Ball[] clonesToBeAdded = new Ball[amountOfReplications];
+		Ball[] newBalls = Arrays.copyOf(balls, balls.length + amountOfReplications);
 		
 		for (int idx=0; idx<amountOfReplications;idx++) {
-			clonesToBeAdded[idx] = ball.cloneBallWithChangedVelocity(getAddedVelocities()[idx]);
-		}
-		
-		for (int j=0;j<clonesToBeAdded.length;j++) {
-			newBalls[i] = clonesToBeAdded[j];
-			i++;
+			newBalls[balls.length + idx] = ball.cloneBallWithChangedVelocity(getAddedVelocity(idx));
 		}
 		
 		return newBalls;
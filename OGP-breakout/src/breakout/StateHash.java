@@ -0,0 +1,72 @@
+package breakout;
+
+/**
+ * The hash function behind {@code BreakoutState.getStateHash}.
+ *
+ * The hash of a state is the exclusive or of one key per ball, per remaining block and for the paddle. Changing one ball, block
+ * or the paddle therefore only takes the exclusive or of its old and new key, like in Zobrist hashing. The keys are computed
+ * from the coordinates with the SplitMix64 finalizer instead of looked up in a table of random numbers, because coordinates
+ * aren't limited to a small range, and so that every JVM computes the same hash for the same state.
+ */
+
+final class StateHash {
+
+	static final long BALL = 0x62616c6cL;
+	private static final long BLOCK = 0x626c6f636bL;
+	private static final long PADDLE = 0x706164646c65L;
+
+	/** The constant {@code add} adds to the hash along with every pair, so that pairs of zeros still change the hash. */
+	static final long GOLDEN = 0x9e3779b97f4a7c15L;
+
+	private StateHash() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns the SplitMix64 finalizer of {@code z}: a bijection on {@code long}s whose every output bit depends on every input bit.
+	 */
+
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the hash {@code h} extended with the pair {@code (a, b)}.
+	 */
+
+	static long add(long h, int a, int b) {
+		return mix(h + GOLDEN + PackedGeometry.pack(a, b));
+	}
+
+	/**
+	 * Returns the key of the ball at index {@code index} with the given properties. {@code time} is {@code -1} for a normal ball.
+	 */
+
+	static long ball(int index, int centerX, int centerY, int velocityX, int velocityY, int diameter, int time) {
+		long h = mix(BALL + index);
+		h = add(h, centerX, centerY);
+		h = add(h, velocityX, velocityY);
+		return add(h, diameter, time);
+	}
+
+	/**
+	 * Returns the key of a block of kind {@code kind} with the given corners and health, where the kinds are those of {@code BlockStore}.
+	 */
+
+	static long block(int kind, Point topLeft, Point bottomRight, int health) {
+		long h = mix(BLOCK + kind);
+		h = add(h, topLeft.getX(), topLeft.getY());
+		h = add(h, bottomRight.getX(), bottomRight.getY());
+		return add(h, health, 0);
+	}
+
+	/**
+	 * Returns the key of a paddle with the given center and amount of replications.
+	 */
+
+	static long paddle(int centerX, int centerY, int replications) {
+		return add(mix(PADDLE + replications), centerX, centerY);
+	}
+}
@@ -47,16 +47,11 @@ public class SuperchargedBall extends Ball {
 	}
 	
 	/**
-	 * Changes this supercharged ball's velocity after it bounced against a non-destroyable block that is presented as {@code rect}.
+	 * Changes this supercharged ball's velocity after it bounced against the given side of a non-destroyable block.
 	 * If the block is destroyable, the ball's velocity remains unchanged.
 	 * 
-	 * @pre {@code rect} is not {@code null}
-	 * 		| rect != null
-	 * @pre This ball hit the block on one of its sides.
-	 * 		| raaktRechthoek(rect, 1) || 
-	 * 		| raaktRechthoek(rect, 2) || 
-	 * 		| raaktRechthoek(rect, 3) || 
-	 * 		| raaktRechthoek(rect, 4)
+	 * @pre Argument {@code sideNumber} should be 1, 2, 3 or 4
+	 * 		| sideNumber == 1 || sideNumber == 2 || sideNumber == 3 || sideNumber == 4
 	 * 
 	 * @mutates | this
 	 * 
@@ -67,21 +62,19 @@ public class SuperchargedBall extends Ball {
 	 * @post For a non-destroyable block, this supercharged ball's velocity got changed according with the side of the block it hit.
 	 * 		 For a destroyable block, this supercharged ball's velocity remained unchanged.
 	 * 		| !destroyed && (
-	 * 		| 	getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(0, 1))) ||
-	 * 		| 	getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(-1, 0))) ||
-	 * 		| 	getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(0, -1))) ||
-	 * 		| 	getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(1, 0))) ) || 
+	 * 		| 	sideNumber == 1 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(0, 1))) ||
+	 * 		| 	sideNumber == 2 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(-1, 0))) ||
+	 * 		| 	sideNumber == 3 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(0, -1))) ||
+	 * 		| 	sideNumber == 4 && getVelocity().equals(old(getVelocity()).mirrorOver(new Vector(1, 0))) ) || 
 	 * 		| destroyed &&
 	 * 		| 	getVelocity().equals(old(getVelocity()))
 	 */
 	
 	@Override
 	
-	public void hitBlock(Rect rect, boolean destroyed) {
+	public void hitBlockSide(int sideNumber, boolean destroyed) {
 		if (destroyed == false) {
-			super.hitBlock(rect, destroyed);
-		}else {
-			return;
+			super.hitBlockSide(sideNumber, destroyed);
 		}
 	}
 	
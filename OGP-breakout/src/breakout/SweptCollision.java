@@ -0,0 +1,106 @@
+package breakout;
+
+/**
+ * Time-of-impact computations for a moving ball against an axis-aligned rectangle.
+ *
+ * Like {@code Ball.raaktRechthoek}, a ball is treated as its bounding square with half-side equal to its radius,
+ * so sweeping the ball is the same as sweeping its center through the rectangle grown by the radius on every side.
+ * A contact is only reported when the ball enters the rectangle: a ball that already overlaps it, or that is moving away from it,
+ * never hits it.
+ *
+ * Sides are numbered as in {@code Ball.raaktRechthoek}: 1 is the bottom side, 2 the left side, 3 the top side and 4 the right side.
+ */
+
+final class SweptCollision {
+
+	/**
+	 * The time returned when there is no contact.
+	 */
+
+	static final double NO_CONTACT = Double.POSITIVE_INFINITY;
+
+	private SweptCollision() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+
+	/**
+	 * Returns the first time, in milliseconds from now, at which a ball with center {@code (x, y)}, velocity {@code (vx, vy)}
+	 * and radius {@code radius} enters the rectangle with the given bounds, or {@code NO_CONTACT} if it doesn't do so within {@code maxTime}.
+	 *
+	 * @pre | left <= right && top <= bottom
+	 * @pre | radius >= 0
+	 *
+	 * @post | result == NO_CONTACT || 0 <= result && result <= maxTime
+	 */
+
+	static double timeOfImpact(double x, double y, int vx, int vy, int radius, int left, int top, int right, int bottom, double maxTime) {
+		double enterX;
+		double exitX;
+		if (vx == 0) {
+			if (x < left - radius || x > right + radius)
+				return NO_CONTACT;
+			enterX = Double.NEGATIVE_INFINITY;
+			exitX = Double.POSITIVE_INFINITY;
+		} else {
+			double t1 = (left - radius - x) / vx;
+			double t2 = (right + radius - x) / vx;
+			enterX = Math.min(t1, t2);
+			exitX = Math.max(t1, t2);
+		}
+		double enterY;
+		double exitY;
+		if (vy == 0) {
+			if (y < top - radius || y > bottom + radius)
+				return NO_CONTACT;
+			enterY = Double.NEGATIVE_INFINITY;
+			exitY = Double.POSITIVE_INFINITY;
+		} else {
+			double t1 = (top - radius - y) / vy;
+			double t2 = (bottom + radius - y) / vy;
+			enterY = Math.min(t1, t2);
+			exitY = Math.max(t1, t2);
+		}
+		double enter = Math.max(enterX, enterY);
+		double exit = Math.min(exitX, exitY);
+		if (enter < 0 || enter > exit || enter > maxTime)
+			return NO_CONTACT;
+		return enter;
+	}
+
+	/**
+	 * Returns the side of the rectangle with the given bounds through which a ball with center {@code (x, y)}, velocity {@code (vx, vy)}
+	 * and radius {@code radius} enters it.
+	 *
+	 * @pre The ball enters the rectangle at some point
+	 * 		| timeOfImpact(x, y, vx, vy, radius, left, top, right, bottom, Double.MAX_VALUE) != NO_CONTACT
+	 *
+	 * @post | 1 <= result && result <= 4
+	 */
+
+	static int contactSide(double x, double y, int vx, int vy, int radius, int left, int top, int right, int bottom) {
+		double enterX = vx == 0 ? Double.NEGATIVE_INFINITY : (vx > 0 ? left - radius - x : right + radius - x) / vx;
+		double enterY = vy == 0 ? Double.NEGATIVE_INFINITY : (vy > 0 ? top - radius - y : bottom + radius - y) / vy;
+		if (enterX > enterY)
+			return vx > 0 ? 2 : 4;
+		return vy > 0 ? 3 : 1;
+	}
+
+	/**
+	 * Returns the time, in milliseconds from now, at which a ball moving along one axis with coordinate {@code position},
+	 * speed {@code speed} and radius {@code radius} touches the line {@code wall}, or {@code NO_CONTACT} if it doesn't do so within {@code maxTime}.
+	 * Only a ball moving towards the line can touch it.
+	 *
+	 * @post | result == NO_CONTACT || 0 <= result && result <= maxTime
+	 */
+
+	static double timeToWall(double position, int speed, int radius, int wall, double maxTime) {
+		double time;
+		if (speed < 0 && position >= wall)
+			time = Math.max(0, (position - radius - wall) / -speed);
+		else if (speed > 0 && position <= wall)
+			time = Math.max(0, (wall - position - radius) / speed);
+		else
+			return NO_CONTACT;
+		return time <= maxTime ? time : NO_CONTACT;
+	}
+}
@@ -60,6 +60,27 @@ public class Vector {
 		return y;
 	}
 
+	/**
+	 * Return this vector's coordinates packed into a single {@code long}, as used by {@code PackedGeometry}.
+	 * 
+	 * @post | PackedGeometry.getX(result) == getX()
+	 * @post | PackedGeometry.getY(result) == getY()
+	 */
+	public long toPacked() {
+		return PackedGeometry.pack(x, y);
+	}
+
+	/**
+	 * Return a new Vector with the coordinates of the packed pair {@code p}.
+	 * 
+	 * @post | result != null
+	 * @post | result.getX() == PackedGeometry.getX(p)
+	 * @post | result.getY() == PackedGeometry.getY(p)
+	 */
+	public static Vector fromPacked(long p) {
+		return new Vector(PackedGeometry.getX(p), PackedGeometry.getY(p));
+	}
+
 	/**
 	 * Return the Coordinate obtained by scaling this coordinate with a given factor. 
 	 * 
@@ -68,7 +89,7 @@ public class Vector {
 	 * @post | result.getY() == getY() * factor
 	 */
 	public Vector scaled(int factor) {
-		return new Vector(x * factor, y * factor);
+		return fromPacked(PackedGeometry.scaled(toPacked(), factor));
 	}
 
 	/**
@@ -80,7 +101,7 @@ public class Vector {
 	 * @post | result.getY() == getY() + other.getY()
 	 */
 	public Vector plus(Vector other) { 
-		return new Vector(x + other.x, y + other.y);
+		return fromPacked(PackedGeometry.plus(toPacked(), other.toPacked()));
 	}
 
 	/**
@@ -92,7 +113,7 @@ public class Vector {
 	 * @post | result.getY() == getY() - other.getY()
 	 */
 	public Vector minus(Vector other) {
-		return new Vector(x - other.x, y - other.y); 
+		return fromPacked(PackedGeometry.minus(toPacked(), other.toPacked()));
 	}
 
 	/**
@@ -110,7 +131,7 @@ public class Vector {
 	 * @post | result == getX() * v.getX() + getY() * v.getY() 
 	 */
 	public int product(Vector v) {
-		return v.x * x + v.y * y;
+		return PackedGeometry.dot(toPacked(), v.toPacked());
 	}
 
 	/**
@@ -131,7 +152,7 @@ public class Vector {
 	 * @post | result.equals(this.minus(m.scaled(2*this.product(m)))) 
 	 */
 	public Vector mirrorOver(Vector m) {
-		return this.minus(m.scaled(2*this.product(m)));
+		return fromPacked(PackedGeometry.mirrorOver(toPacked(), m.toPacked()));
 	}
 
 	/**
@@ -142,6 +163,6 @@ public class Vector {
 	 * @post | result.getY() == getY() / d
 	 */
 	public Vector scaledDiv(int d) {
-		return new Vector(getX()/d,getY()/d);
+		return fromPacked(PackedGeometry.scaledDiv(toPacked(), d));
 	}
 }
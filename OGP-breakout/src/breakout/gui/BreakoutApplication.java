@@ -1,28 +1,61 @@
 package breakout.gui;
 
 import java.awt.EventQueue;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import javax.swing.JFrame;
 
 import breakout.BreakoutState;
 import breakout.GameMap;
+import breakout.replay.ReplayLog;
+import breakout.replay.ReplayRecorder;
 
 public class BreakoutApplication {
 
-	public static final String initMap = """
-##########
-###!######
-##########
-SSS!SSS!#S
-     o
-
-     =
-
-""";
+	public static final String initMap = GameMap.DEFAULT_MAP;
 	
+	/**
+	 * Usage: {@code BreakoutApplication [--record log-file] [--autopilot]}. When recording, the replay log is written when the
+	 * application exits. With {@code --autopilot}, an {@code Autopilot} steers the paddle.
+	 */
 	public static void main(String[] args) {
-		BreakoutState state = GameMap.createStateFromDescription(initMap);
+		String recordFile = null;
+		boolean autopilot = false;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--record") && i + 1 < args.length)
+				recordFile = args[++i];
+			else if (args[i].equals("--autopilot"))
+				autopilot = true;
+			else {
+				System.err.println("usage: BreakoutApplication [--record log-file] [--autopilot]");
+				System.exit(2);
+			}
+		}
+		ReplayRecorder recorder;
+		if (recordFile != null) {
+			recorder = new ReplayRecorder(initMap, ReplayLog.Mode.SUBSTEPPED, ReplayRecorder.DEFAULT_CHECKPOINT_INTERVAL);
+			Path file = Path.of(recordFile);
+			// The hook may run while the event dispatch thread is still recording frames, after Ctrl-C for example; the recorder
+			// synchronizes toLog with frame. Taking the log on the event dispatch thread instead would deadlock when the game ends
+			// with System.exit on that thread.
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					Files.write(file, recorder.toLog().toByteArray());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
+		} else {
+			recorder = null;
+		}
+		BreakoutState state = recorder != null ? recorder.getState() : GameMap.createStateFromDescription(initMap);
+		boolean steered = autopilot;
 		EventQueue.invokeLater(() -> {
-			GameView mazeView = new GameView(state);
+			GameView mazeView = recorder != null ? new GameView(recorder) : new GameView(state);
+			mazeView.setAutopilot(steered);
 			JFrame frame = new JFrame("Breakout");
 			frame.getContentPane().add(mazeView);
 			frame.pack();
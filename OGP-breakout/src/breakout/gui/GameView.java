@@ -11,18 +11,19 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
-import breakout.Ball;
-import breakout.BlockState;
+import breakout.Autopilot;
 import breakout.BreakoutFacade;
 import breakout.BreakoutState;
+import breakout.GameMap;
 import breakout.Point;
 import breakout.PaddleState;
 import breakout.Rect;
 import breakout.Vector;
+import breakout.replay.ReplayRecorder;
 
 @SuppressWarnings("serial")
 public class GameView extends JPanel {
-	public static final int ballMoveDelayMillis = 20;
+	public static final int ballMoveDelayMillis = GameMap.DEFAULT_TICK_TIME;
 
 	public BreakoutState breakoutState;
 	private Timer ballTimer;
@@ -32,6 +33,12 @@ public class GameView extends JPanel {
 	long prevTimestamp = 0;
 	
 	private BreakoutFacade facade;
+	
+	/** Records the frames of the game, if the game is being recorded. */
+	private final ReplayRecorder recorder;
+	
+	/** Steers the paddle instead of the arrow keys, if the autopilot is on. */
+	private Autopilot autopilot;
 
 	private void gameChanged() {
 		repaint(10);
@@ -52,7 +59,21 @@ public class GameView extends JPanel {
 	 * @param breakoutState initial state for the game.
 	 */
 	public GameView(BreakoutState breakoutState) {
+		this(breakoutState, null);
+	}
+
+	/**
+	 * Create a new GameView for playing and recording the game of the given recorder.
+	 * 
+	 * @param recorder recorder whose game is played.
+	 */
+	public GameView(ReplayRecorder recorder) {
+		this(recorder.getState(), recorder);
+	}
+
+	private GameView(BreakoutState breakoutState, ReplayRecorder recorder) {
 		this.breakoutState = breakoutState;
+		this.recorder = recorder;
 		this.facade = new BreakoutFacade();
 
 		setBackground(Color.black);
@@ -89,22 +110,34 @@ public class GameView extends JPanel {
 		startMovingBalls();
 	}
 
+	/**
+	 * Turns the autopilot on or off. While it is on, it steers the paddle and the arrow keys are ignored.
+	 * 
+	 * @param on whether the autopilot steers the paddle.
+	 */
+	public void setAutopilot(boolean on) {
+		autopilot = on ? new Autopilot() : null;
+	}
+
 	private void moveBalls(long timestamp) {
 		if (prevTimestamp != 0) {
 			int elapsedTime = (int) (timestamp - prevTimestamp);
-			// very high elapsed times (for example during debugging) are annoying.
-			elapsedTime = Math.min(elapsedTime, BreakoutState.MAX_ELAPSED_TIME);
 
 			int curPaddleDir = 0;
 			if (leftKeyDown && !rightKeyDown) {
-				breakoutState.movePaddleLeft(elapsedTime);
 				curPaddleDir = -1;
 			}
 			if (!leftKeyDown && rightKeyDown) {
-				breakoutState.movePaddleRight(elapsedTime);
 				curPaddleDir = 1;
 			}
-			breakoutState.tick(curPaddleDir, elapsedTime);
+			if (autopilot != null && elapsedTime > 0) {
+				curPaddleDir = autopilot.paddleDirection(breakoutState, elapsedTime);
+			}
+			// substepping catches up on long frames (for example after a GC pause) without losing game time.
+			if (recorder != null)
+				recorder.frame(curPaddleDir, elapsedTime);
+			else
+				breakoutState.tickSubstepped(curPaddleDir, elapsedTime);
 			if (breakoutState.isDead()) {
 				JOptionPane.showMessageDialog(this, "Game over :-(");
 				System.exit(0);
@@ -134,6 +167,11 @@ public class GameView extends JPanel {
 		return new Point(loc.getX() / 50, loc.getY() / 50).plus(new Vector(5, 5));
 	}
 
+	// Same as above, for a single coordinate, so painting the balls and blocks doesn't create points.
+	private int toGUICoord(int coordinate) {
+		return coordinate / 50 + 5;
+	}
+
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
@@ -169,39 +207,31 @@ public class GameView extends JPanel {
 
 	private void paintBalls(Graphics g) {
 		// ball
-		for (Ball ball : facade.getBalls(breakoutState)) {
-			Point center = facade.getCenter(ball);
-			int diam = facade.getDiameter(ball);
+		facade.forEachBall(breakoutState, (centerX, centerY, diam, color) -> {
 			int radius = diam/2;
-			Point tl = center.plus(new Vector(-radius,-radius));
-			Point br = center.plus(new Vector(radius,radius));
-			Color color = facade.getColor(ball);
-			paintBall(g, color, tl, br);
-		}
+			paintBall(g, color, centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+		});
 	}
 
-	private void paintBall(Graphics g, Color color, Point tlg, Point brg) {
+	private void paintBall(Graphics g, Color color, int left, int top, int right, int bottom) {
 		g.setColor(color);
-		Point tl = toGUICoord(tlg);
-		Point br = toGUICoord(brg);
-		g.fillOval(tl.getX(), tl.getY(), br.getX() - tl.getX(), br.getY() - tl.getY());
+		int tlx = toGUICoord(left);
+		int tly = toGUICoord(top);
+		g.fillOval(tlx, tly, toGUICoord(right) - tlx, toGUICoord(bottom) - tly);
 	}
 
 	private void paintBlock(Graphics g, Point tlg, Point brg) {
-		Point tl = toGUICoord(tlg);
-		Point br = toGUICoord(brg);
-		g.fillRect(tl.getX(), tl.getY(), br.getX() - tl.getX(), br.getY() - tl.getY());
+		int tlx = toGUICoord(tlg.getX());
+		int tly = toGUICoord(tlg.getY());
+		g.fillRect(tlx, tly, toGUICoord(brg.getX()) - tlx, toGUICoord(brg.getY()) - tly);
 	}
 
 	private void paintBlocks(Graphics g) {
 		// blocks
-		for (BlockState block : breakoutState.getBlocks()) {
-			g.setColor(facade.getColor(block));
-			Rect loc = facade.getLocation(block);
-			Point tl = loc.getTopLeft();
-			Point br = loc.getBottomRight();
+		facade.forEachBlock(breakoutState, (tl, br, color) -> {
+			g.setColor(color);
 			paintBlock(g, tl, br);
-		}
+		});
 	}
 
 }
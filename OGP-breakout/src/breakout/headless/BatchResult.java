@@ -0,0 +1,112 @@
+package breakout.headless;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The outcome of a batch of games: the result of every game, in the order of the scenarios, and totals over all of them.
+ * 
+ * @immutable
+ * 
+ * @invar | getResults() != null
+ * @invar | getWon() + getDead() <= getGames()
+ * @invar | getWallNanos() >= 0
+ */
+
+public final class BatchResult {
+	
+	/**
+	 * @invar | results != null
+	 * @representationObject
+	 */
+	
+	private final List<SimulationResult> results;
+	private final long wallNanos;
+	private final int won;
+	private final int dead;
+	private final long ticks;
+	
+	/**
+	 * Initializes this object with the given results and the wall-clock time the whole batch took.
+	 * 
+	 * @pre | results != null && results.stream().allMatch(r -> r != null)
+	 * @pre | wallNanos >= 0
+	 * 
+	 * @post | getResults().equals(results)
+	 * @post | getWallNanos() == wallNanos
+	 */
+	
+	public BatchResult(List<SimulationResult> results, long wallNanos) {
+		this.results = List.copyOf(results);
+		this.wallNanos = wallNanos;
+		int won = 0;
+		int dead = 0;
+		long ticks = 0;
+		for (SimulationResult result : results) {
+			if (result.isWon())
+				won++;
+			if (result.isDead())
+				dead++;
+			ticks += result.getTicks();
+		}
+		this.won = won;
+		this.dead = dead;
+		this.ticks = ticks;
+	}
+	
+	/**
+	 * Returns the results of the games, in the order of the scenarios.
+	 * 
+	 * @post | result != null
+	 */
+	
+	public List<SimulationResult> getResults() {
+		return results;
+	}
+	
+	/** Returns the amount of games in the batch. */
+	public int getGames() {
+		return results.size();
+	}
+	
+	/** Returns the amount of games that were won. */
+	public int getWon() {
+		return won;
+	}
+	
+	/** Returns the amount of games that were lost. */
+	public int getDead() {
+		return dead;
+	}
+	
+	/** Returns the total amount of ticks simulated over all games. */
+	public long getTicks() {
+		return ticks;
+	}
+	
+	/** Returns the wall-clock time, in nanoseconds, the whole batch took. */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+	
+	/**
+	 * Returns the amount of ticks simulated per second of wall-clock time over the whole batch, or 0 if no time was measured.
+	 * 
+	 * @post | result >= 0
+	 */
+	
+	public double getTicksPerSecond() {
+		return wallNanos == 0 ? 0 : ticks * 1e9 / wallNanos;
+	}
+	
+	/**
+	 * Returns a one-line report of this batch.
+	 */
+	
+	@Override
+	
+	public String toString() {
+		return String.format(Locale.ROOT, "%d games (%d won, %d dead, %d unfinished), %d ticks in %.3f s, %.0f ticks/s",
+				getGames(), won, dead, getGames() - won - dead, ticks, wallNanos / 1e9, getTicksPerSecond());
+	}
+}
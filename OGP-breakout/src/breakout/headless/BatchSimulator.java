@@ -0,0 +1,263 @@
+package breakout.headless;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+import breakout.BreakoutSnapshot;
+import breakout.BreakoutState;
+import breakout.GameMap;
+
+/**
+ * Runs batches of independent games in parallel on a work-stealing pool.
+ * 
+ * Games on different workers share no mutable state and need no synchronization. The batch is split in halves recursively, down to
+ * single games, so idle workers steal the remaining halves of busy ones and long games don't hold up short ones.
+ * 
+ * A simulator keeps its pool of workers from run to run, and reuses games and their memory as much as it can. It parses a map
+ * description into a template state that is never played, and keeps the templates of the {@code MAX_TEMPLATES} maps it played
+ * last. Every worker forks the template of a map the first time it plays that map, and from then on plays every game on that map
+ * in the same state, restoring it to the template's snapshot first; it keeps the games of the {@code MAX_GAMES_PER_WORKER} maps it
+ * played last. Only the first game of a map on a worker therefore allocates a game, and the validating {@code BreakoutState}
+ * constructor and the block index only run once per map, as long as the batch doesn't cycle through more maps than that. A batch
+ * that plays every map once gains nothing from the reuse, but holds on to at most {@code 2 * MAX_TEMPLATES} states for the templates
+ * and {@code MAX_GAMES_PER_WORKER} states per worker. Idle workers end after a while, like in any {@code ForkJoinPool}, and take
+ * their games with them; {@code close} ends them all.
+ * 
+ * @invar | getParallelism() >= 1
+ */
+
+public class BatchSimulator implements AutoCloseable {
+	
+	/** How many templates a simulator keeps. */
+	static final int MAX_TEMPLATES = 64;
+	
+	/** How many games every worker keeps. */
+	static final int MAX_GAMES_PER_WORKER = 4;
+	
+	/**
+	 * @invar | parallelism >= 1
+	 */
+	
+	private final int parallelism;
+	private final ForkJoinPool pool;
+	
+	/**
+	 * The parsed maps, by description; only used while holding its lock. A template is only read after it is created, by forking it,
+	 * so workers can share it.
+	 */
+	
+	private final Map<String, Template> templates = new LeastRecentlyUsed<>(MAX_TEMPLATES);
+	
+	/**
+	 * The game every worker plays each map in, by template. A game can only be restored to the snapshot of the template it was forked
+	 * from, so a template that was dropped and parsed again gets new games.
+	 */
+	
+	private final ThreadLocal<Map<Template, BreakoutState>> games = ThreadLocal.withInitial(() -> new LeastRecentlyUsed<>(MAX_GAMES_PER_WORKER));
+	
+	/**
+	 * A map that drops the entry that was used longest ago once it holds more than {@code capacity} entries.
+	 */
+	
+	private static final class LeastRecentlyUsed<K, V> extends LinkedHashMap<K, V> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int capacity;
+		
+		LeastRecentlyUsed(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > capacity;
+		}
+	}
+	
+	private static final class Template {
+		
+		private final BreakoutState state;
+		private final BreakoutSnapshot start;
+		
+		Template(String map) {
+			state = GameMap.createStateFromDescription(map);
+			start = state.snapshot();
+		}
+	}
+	
+	/**
+	 * Initializes this simulator so that it runs games on {@code parallelism} threads.
+	 * 
+	 * @throws IllegalArgumentException if {@code parallelism} is less than 1
+	 * 		| parallelism < 1
+	 * 
+	 * @post | getParallelism() == parallelism
+	 */
+	
+	public BatchSimulator(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism should be at least 1");
+		this.parallelism = parallelism;
+		this.pool = new ForkJoinPool(parallelism);
+	}
+	
+	/**
+	 * Initializes this simulator so that it runs games on as many threads as there are processors.
+	 * 
+	 * @post | getParallelism() == Runtime.getRuntime().availableProcessors()
+	 */
+	
+	public BatchSimulator() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/** Returns the amount of threads this simulator runs games on. */
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * Runs every scenario of {@code scenarios} until its game is won or lost, or its tick limit is reached, and returns the results.
+	 * 
+	 * @throws IllegalArgumentException if {@code scenarios} is {@code null} or contains {@code null}
+	 * @throws IllegalStateException if this simulator has been closed
+	 * 
+	 * @post | result.getGames() == old(scenarios.count())
+	 */
+	
+	public BatchResult run(Stream<Scenario> scenarios) {
+		if (scenarios == null)
+			throw new IllegalArgumentException("scenarios can't be null");
+		Scenario[] batch = scenarios.toArray(Scenario[]::new);
+		if (Arrays.stream(batch).anyMatch(s -> s == null))
+			throw new IllegalArgumentException("scenarios can't contain null");
+		if (pool.isShutdown())
+			throw new IllegalStateException("this simulator has been closed");
+		SimulationResult[] results = new SimulationResult[batch.length];
+		
+		long start = System.nanoTime();
+		pool.invoke(new Shard(batch, results, 0, batch.length));
+		return new BatchResult(Arrays.asList(results), System.nanoTime() - start);
+	}
+	
+	/**
+	 * Ends the workers of this simulator once the batches that are running have finished, and with them the games they keep.
+	 * Closing a simulator that has been closed already has no effect.
+	 */
+	
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+	
+	private class Shard extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Scenario[] batch;
+		private final SimulationResult[] results;
+		private final int from;
+		private final int to;
+		
+		Shard(Scenario[] batch, SimulationResult[] results, int from, int to) {
+			this.batch = batch;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				if (to > from)
+					results[from] = simulate(batch[from]);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Shard(batch, results, from, middle), new Shard(batch, results, middle, to));
+		}
+	}
+	
+	private Template template(String map) {
+		synchronized (templates) {
+			Template template = templates.get(map);
+			if (template != null)
+				return template;
+		}
+		// Parsing takes long, so it doesn't hold up the other workers. If two workers parse the same map, the first template wins.
+		Template template = new Template(map);
+		synchronized (templates) {
+			Template existing = templates.putIfAbsent(map, template);
+			return existing != null ? existing : template;
+		}
+	}
+	
+	private SimulationResult simulate(Scenario scenario) {
+		Template template = template(scenario.getMap());
+		Map<Template, BreakoutState> played = games.get();
+		BreakoutState state = played.get(template);
+		if (state == null) {
+			state = template.state.fork();
+			played.put(template, state);
+		} else {
+			// A policy of the previous game may still listen to it, like the autopilot does.
+			state.removeAllListeners();
+			state.restore(template.start);
+		}
+		return new HeadlessRunner(scenario.getPolicyFactory().get(), scenario.getTickTime(), scenario.getMaxTicks()).run(state);
+	}
+	
+	/**
+	 * Runs a batch of games and prints a report, first on one thread and then on all threads, to show how the throughput scales.
+	 * 
+	 * Usage: {@code BatchSimulator [--games N] [--threads N] [--tick-ms N] [--max-ticks N] [map-file...]}.
+	 * Game {@code i} plays map {@code i} modulo the amount of maps with the policy {@code random:i}.
+	 * Without map files, {@code GameMap.DEFAULT_MAP} is used.
+	 */
+	
+	public static void main(String[] args) {
+		int games = 1000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int tickTime = GameMap.DEFAULT_TICK_TIME;
+		long maxTicks = HeadlessRunner.DEFAULT_MAX_TICKS;
+		List<String> maps = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--games" -> games = Integer.parseInt(HeadlessRunner.argument(args, ++i));
+				case "--threads" -> threads = Integer.parseInt(HeadlessRunner.argument(args, ++i));
+				case "--tick-ms" -> tickTime = Integer.parseInt(HeadlessRunner.argument(args, ++i));
+				case "--max-ticks" -> maxTicks = Long.parseLong(HeadlessRunner.argument(args, ++i));
+				default -> maps.addAll(HeadlessRunner.splitMaps(Files.readString(HeadlessRunner.file(args[i]))));
+				}
+			}
+			if (maps.isEmpty())
+				maps.add(GameMap.DEFAULT_MAP);
+			
+			List<Scenario> scenarios = new ArrayList<>();
+			for (int i = 0; i < games; i++)
+				scenarios.add(Scenario.of(maps.get(i % maps.size()), "random:" + i, tickTime, maxTicks));
+			// One unreported run first, so both measurements run compiled code.
+			try (BatchSimulator simulator = new BatchSimulator(threads); BatchSimulator single = new BatchSimulator(1)) {
+				simulator.run(scenarios.stream());
+				BatchResult sequential = single.run(scenarios.stream());
+				System.out.println("1 thread: " + sequential);
+				BatchResult parallel = simulator.run(scenarios.stream());
+				System.out.println(threads + " threads: " + parallel);
+				System.out.printf("speedup: %.2f%n", (double)sequential.getWallNanos() / parallel.getWallNanos());
+			}
+		} catch (IllegalArgumentException | IOException e) {
+			HeadlessRunner.exitWithUsage(e, "BatchSimulator [--games N] [--threads N] [--tick-ms N] [--max-ticks N] [map-file...]");
+		}
+	}
+}
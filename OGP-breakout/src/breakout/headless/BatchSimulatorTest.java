@@ -0,0 +1,98 @@
+package breakout.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.GameMap;
+
+class BatchSimulatorTest {
+
+	@Test
+	void testMatchesSequentialRuns() {
+		List<Scenario> scenarios = new ArrayList<>();
+		for (int i = 0; i < 40; i++)
+			scenarios.add(Scenario.of(HeadlessRunnerTest.map, "random:" + i, 10 + i % 3 * 5, 2000));
+		scenarios.add(new Scenario("still", HeadlessRunnerTest.map, PaddlePolicy::still, 20, 50));
+
+		BatchResult batch;
+		try (BatchSimulator simulator = new BatchSimulator(4)) {
+			batch = simulator.run(scenarios.stream());
+		}
+		assertEquals(scenarios.size(), batch.getGames());
+		long ticks = 0;
+		for (int i = 0; i < scenarios.size(); i++) {
+			Scenario scenario = scenarios.get(i);
+			SimulationResult expected = new HeadlessRunner(scenario.getPolicyFactory().get(), scenario.getTickTime(), scenario.getMaxTicks())
+					.run(GameMap.createStateFromDescription(scenario.getMap()));
+			SimulationResult actual = batch.getResults().get(i);
+			assertEquals(expected.getTicks(), actual.getTicks());
+			assertEquals(expected.getStateHash(), actual.getStateHash());
+			ticks += actual.getTicks();
+		}
+		assertEquals(ticks, batch.getTicks());
+		assertEquals(batch.getGames(), batch.getWon() + batch.getDead() + (int)batch.getResults().stream().filter(r -> !r.isWon() && !r.isDead()).count());
+	}
+
+	@Test
+	void testReusesGamesAcrossRuns() {
+		List<Scenario> scenarios = new ArrayList<>();
+		for (int i = 0; i < 12; i++)
+			scenarios.add(Scenario.of(HeadlessRunnerTest.map, i % 2 == 0 ? "autopilot" : "random:" + i, 20, 3000));
+		BatchResult first;
+		BatchResult second;
+		try (BatchSimulator simulator = new BatchSimulator(2)) {
+			first = simulator.run(scenarios.stream());
+			second = simulator.run(scenarios.stream());
+		}
+		for (int i = 0; i < scenarios.size(); i++) {
+			assertEquals(first.getResults().get(i).getTicks(), second.getResults().get(i).getTicks());
+			assertEquals(first.getResults().get(i).getStateHash(), second.getResults().get(i).getStateHash());
+		}
+	}
+
+	@Test
+	void testMoreMapsThanTheSimulatorKeeps() {
+		List<Scenario> scenarios = new ArrayList<>();
+		for (int i = 0; i < BatchSimulator.MAX_TEMPLATES + 10; i++) {
+			StringBuilder top = new StringBuilder("##########");
+			StringBuilder bottom = new StringBuilder("##########");
+			top.setCharAt(i / 10, ' ');
+			bottom.setCharAt(i % 10, ' ');
+			scenarios.add(Scenario.of(top + "\n" + bottom + "\n     o\n\n     =\n\n", "random:" + i, 20, 500));
+		}
+		BatchResult first;
+		BatchResult second;
+		try (BatchSimulator simulator = new BatchSimulator(2)) {
+			first = simulator.run(scenarios.stream());
+			second = simulator.run(scenarios.stream());
+		}
+		for (int i = 0; i < scenarios.size(); i++) {
+			Scenario scenario = scenarios.get(i);
+			SimulationResult expected = new HeadlessRunner(scenario.getPolicyFactory().get(), scenario.getTickTime(), scenario.getMaxTicks())
+					.run(GameMap.createStateFromDescription(scenario.getMap()));
+			assertEquals(expected.getStateHash(), first.getResults().get(i).getStateHash());
+			assertEquals(expected.getStateHash(), second.getResults().get(i).getStateHash());
+		}
+	}
+
+	@Test
+	void testEmptyAndIllegalBatches() {
+		assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(0));
+		BatchSimulator closed;
+		try (BatchSimulator simulator = new BatchSimulator(2)) {
+			assertEquals(0, simulator.run(Stream.empty()).getGames());
+			assertThrows(IllegalArgumentException.class, () -> simulator.run(null));
+			assertThrows(IllegalArgumentException.class, () -> simulator.run(Stream.of((Scenario)null)));
+			closed = simulator;
+		}
+		assertThrows(IllegalStateException.class, () -> closed.run(Stream.empty()));
+		closed.close();
+		assertThrows(IllegalArgumentException.class, () -> Scenario.of(HeadlessRunnerTest.map, "nope", 20, 10));
+	}
+
+}
@@ -0,0 +1,229 @@
+package breakout.headless;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import breakout.BinaryStateFormat;
+import breakout.BreakoutState;
+import breakout.GameMap;
+
+/**
+ * Runs breakout games without a GUI, as fast as possible.
+ * 
+ * Every tick asks the paddle policy for a direction, moves the paddle in that direction and calls {@code BreakoutState.tick} with
+ * {@code getTickTime()} milliseconds, exactly like a {@code GameSession} tick and like a replay log in mode {@code ReplayLog.Mode.TICK}.
+ * This is not what {@code GameView} does: it advances the game with {@code BreakoutState.tickSubstepped}, so a game played here can
+ * end differently than the same game played in the GUI. A game is simulated until it is won or lost, or until {@code getMaxTicks()}
+ * ticks have passed.
+ * 
+ * @invar | getPolicy() != null
+ * @invar | getTickTime() > 0
+ * @invar | getMaxTicks() >= 0
+ */
+
+public class HeadlessRunner {
+	
+	/**
+	 * The line that separates the maps in a file with more than one map.
+	 */
+	
+	public static final String MAP_SEPARATOR = "---";
+	
+	public static final long DEFAULT_MAX_TICKS = 10_000_000;
+	
+	/**
+	 * @invar | policy != null
+	 * @invar | tickTime > 0
+	 * @invar | maxTicks >= 0
+	 */
+	
+	private final PaddlePolicy policy;
+	private final int tickTime;
+	private final long maxTicks;
+	
+	/**
+	 * Initializes this runner so that it uses the given paddle policy, tick length and tick limit.
+	 * 
+	 * @throws IllegalArgumentException if {@code policy} is {@code null}
+	 * 		| policy == null
+	 * @throws IllegalArgumentException if {@code tickTime} is not greater than 0
+	 * 		| tickTime <= 0
+	 * @throws IllegalArgumentException if {@code maxTicks} is less than 0
+	 * 		| maxTicks < 0
+	 * 
+	 * @post | getPolicy() == policy
+	 * @post | getTickTime() == tickTime
+	 * @post | getMaxTicks() == maxTicks
+	 */
+	
+	public HeadlessRunner(PaddlePolicy policy, int tickTime, long maxTicks) {
+		if (policy == null)
+			throw new IllegalArgumentException("policy can't be null");
+		if (tickTime <= 0)
+			throw new IllegalArgumentException("tickTime should be greater than 0");
+		if (maxTicks < 0)
+			throw new IllegalArgumentException("maxTicks can't be negative");
+		this.policy = policy;
+		this.tickTime = tickTime;
+		this.maxTicks = maxTicks;
+	}
+	
+	/** Returns the policy that steers the paddle. */
+	public PaddlePolicy getPolicy() {
+		return policy;
+	}
+	
+	/** Returns the amount of milliseconds every tick simulates. */
+	public int getTickTime() {
+		return tickTime;
+	}
+	
+	/** Returns the maximum amount of ticks a game is simulated for. */
+	public long getMaxTicks() {
+		return maxTicks;
+	}
+	
+	/**
+	 * Simulates {@code state} until the game is won or lost, or until {@code getMaxTicks()} ticks have passed, and returns the outcome.
+	 * 
+	 * @throws IllegalArgumentException if {@code state} is {@code null}
+	 * 		| state == null
+	 * 
+	 * @mutates | state
+	 * 
+	 * @post | result.getTicks() <= getMaxTicks()
+	 * @post | result.isWon() == state.isWon() && result.isDead() == state.isDead()
+	 * @post | result.getStateHash() == state.getStateHash()
+	 */
+	
+	public SimulationResult run(BreakoutState state) {
+		if (state == null)
+			throw new IllegalArgumentException("state can't be null");
+		long start = System.nanoTime();
+		long ticks = 0;
+		while (ticks < maxTicks && !state.isWon() && !state.isDead()) {
+			int paddleDir = policy.paddleDirection(state, tickTime);
+			if (paddleDir == -1)
+				state.movePaddleLeft(tickTime);
+			if (paddleDir == 1)
+				state.movePaddleRight(tickTime);
+			state.tick(paddleDir, tickTime);
+			ticks++;
+		}
+		long wallNanos = System.nanoTime() - start;
+		return new SimulationResult(ticks, ticks * tickTime, wallNanos, state.isWon(), state.isDead(),
+				state.getBallCount(), state.getBlockCount(), state.getStateHash());
+	}
+	
+	/**
+	 * Returns the map descriptions in {@code text}, which holds one or more {@code GameMap} descriptions separated by lines
+	 * that consist of {@code MAP_SEPARATOR}. Carriage returns are ignored.
+	 * 
+	 * @throws IllegalArgumentException if {@code text} is {@code null}
+	 * 		| text == null
+	 * 
+	 * @post | result != null && !result.isEmpty()
+	 */
+	
+	public static List<String> splitMaps(String text) {
+		if (text == null)
+			throw new IllegalArgumentException("text can't be null");
+		List<String> maps = new ArrayList<>();
+		StringBuilder map = new StringBuilder();
+		for (String line : text.replace("\r", "").split("\n", -1)) {
+			if (line.equals(MAP_SEPARATOR)) {
+				maps.add(map.toString());
+				map.setLength(0);
+			} else {
+				map.append(line).append('\n');
+			}
+		}
+		maps.add(map.toString());
+		return maps;
+	}
+	
+	/**
+	 * The extension of files that hold a state in {@code BinaryStateFormat} rather than map descriptions.
+	 */
+	
+	public static final String STATE_FILE_EXTENSION = ".brst";
+	
+	/**
+	 * Runs every map of the given files, or {@code GameMap.DEFAULT_MAP} if no file is given, and prints a report per map.
+	 * Files with extension {@code STATE_FILE_EXTENSION} hold a single saved state, which is run from where it was saved.
+	 * 
+	 * Usage: {@code HeadlessRunner [--policy still|follow|autopilot|random[:seed]] [--tick-ms N] [--max-ticks N] [map-or-state-file...]}.
+	 * The defaults are the {@code follow} policy, ticks of {@code GameMap.DEFAULT_TICK_TIME} milliseconds and
+	 * {@code DEFAULT_MAX_TICKS} ticks.
+	 */
+	
+	public static void main(String[] args) {
+		String policyName = "follow";
+		int tickTime = GameMap.DEFAULT_TICK_TIME;
+		long maxTicks = DEFAULT_MAX_TICKS;
+		List<Supplier<BreakoutState>> games = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--policy" -> policyName = argument(args, ++i);
+				case "--tick-ms" -> tickTime = Integer.parseInt(argument(args, ++i));
+				case "--max-ticks" -> maxTicks = Long.parseLong(argument(args, ++i));
+				default -> {
+					if (args[i].endsWith(STATE_FILE_EXTENSION)) {
+						BreakoutState state = BinaryStateFormat.read(file(args[i]));
+						games.add(() -> state);
+					} else {
+						for (String map : splitMaps(Files.readString(file(args[i]))))
+							games.add(() -> GameMap.createStateFromDescription(map));
+					}
+				}
+				}
+			}
+			if (games.isEmpty())
+				games.add(() -> GameMap.createStateFromDescription(GameMap.DEFAULT_MAP));
+			
+			for (int i = 0; i < games.size(); i++) {
+				// Policies may keep state, so every map gets a fresh one.
+				HeadlessRunner runner = new HeadlessRunner(PaddlePolicy.named(policyName), tickTime, maxTicks);
+				SimulationResult result = runner.run(games.get(i).get());
+				System.out.println("map " + (i + 1) + ": " + result);
+			}
+		} catch (IllegalArgumentException | IOException e) {
+			exitWithUsage(e, "HeadlessRunner [--policy still|follow|autopilot|random[:seed]] [--tick-ms N] [--max-ticks N] [map-or-state-file...]");
+		}
+	}
+	
+	static String argument(String[] args, int i) {
+		if (i >= args.length)
+			throw new IllegalArgumentException("missing value for " + args[i - 1]);
+		return args[i];
+	}
+	
+	/**
+	 * Returns the path a file argument names, and rejects the options the program doesn't know, so that a mistyped option isn't
+	 * taken for a file.
+	 * 
+	 * @throws IllegalArgumentException if {@code argument} starts with {@code --}
+	 */
+	
+	static Path file(String argument) {
+		if (argument.startsWith("--"))
+			throw new IllegalArgumentException("unknown option " + argument);
+		return Path.of(argument);
+	}
+	
+	/**
+	 * Prints what went wrong with the arguments or the files they name, and how to use the program, and exits with status 2.
+	 */
+	
+	static void exitWithUsage(Exception e, String usage) {
+		// The message of an IOException is often just the file name, so its type is printed as well.
+		System.err.println(e instanceof IOException ? e.toString() : e.getMessage());
+		System.err.println("usage: " + usage);
+		System.exit(2);
+	}
+}
@@ -0,0 +1,74 @@
+package breakout.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.BreakoutState;
+import breakout.GameMap;
+
+class HeadlessRunnerTest {
+
+	static final String map = """
+##########
+##########
+     o
+
+     =
+
+""";
+
+	@Test
+	void testSplitMaps() {
+		List<String> maps = HeadlessRunner.splitMaps("#\r\n o\r\n---\n##\n=\n");
+		assertEquals(List.of("#\n o\n", "##\n=\n\n"), maps);
+		assertEquals(1, HeadlessRunner.splitMaps(map).size());
+	}
+
+	@Test
+	void testFileArguments() {
+		assertEquals(Path.of("maps/level1.txt"), HeadlessRunner.file("maps/level1.txt"));
+		assertThrows(IllegalArgumentException.class, () -> HeadlessRunner.file("--tick"));
+	}
+
+	@Test
+	void testRun() {
+		BreakoutState state = GameMap.createStateFromDescription(map);
+		SimulationResult result = new HeadlessRunner(PaddlePolicy.follow(), 20, 1_000_000).run(state);
+		assertTrue(result.isWon() || result.isDead());
+		assertEquals(state.isWon(), result.isWon());
+		assertEquals(state.getStateHash(), result.getStateHash());
+		assertEquals(result.getTicks() * 20, result.getGameTime());
+
+		SimulationResult limited = new HeadlessRunner(PaddlePolicy.still(), 20, 10).run(GameMap.createStateFromDescription(map));
+		assertEquals(10, limited.getTicks());
+		assertFalse(limited.isWon() || limited.isDead());
+	}
+
+	@Test
+	void testAutopilot() {
+		BreakoutState state = GameMap.createStateFromDescription(map);
+		SimulationResult result = new HeadlessRunner(PaddlePolicy.named("autopilot"), 20, 1_000_000).run(state);
+		assertTrue(result.isWon());
+	}
+
+	@Test
+	void testDeterministic() {
+		SimulationResult first = new HeadlessRunner(PaddlePolicy.named("random:7"), 10, 5000).run(GameMap.createStateFromDescription(map));
+		SimulationResult second = new HeadlessRunner(PaddlePolicy.named("random:7"), 10, 5000).run(GameMap.createStateFromDescription(map));
+		assertEquals(first.getTicks(), second.getTicks());
+		assertEquals(first.getStateHash(), second.getStateHash());
+	}
+
+	@Test
+	void testIllegalArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(null, 20, 10));
+		assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(PaddlePolicy.still(), 0, 10));
+		assertThrows(IllegalArgumentException.class, () -> PaddlePolicy.named("random:x"));
+		assertThrows(IllegalArgumentException.class, () -> PaddlePolicy.named("left"));
+	}
+
+}
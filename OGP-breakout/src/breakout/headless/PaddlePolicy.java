@@ -0,0 +1,102 @@
+package breakout.headless;
+
+import java.util.Random;
+
+import breakout.Autopilot;
+import breakout.BreakoutState;
+
+/**
+ * Decides in which direction the paddle moves during the next tick of a headless simulation.
+ */
+
+@FunctionalInterface
+public interface PaddlePolicy {
+	
+	/**
+	 * Returns the direction the paddle should move in during the next tick of {@code elapsedTime} milliseconds:
+	 * -1 for left, 1 for right and 0 to stand still.
+	 * 
+	 * @pre | state != null
+	 * @pre | elapsedTime > 0
+	 * 
+	 * @inspects | state
+	 * 
+	 * @post | result == -1 || result == 0 || result == 1
+	 */
+	
+	int paddleDirection(BreakoutState state, int elapsedTime);
+	
+	/**
+	 * Returns a policy that never moves the paddle.
+	 */
+	
+	static PaddlePolicy still() {
+		return (state, elapsedTime) -> 0;
+	}
+	
+	/**
+	 * Returns a policy that moves the paddle towards the lowest ball that is moving down, and stands still when that ball is closer
+	 * than a tick's worth of paddle movement or when no ball is moving down.
+	 */
+	
+	static PaddlePolicy follow() {
+		return (state, elapsedTime) -> {
+			int lowest = -1;
+			for (int i = 0; i < state.getBallCount(); i++) {
+				if (state.getBallVelocityY(i) > 0 && (lowest == -1 || state.getBallCenterY(i) > state.getBallCenterY(lowest)))
+					lowest = i;
+			}
+			if (lowest == -1)
+				return 0;
+			int dx = state.getBallCenterX(lowest) - state.getPaddleCenterX();
+			return Math.abs(dx) < 10 * elapsedTime ? 0 : Integer.signum(dx);
+		};
+	}
+	
+	/**
+	 * Returns a policy that steers the paddle with an {@code Autopilot}, which intercepts the ball that will cross the paddle's
+	 * top line first. The policy is stateful, so every simulation should use a policy of its own.
+	 */
+	
+	static PaddlePolicy autopilot() {
+		return new Autopilot()::paddleDirection;
+	}
+	
+	/**
+	 * Returns a policy that picks a random direction every tick, using a random number generator seeded with {@code seed}.
+	 * The policy is stateful, so every simulation should use a policy of its own.
+	 */
+	
+	static PaddlePolicy random(long seed) {
+		Random random = new Random(seed);
+		return (state, elapsedTime) -> random.nextInt(3) - 1;
+	}
+	
+	/**
+	 * Returns the policy with the given name: {@code still}, {@code follow}, {@code autopilot} or {@code random}, optionally followed by a colon and a seed,
+	 * like {@code random:42}.
+	 * 
+	 * @throws IllegalArgumentException if {@code name} is {@code null} or not the name of a policy
+	 */
+	
+	static PaddlePolicy named(String name) {
+		if (name == null)
+			throw new IllegalArgumentException("policy name can't be null");
+		if (name.equals("still"))
+			return still();
+		if (name.equals("follow"))
+			return follow();
+		if (name.equals("autopilot"))
+			return autopilot();
+		if (name.equals("random"))
+			return random(0);
+		if (name.startsWith("random:")) {
+			try {
+				return random(Long.parseLong(name.substring("random:".length())));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid seed in policy " + name, e);
+			}
+		}
+		throw new IllegalArgumentException("unknown paddle policy " + name);
+	}
+}
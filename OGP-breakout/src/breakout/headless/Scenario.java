@@ -0,0 +1,89 @@
+package breakout.headless;
+
+import java.util.function.Supplier;
+
+/**
+ * One game of a batch: the map to start from, the paddle policy to play it with and how to tick it.
+ * 
+ * @immutable
+ * 
+ * @invar | getName() != null
+ * @invar | getMap() != null
+ * @invar | getPolicyFactory() != null
+ * @invar | getTickTime() > 0
+ * @invar | getMaxTicks() >= 0
+ */
+
+public final class Scenario {
+	
+	private final String name;
+	private final String map;
+	private final Supplier<PaddlePolicy> policyFactory;
+	private final int tickTime;
+	private final long maxTicks;
+	
+	/**
+	 * Initializes this scenario.
+	 * A policy may keep state, so {@code policyFactory} should return a new policy every time it is called.
+	 * 
+	 * @throws IllegalArgumentException if {@code name}, {@code map} or {@code policyFactory} is {@code null}
+	 * 		| name == null || map == null || policyFactory == null
+	 * @throws IllegalArgumentException if {@code tickTime} is not greater than 0 or {@code maxTicks} is less than 0
+	 * 		| tickTime <= 0 || maxTicks < 0
+	 * 
+	 * @post | getName() == name
+	 * @post | getMap() == map
+	 * @post | getPolicyFactory() == policyFactory
+	 * @post | getTickTime() == tickTime
+	 * @post | getMaxTicks() == maxTicks
+	 */
+	
+	public Scenario(String name, String map, Supplier<PaddlePolicy> policyFactory, int tickTime, long maxTicks) {
+		if (name == null || map == null || policyFactory == null)
+			throw new IllegalArgumentException("name, map and policyFactory can't be null");
+		if (tickTime <= 0 || maxTicks < 0)
+			throw new IllegalArgumentException("tickTime should be greater than 0 and maxTicks can't be negative");
+		this.name = name;
+		this.map = map;
+		this.policyFactory = policyFactory;
+		this.tickTime = tickTime;
+		this.maxTicks = maxTicks;
+	}
+	
+	/**
+	 * Returns a scenario that plays {@code map} with the policy named {@code policyName}, as accepted by {@code PaddlePolicy.named}.
+	 * The scenario is named after the policy.
+	 * 
+	 * @throws IllegalArgumentException if {@code policyName} is not the name of a policy
+	 */
+	
+	public static Scenario of(String map, String policyName, int tickTime, long maxTicks) {
+		PaddlePolicy.named(policyName);
+		return new Scenario(policyName, map, () -> PaddlePolicy.named(policyName), tickTime, maxTicks);
+	}
+	
+	/** Returns the name of this scenario, used in reports. */
+	public String getName() {
+		return name;
+	}
+	
+	/** Returns the {@code GameMap} description of the level this scenario starts from. */
+	public String getMap() {
+		return map;
+	}
+	
+	/** Returns the factory of the policy this scenario is played with. */
+	public Supplier<PaddlePolicy> getPolicyFactory() {
+		return policyFactory;
+	}
+	
+	/** Returns the amount of milliseconds every tick simulates. */
+	public int getTickTime() {
+		return tickTime;
+	}
+	
+	/** Returns the maximum amount of ticks this scenario is simulated for. */
+	public long getMaxTicks() {
+		return maxTicks;
+	}
+}
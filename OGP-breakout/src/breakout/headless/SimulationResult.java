@@ -0,0 +1,116 @@
+package breakout.headless;
+
+import java.util.Locale;
+
+/**
+ * The outcome of running one game headlessly: how it ended, after how many ticks, how fast it was simulated and
+ * what the final state looked like.
+ * 
+ * @immutable
+ * 
+ * @invar | getTicks() >= 0
+ * @invar | getGameTime() >= 0
+ * @invar | getWallNanos() >= 0
+ * @invar | !(isWon() && isDead())
+ */
+
+public final class SimulationResult {
+	
+	private final long ticks;
+	private final long gameTime;
+	private final long wallNanos;
+	private final boolean won;
+	private final boolean dead;
+	private final int ballCount;
+	private final int blockCount;
+	private final long stateHash;
+	
+	/**
+	 * Initializes this object with the given outcome.
+	 * 
+	 * @pre | ticks >= 0 && gameTime >= 0 && wallNanos >= 0
+	 * @pre | !(won && dead)
+	 * 
+	 * @post | getTicks() == ticks
+	 * @post | getGameTime() == gameTime
+	 * @post | getWallNanos() == wallNanos
+	 * @post | isWon() == won
+	 * @post | isDead() == dead
+	 * @post | getBallCount() == ballCount
+	 * @post | getBlockCount() == blockCount
+	 * @post | getStateHash() == stateHash
+	 */
+	
+	public SimulationResult(long ticks, long gameTime, long wallNanos, boolean won, boolean dead, int ballCount, int blockCount, long stateHash) {
+		this.ticks = ticks;
+		this.gameTime = gameTime;
+		this.wallNanos = wallNanos;
+		this.won = won;
+		this.dead = dead;
+		this.ballCount = ballCount;
+		this.blockCount = blockCount;
+		this.stateHash = stateHash;
+	}
+	
+	/** Returns the amount of ticks that were simulated. */
+	public long getTicks() {
+		return ticks;
+	}
+	
+	/** Returns the amount of game time, in milliseconds, that was simulated. */
+	public long getGameTime() {
+		return gameTime;
+	}
+	
+	/** Returns the wall-clock time, in nanoseconds, the simulation took. */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+	
+	/** Returns whether the game was won when the simulation stopped. */
+	public boolean isWon() {
+		return won;
+	}
+	
+	/** Returns whether the game was lost when the simulation stopped. */
+	public boolean isDead() {
+		return dead;
+	}
+	
+	/** Returns the amount of balls in the final state. */
+	public int getBallCount() {
+		return ballCount;
+	}
+	
+	/** Returns the amount of blocks in the final state. */
+	public int getBlockCount() {
+		return blockCount;
+	}
+	
+	/** Returns {@code BreakoutState.getStateHash()} of the final state. */
+	public long getStateHash() {
+		return stateHash;
+	}
+	
+	/**
+	 * Returns the amount of ticks simulated per second of wall-clock time, or 0 if no time was measured.
+	 * 
+	 * @post | result >= 0
+	 */
+	
+	public double getTicksPerSecond() {
+		return wallNanos == 0 ? 0 : ticks * 1e9 / wallNanos;
+	}
+	
+	/**
+	 * Returns a one-line report of this result.
+	 */
+	
+	@Override
+	
+	public String toString() {
+		String outcome = won ? "won" : dead ? "dead" : "unfinished";
+		return String.format(Locale.ROOT, "%s after %d ticks (%.1f s game time), %.0f ticks/s, balls=%d blocks=%d hash=%016x",
+				outcome, ticks, gameTime / 1000.0, getTicksPerSecond(), ballCount, blockCount, stateHash);
+	}
+}
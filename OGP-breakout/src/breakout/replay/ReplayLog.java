@@ -0,0 +1,187 @@
+package breakout.replay;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import breakout.BreakoutState;
+
+/**
+ * A recording of a breakout game: the map it started from and the paddle direction and elapsed time of every frame, with
+ * checkpoints of the state hash in between. Since the game is deterministic, replaying the frames on a fresh state built from the
+ * map reproduces the game exactly, and the checkpoints prove it.
+ * 
+ * A log is serialized as the bytes {@code BRPL}, a version byte, a mode byte, the substep size, the amount of frames, the length of
+ * the map in UTF-8 bytes and the map itself, followed by the records. Numbers are unsigned LEB128 varints. Every record starts with
+ * a varint {@code v}:
+ * <ul>
+ * <li>If bits 1 and 2 of {@code v} hold a code {@code c} of 0, 1 or 2, the record holds frames with paddle direction {@code c - 1}.
+ *     Their elapsed time is the elapsed time of the previous record, or 0 for the first one, plus the zigzag-decoded {@code v >>> 3}.
+ *     If bit 0 is clear, the record is a single frame; otherwise a varint with the amount of frames minus 2 follows.</li>
+ * <li>If {@code v} is 6, the record is a checkpoint, and the state hash after all frames before it follows as eight bytes,
+ *     least significant first.</li>
+ * </ul>
+ * A frame at a steady frame rate therefore takes one byte, and a run of identical frames takes two or three bytes in total.
+ * 
+ * @immutable
+ * 
+ * @invar | getMap() != null
+ * @invar | getMode() != null
+ * @invar | getSubstepSize() > 0
+ * @invar | getTickCount() >= 0
+ */
+
+public final class ReplayLog {
+	
+	/**
+	 * How a recorded frame is applied to a state.
+	 */
+	
+	public enum Mode {
+		
+		/**
+		 * The paddle is moved with {@code movePaddleLeft} or {@code movePaddleRight} and the state is advanced with {@code tick},
+		 * like {@code HeadlessRunner} and {@code GameSession} do.
+		 */
+		
+		TICK {
+			@Override
+			void apply(BreakoutState state, int paddleDir, int elapsedTime) {
+				if (paddleDir == -1)
+					state.movePaddleLeft(elapsedTime);
+				if (paddleDir == 1)
+					state.movePaddleRight(elapsedTime);
+				state.tick(paddleDir, elapsedTime);
+			}
+		},
+		
+		/**
+		 * The state is advanced with {@code tickSubstepped}, like {@code GameView} does.
+		 */
+		
+		SUBSTEPPED {
+			@Override
+			void apply(BreakoutState state, int paddleDir, int elapsedTime) {
+				state.tickSubstepped(paddleDir, elapsedTime);
+			}
+		};
+		
+		abstract void apply(BreakoutState state, int paddleDir, int elapsedTime);
+	}
+	
+	static final int VERSION = 1;
+	
+	/** The code of a checkpoint record. */
+	static final int CHECKPOINT = 3;
+	
+	private static final byte[] MAGIC = {'B', 'R', 'P', 'L'};
+	
+	/**
+	 * @invar | map != null && mode != null && records != null
+	 * @invar | substepSize > 0
+	 * @invar | tickCount >= 0
+	 * 
+	 * @representationObject
+	 */
+	
+	private final String map;
+	private final Mode mode;
+	private final int substepSize;
+	private final long tickCount;
+	private final byte[] records;
+	
+	/**
+	 * @pre | map != null && mode != null && records != null
+	 * @pre | substepSize > 0
+	 * @pre | tickCount >= 0
+	 */
+	
+	ReplayLog(String map, Mode mode, int substepSize, long tickCount, byte[] records) {
+		this.map = map;
+		this.mode = mode;
+		this.substepSize = substepSize;
+		this.tickCount = tickCount;
+		this.records = records;
+	}
+	
+	/** Returns the {@code GameMap} description the game started from. */
+	public String getMap() {
+		return map;
+	}
+	
+	/** Returns how the frames are applied to the state. */
+	public Mode getMode() {
+		return mode;
+	}
+	
+	/** Returns the substep size the state used, which only matters in mode {@code SUBSTEPPED}. */
+	public int getSubstepSize() {
+		return substepSize;
+	}
+	
+	/** Returns the amount of frames in this log. */
+	public long getTickCount() {
+		return tickCount;
+	}
+	
+	/**
+	 * Returns an input that reads the records of this log.
+	 */
+	
+	VarintInput records() {
+		return new VarintInput(records, 0, records.length);
+	}
+	
+	/**
+	 * Returns the serialized form of this log.
+	 * 
+	 * @creates | result
+	 * 
+	 * @post | fromByteArray(result).getTickCount() == getTickCount()
+	 */
+	
+	public byte[] toByteArray() {
+		byte[] mapBytes = map.getBytes(StandardCharsets.UTF_8);
+		VarintOutput out = new VarintOutput();
+		out.writeBytes(MAGIC);
+		out.writeByte(VERSION);
+		out.writeByte(mode.ordinal());
+		out.writeUnsigned(substepSize);
+		out.writeUnsigned(tickCount);
+		out.writeUnsigned(mapBytes.length);
+		out.writeBytes(mapBytes);
+		out.writeBytes(records);
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Returns the log whose serialized form is {@code bytes}. The records are only checked when the log is replayed.
+	 * 
+	 * @throws IllegalArgumentException if {@code bytes} is {@code null}
+	 * 		| bytes == null
+	 * @throws IllegalArgumentException if {@code bytes} doesn't start with a valid header
+	 * 
+	 * @inspects | bytes
+	 */
+	
+	public static ReplayLog fromByteArray(byte[] bytes) {
+		if (bytes == null)
+			throw new IllegalArgumentException("bytes can't be null");
+		VarintInput in = new VarintInput(bytes, 0, bytes.length);
+		if (!Arrays.equals(in.readBytes(MAGIC.length), MAGIC))
+			throw new IllegalArgumentException("not a replay log");
+		int version = in.readByte();
+		if (version != VERSION)
+			throw new IllegalArgumentException("unsupported replay log version " + version);
+		int mode = in.readByte();
+		if (mode >= Mode.values().length)
+			throw new IllegalArgumentException("unknown mode " + mode);
+		int substepSize = in.readLength();
+		if (substepSize <= 0)
+			throw new IllegalArgumentException("substep size should be greater than 0");
+		long tickCount = in.readUnsigned();
+		if (tickCount < 0)
+			throw new IllegalArgumentException("tick count out of range");
+		String map = new String(in.readBytes(in.readLength()), StandardCharsets.UTF_8);
+		return new ReplayLog(map, Mode.values()[mode], substepSize, tickCount, Arrays.copyOfRange(bytes, in.position(), bytes.length));
+	}
+}
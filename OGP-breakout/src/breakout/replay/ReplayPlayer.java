@@ -0,0 +1,103 @@
+package breakout.replay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import breakout.BreakoutState;
+import breakout.EventDrivenEngine;
+import breakout.GameMap;
+import breakout.headless.SimulationResult;
+
+/**
+ * Replays {@code ReplayLog}s without a GUI, as fast as possible, and checks every checkpoint on the way.
+ * Logs in mode {@code TICK} are replayed with an {@code EventDrivenEngine}, so a run of equal frames only costs work at the ticks
+ * at which something happens.
+ */
+
+public final class ReplayPlayer {
+	
+	private ReplayPlayer() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+	
+	/**
+	 * Replays {@code log} on a fresh state built from its map and returns the outcome.
+	 * 
+	 * @throws IllegalArgumentException if {@code log} is {@code null}
+	 * 		| log == null
+	 * @throws IllegalArgumentException if the records of {@code log} are malformed
+	 * @throws IllegalStateException if the state hash differs from a checkpoint, which means the game is not replayed faithfully
+	 * 
+	 * @post | result.getTicks() == log.getTickCount()
+	 */
+	
+	public static SimulationResult play(ReplayLog log) {
+		if (log == null)
+			throw new IllegalArgumentException("log can't be null");
+		long start = System.nanoTime();
+		BreakoutState state = GameMap.createStateFromDescription(log.getMap());
+		state.setSubstepSize(log.getSubstepSize());
+		ReplayLog.Mode mode = log.getMode();
+		EventDrivenEngine engine = mode == ReplayLog.Mode.TICK ? new EventDrivenEngine(state) : null;
+		VarintInput in = log.records();
+		long ticks = 0;
+		long gameTime = 0;
+		long elapsed = 0;
+		while (in.hasMore()) {
+			long record = in.readUnsigned();
+			int code = (int)(record >>> 1 & 3);
+			if (code == ReplayLog.CHECKPOINT) {
+				if (record != ReplayLog.CHECKPOINT << 1)
+					throw new IllegalArgumentException("malformed checkpoint before frame " + ticks);
+				long expected = in.readFixed64();
+				if (state.getStateHash() != expected)
+					throw new IllegalStateException(String.format("replay diverged before frame %d: expected state hash %016x, got %016x",
+							ticks, expected, state.getStateHash()));
+				continue;
+			}
+			elapsed += VarintInput.unzigzag(record >>> 3);
+			if (elapsed < 0 || elapsed > Integer.MAX_VALUE || elapsed == 0 && mode == ReplayLog.Mode.TICK)
+				throw new IllegalArgumentException("elapsed time out of range before frame " + ticks);
+			long count = (record & 1) == 0 ? 1 : in.readUnsigned() + 2;
+			if (count < 1 || count > log.getTickCount() - ticks)
+				throw new IllegalArgumentException("more frames than the log holds");
+			if (engine != null) {
+				engine.run(code - 1, (int)elapsed, count);
+			} else {
+				for (long i = 0; i < count; i++)
+					mode.apply(state, code - 1, (int)elapsed);
+			}
+			ticks += count;
+			gameTime += count * elapsed;
+		}
+		if (ticks != log.getTickCount())
+			throw new IllegalArgumentException("the log holds " + ticks + " frames instead of " + log.getTickCount());
+		long wallNanos = System.nanoTime() - start;
+		return new SimulationResult(ticks, gameTime, wallNanos, state.isWon(), state.isDead(),
+				state.getBallCount(), state.getBlockCount(), state.getStateHash());
+	}
+	
+	/**
+	 * Replays the given log files and prints the outcome and size of each.
+	 * 
+	 * Usage: {@code ReplayPlayer log-file...}.
+	 */
+	
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("usage: ReplayPlayer log-file...");
+			System.exit(2);
+		}
+		for (String file : args) {
+			byte[] bytes = Files.readAllBytes(Path.of(file));
+			try {
+				ReplayLog log = ReplayLog.fromByteArray(bytes);
+				SimulationResult result = play(log);
+				System.out.printf("%s: %s, %d bytes%n", file, result, bytes.length);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				System.out.println(file + ": " + e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package breakout.replay;
+
+import breakout.BreakoutState;
+import breakout.GameMap;
+
+/**
+ * Plays a breakout game from a map and records every frame, so that the game can be replayed exactly from the resulting
+ * {@code ReplayLog}.
+ * 
+ * Recording a frame costs a few comparisons: frames are only encoded when a run of identical frames ends, and the state hash
+ * written by a checkpoint is maintained by the state anyway. The first checkpoint holds the hash of the initial state.
+ * 
+ * {@code frame} and {@code toLog} are synchronized, so a log can be taken on another thread than the one that records the frames,
+ * such as a shutdown hook. The game itself must still only be changed through {@code frame}.
+ * 
+ * @invar | getState() != null
+ * @invar | getMode() != null
+ * @invar | getTickCount() >= 0
+ */
+
+public final class ReplayRecorder {
+	
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+	
+	/**
+	 * @invar | map != null && mode != null && state != null && out != null
+	 * @invar | substepSize > 0
+	 * @invar | checkpointInterval > 0
+	 * @invar | 0 <= pendingCount && pendingCount <= tickCount
+	 * 
+	 * @representationObject
+	 */
+	
+	private final String map;
+	private final ReplayLog.Mode mode;
+	private final BreakoutState state;
+	private final int substepSize;
+	private final int checkpointInterval;
+	private final VarintOutput out = new VarintOutput();
+	/** The elapsed time of the last record written. */
+	private int previousElapsed;
+	/** The run of identical frames that hasn't been written yet. */
+	private int pendingDir;
+	private int pendingElapsed;
+	private long pendingCount;
+	private long tickCount;
+	private long checkpointedAt = -1;
+	
+	/**
+	 * Initializes this recorder so that it records a new game on {@code map} whose frames are applied in mode {@code mode},
+	 * with a checkpoint every {@code checkpointInterval} frames.
+	 * 
+	 * @throws IllegalArgumentException if {@code map} or {@code mode} is {@code null}
+	 * 		| map == null || mode == null
+	 * @throws IllegalArgumentException if {@code checkpointInterval} is not greater than 0
+	 * 		| checkpointInterval <= 0
+	 * 
+	 * @post | getMode() == mode
+	 * @post | getTickCount() == 0
+	 */
+	
+	public ReplayRecorder(String map, ReplayLog.Mode mode, int checkpointInterval) {
+		if (map == null || mode == null)
+			throw new IllegalArgumentException("map and mode can't be null");
+		if (checkpointInterval <= 0)
+			throw new IllegalArgumentException("checkpointInterval should be greater than 0");
+		this.map = map;
+		this.mode = mode;
+		this.state = GameMap.createStateFromDescription(map);
+		this.substepSize = state.getSubstepSize();
+		this.checkpointInterval = checkpointInterval;
+		checkpoint();
+	}
+	
+	/**
+	 * Returns the game being recorded. Only {@code frame} should advance it.
+	 */
+	
+	public BreakoutState getState() {
+		return state;
+	}
+	
+	public ReplayLog.Mode getMode() {
+		return mode;
+	}
+	
+	/** Returns the amount of frames recorded so far. */
+	public synchronized long getTickCount() {
+		return tickCount;
+	}
+	
+	/**
+	 * Applies a frame with paddle direction {@code paddleDir} and elapsed time {@code elapsedTime} to the game, in the mode of this
+	 * recorder, and records it.
+	 * 
+	 * @throws IllegalArgumentException if {@code paddleDir} is not -1, 0 or 1
+	 * 		| paddleDir < -1 || paddleDir > 1
+	 * @throws IllegalArgumentException if {@code elapsedTime} is negative, or 0 in mode {@code TICK}
+	 * 		| elapsedTime < 0 || elapsedTime == 0 && getMode() == ReplayLog.Mode.TICK
+	 * @throws IllegalStateException if the substep size of the game was changed
+	 * 
+	 * @mutates | this
+	 * 
+	 * @post | getTickCount() == old(getTickCount()) + 1
+	 */
+	
+	public synchronized void frame(int paddleDir, int elapsedTime) {
+		if (paddleDir < -1 || paddleDir > 1)
+			throw new IllegalArgumentException("paddleDir should be -1, 0 or 1");
+		if (elapsedTime < 0 || elapsedTime == 0 && mode == ReplayLog.Mode.TICK)
+			throw new IllegalArgumentException("elapsedTime out of range");
+		if (state.getSubstepSize() != substepSize)
+			throw new IllegalStateException("the substep size of a recorded game can't change");
+		mode.apply(state, paddleDir, elapsedTime);
+		if (pendingCount > 0 && (paddleDir != pendingDir || elapsedTime != pendingElapsed))
+			flush();
+		pendingDir = paddleDir;
+		pendingElapsed = elapsedTime;
+		pendingCount++;
+		tickCount++;
+		if (tickCount % checkpointInterval == 0)
+			checkpoint();
+	}
+	
+	private void flush() {
+		if (pendingCount == 0)
+			return;
+		long delta = VarintOutput.zigzag((long)pendingElapsed - previousElapsed);
+		out.writeUnsigned(delta << 3 | (pendingDir + 1) << 1 | (pendingCount > 1 ? 1 : 0));
+		if (pendingCount > 1)
+			out.writeUnsigned(pendingCount - 2);
+		previousElapsed = pendingElapsed;
+		pendingCount = 0;
+	}
+	
+	private void checkpoint() {
+		flush();
+		out.writeUnsigned(ReplayLog.CHECKPOINT << 1);
+		out.writeFixed64(state.getStateHash());
+		checkpointedAt = tickCount;
+	}
+	
+	/**
+	 * Returns a log of the frames recorded so far, ending with a checkpoint. Recording may go on afterwards.
+	 * 
+	 * @mutates | this
+	 * 
+	 * @post | result.getTickCount() == getTickCount()
+	 */
+	
+	public synchronized ReplayLog toLog() {
+		if (checkpointedAt != tickCount)
+			checkpoint();
+		return new ReplayLog(map, mode, substepSize, tickCount, out.toByteArray());
+	}
+}
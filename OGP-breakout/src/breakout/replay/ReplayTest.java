@@ -0,0 +1,100 @@
+package breakout.replay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.GameMap;
+import breakout.headless.SimulationResult;
+
+class ReplayTest {
+
+	static ReplayLog record(ReplayLog.Mode mode, int frames) {
+		ReplayRecorder recorder = new ReplayRecorder(GameMap.DEFAULT_MAP, mode, 100);
+		Random random = new Random(1);
+		int direction = 0;
+		for (int i = 0; i < frames && !recorder.getState().isDead() && !recorder.getState().isWon(); i++) {
+			if (random.nextInt(10) == 0)
+				direction = random.nextInt(3) - 1;
+			recorder.frame(direction, i % 50 < 25 ? 20 : 18 + random.nextInt(5));
+		}
+		return recorder.toLog();
+	}
+
+	@Test
+	void testVarints() {
+		VarintOutput out = new VarintOutput();
+		long[] values = {0, 1, 127, 128, 300, Long.MAX_VALUE, -1};
+		for (long value : values)
+			out.writeUnsigned(value);
+		out.writeFixed64(0x0123456789abcdefL);
+		out.writeUnsigned(VarintOutput.zigzag(-3));
+		VarintOutput small = new VarintOutput();
+		small.writeUnsigned(127);
+		assertEquals(1, small.size());
+
+		byte[] bytes = out.toByteArray();
+		VarintInput in = new VarintInput(bytes, 0, bytes.length);
+		for (long value : values)
+			assertEquals(value, in.readUnsigned());
+		assertEquals(0x0123456789abcdefL, in.readFixed64());
+		assertEquals(-3, VarintInput.unzigzag(in.readUnsigned()));
+		assertFalse(in.hasMore());
+		assertThrows(IllegalArgumentException.class, () -> in.readByte());
+	}
+
+	@Test
+	void testReplayReproducesGame() {
+		for (ReplayLog.Mode mode : ReplayLog.Mode.values()) {
+			ReplayRecorder recorder = new ReplayRecorder(GameMap.DEFAULT_MAP, mode, 100);
+			Random random = new Random(1);
+			for (int i = 0; i < 2000 && !recorder.getState().isDead(); i++)
+				recorder.frame(random.nextInt(3) - 1, i < 1000 ? 20 : 15 + random.nextInt(10));
+			ReplayLog log = ReplayLog.fromByteArray(recorder.toLog().toByteArray());
+			assertEquals(mode, log.getMode());
+			assertEquals(recorder.getTickCount(), log.getTickCount());
+
+			SimulationResult result = ReplayPlayer.play(log);
+			assertEquals(recorder.getTickCount(), result.getTicks());
+			assertEquals(recorder.getState().getStateHash(), result.getStateHash());
+			assertEquals(recorder.getState().isDead(), result.isDead());
+		}
+	}
+
+	@Test
+	void testLogsAreSmall() {
+		ReplayLog log = record(ReplayLog.Mode.SUBSTEPPED, 5000);
+		int headerSize = ReplayLog.fromByteArray(log.toByteArray()).getMap().length() + 16;
+		assertTrue(log.toByteArray().length - headerSize <= log.getTickCount() + 9 * (log.getTickCount() / 100 + 2));
+
+		ReplayRecorder steady = new ReplayRecorder(GameMap.DEFAULT_MAP, ReplayLog.Mode.SUBSTEPPED, 1_000_000);
+		for (int i = 0; i < 10_000; i++)
+			steady.frame(0, 20);
+		assertTrue(steady.toLog().toByteArray().length < GameMap.DEFAULT_MAP.length() + 40);
+		assertEquals(steady.getState().getStateHash(), ReplayPlayer.play(steady.toLog()).getStateHash());
+	}
+
+	@Test
+	void testDivergenceIsDetected() {
+		byte[] bytes = record(ReplayLog.Mode.TICK, 300).toByteArray();
+		bytes[bytes.length - 1] ^= 1;
+		assertThrows(IllegalStateException.class, () -> ReplayPlayer.play(ReplayLog.fromByteArray(bytes)));
+
+		byte[] truncated = record(ReplayLog.Mode.TICK, 300).toByteArray();
+		assertThrows(IllegalArgumentException.class, () -> ReplayPlayer.play(ReplayLog.fromByteArray(java.util.Arrays.copyOf(truncated, truncated.length - 3))));
+		assertThrows(IllegalArgumentException.class, () -> ReplayLog.fromByteArray(new byte[] {'B', 'R', 'P', 'X', 1}));
+	}
+
+	@Test
+	void testRecorderChecksFrames() {
+		ReplayRecorder recorder = new ReplayRecorder(GameMap.DEFAULT_MAP, ReplayLog.Mode.TICK, 10);
+		assertThrows(IllegalArgumentException.class, () -> recorder.frame(2, 20));
+		assertThrows(IllegalArgumentException.class, () -> recorder.frame(0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ReplayRecorder(null, ReplayLog.Mode.TICK, 10));
+		assertEquals(0, recorder.getTickCount());
+		assertEquals(0, ReplayPlayer.play(recorder.toLog()).getTicks());
+	}
+
+}
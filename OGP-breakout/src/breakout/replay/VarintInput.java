@@ -0,0 +1,96 @@
+package breakout.replay;
+
+/**
+ * Reads the values {@code VarintOutput} writes from a range of a byte array.
+ * 
+ * Reading past the end of the range, or a varint of more than ten bytes, throws an {@code IllegalArgumentException},
+ * because it means the bytes are not a valid log.
+ */
+
+final class VarintInput {
+	
+	/**
+	 * @invar | bytes != null
+	 * @invar | 0 <= position && position <= end && end <= bytes.length
+	 */
+	
+	private final byte[] bytes;
+	private int position;
+	private final int end;
+	
+	/**
+	 * @pre | bytes != null
+	 * @pre | 0 <= from && from <= to && to <= bytes.length
+	 */
+	
+	VarintInput(byte[] bytes, int from, int to) {
+		this.bytes = bytes;
+		this.position = from;
+		this.end = to;
+	}
+	
+	/** Returns the position of the next byte to read. */
+	int position() {
+		return position;
+	}
+	
+	boolean hasMore() {
+		return position < end;
+	}
+	
+	/**
+	 * Returns the value whose zigzag encoding is {@code value}.
+	 */
+	
+	static long unzigzag(long value) {
+		return value >>> 1 ^ -(value & 1);
+	}
+	
+	int readByte() {
+		if (position >= end)
+			throw new IllegalArgumentException("unexpected end of log");
+		return bytes[position++] & 0xff;
+	}
+	
+	long readUnsigned() {
+		long result = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = readByte();
+			result |= (long)(b & 0x7f) << shift;
+			if ((b & 0x80) == 0)
+				return result;
+		}
+		throw new IllegalArgumentException("malformed varint at byte " + (position - 1));
+	}
+	
+	/**
+	 * Reads an unsigned varint that should fit in a non-negative {@code int}.
+	 */
+	
+	int readLength() {
+		long result = readUnsigned();
+		if (result > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("value out of range at byte " + position);
+		return (int)result;
+	}
+	
+	long readFixed64() {
+		long result = 0;
+		for (int i = 0; i < 8; i++)
+			result |= (long)readByte() << 8 * i;
+		return result;
+	}
+	
+	/**
+	 * @creates | result
+	 */
+	
+	byte[] readBytes(int length) {
+		if (length > end - position)
+			throw new IllegalArgumentException("unexpected end of log");
+		byte[] result = new byte[length];
+		System.arraycopy(bytes, position, result, 0, length);
+		position += length;
+		return result;
+	}
+}
@@ -0,0 +1,81 @@
+package breakout.replay;
+
+import java.util.Arrays;
+
+/**
+ * A growable byte array that integers are appended to as LEB128 varints: seven bits per byte, least significant group first,
+ * with the high bit of every byte but the last set.
+ */
+
+final class VarintOutput {
+	
+	/**
+	 * @invar | bytes != null
+	 * @invar | 0 <= size && size <= bytes.length
+	 */
+	
+	private byte[] bytes = new byte[64];
+	private int size;
+	
+	/** Returns the amount of bytes written so far. */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns the zigzag encoding of {@code value}, which maps small negative and positive values to small unsigned values.
+	 */
+	
+	static long zigzag(long value) {
+		return value << 1 ^ value >> 63;
+	}
+	
+	private void ensureCapacity(int extra) {
+		if (size + extra > bytes.length)
+			bytes = Arrays.copyOf(bytes, Math.max(size + extra, 2 * bytes.length));
+	}
+	
+	void writeByte(int value) {
+		ensureCapacity(1);
+		bytes[size++] = (byte)value;
+	}
+	
+	/**
+	 * Appends {@code value}, taken as an unsigned number, as a varint of one to ten bytes.
+	 */
+	
+	void writeUnsigned(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7fL) != 0) {
+			bytes[size++] = (byte)(value | 0x80);
+			value >>>= 7;
+		}
+		bytes[size++] = (byte)value;
+	}
+	
+	/**
+	 * Appends {@code value} as eight bytes, least significant first. Hashes don't get shorter as varints.
+	 */
+	
+	void writeFixed64(long value) {
+		ensureCapacity(8);
+		for (int i = 0; i < 8; i++, value >>>= 8)
+			bytes[size++] = (byte)value;
+	}
+	
+	void writeBytes(byte[] values) {
+		ensureCapacity(values.length);
+		System.arraycopy(values, 0, bytes, size, values.length);
+		size += values.length;
+	}
+	
+	/**
+	 * Returns a new array holding the bytes written so far.
+	 * 
+	 * @creates | result
+	 */
+	
+	byte[] toByteArray() {
+		return Arrays.copyOf(bytes, size);
+	}
+}
@@ -0,0 +1,222 @@
+package breakout.session;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import breakout.BreakoutState;
+
+/**
+ * A live game, ticked every {@code getTickTime()} milliseconds of wall-clock time by a {@code SessionHost}.
+ * 
+ * Players steer the paddle by sending directions to the session's mailbox with {@code send}, from any thread. Only the thread
+ * that ticks the session touches its {@code BreakoutState}; at the start of every tick it drains the mailbox and moves the paddle
+ * in the direction that was sent last, until another direction is sent. The session finishes when its game is won or lost or
+ * when it is stopped.
+ * 
+ * @invar | getTickTime() > 0
+ * @invar | getTicks() >= 0
+ * @invar | getStatus() != null
+ * @invar | getJitter() != null
+ */
+
+public final class GameSession {
+	
+	/**
+	 * The states of a session.
+	 */
+	
+	public enum Status { RUNNING, WON, DEAD, STOPPED }
+	
+	/**
+	 * @invar | state != null
+	 * @invar | tickTime > 0
+	 * @invar | inbox != null && jitter != null && finished != null
+	 * @invar | direction == -1 || direction == 0 || direction == 1
+	 */
+	
+	private final long id;
+	private final BreakoutState state;
+	private final int tickTime;
+	private final long tickNanos;
+	private final ConcurrentLinkedQueue<Integer> inbox = new ConcurrentLinkedQueue<>();
+	private final JitterHistogram jitter = new JitterHistogram();
+	private final CountDownLatch finished = new CountDownLatch(1);
+	
+	/** The direction the paddle moves in; only used by the ticking thread. */
+	private int direction;
+	/** When the next tick is due, in {@code System.nanoTime()} time; only used by the ticking thread. */
+	private long deadline;
+	
+	private volatile long ticks;
+	private volatile boolean stopRequested;
+	private volatile Status status = Status.RUNNING;
+	
+	/**
+	 * Initializes this session so that it plays {@code state}, ticking it every {@code tickTime} milliseconds.
+	 * The session takes ownership of {@code state}: nobody else should use it until the session has finished.
+	 * 
+	 * @pre | state != null
+	 * @pre | tickTime > 0
+	 */
+	
+	GameSession(long id, BreakoutState state, int tickTime) {
+		this.id = id;
+		this.state = state;
+		this.tickTime = tickTime;
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickTime);
+	}
+	
+	/** Returns the number the host gave this session. */
+	public long getId() {
+		return id;
+	}
+	
+	/** Returns the amount of game time, in milliseconds, every tick simulates, which is also the time between ticks. */
+	public int getTickTime() {
+		return tickTime;
+	}
+	
+	/** Returns the amount of ticks simulated so far. */
+	public long getTicks() {
+		return ticks;
+	}
+	
+	/** Returns the state of this session. */
+	public Status getStatus() {
+		return status;
+	}
+	
+	/** Returns whether this session has finished. */
+	public boolean isFinished() {
+		return status != Status.RUNNING;
+	}
+	
+	/**
+	 * Returns the histogram of how late this session's ticks started.
+	 */
+	
+	public JitterHistogram getJitter() {
+		return jitter;
+	}
+	
+	/**
+	 * Returns the game of this session.
+	 * 
+	 * @throws IllegalStateException if the session hasn't finished yet, because the game is only safe to use after that
+	 * 		| !isFinished()
+	 */
+	
+	public BreakoutState getState() {
+		if (!isFinished())
+			throw new IllegalStateException("the state of a running session can't be used");
+		return state;
+	}
+	
+	/**
+	 * Sends a paddle direction to this session. It takes effect at the next tick.
+	 * 
+	 * @throws IllegalArgumentException if {@code paddleDir} is not -1, 0 or 1
+	 * 		| paddleDir != -1 && paddleDir != 0 && paddleDir != 1
+	 */
+	
+	public void send(int paddleDir) {
+		if (paddleDir != -1 && paddleDir != 0 && paddleDir != 1)
+			throw new IllegalArgumentException("paddleDir should be -1, 0 or 1");
+		if (!isFinished())
+			inbox.add(paddleDir);
+	}
+	
+	/**
+	 * Asks this session to stop. It finishes with status {@code STOPPED} before its next tick, unless it finished already.
+	 */
+	
+	public void stop() {
+		stopRequested = true;
+	}
+	
+	/**
+	 * Returns whether {@code stop} has been called.
+	 */
+	
+	boolean isStopRequested() {
+		return stopRequested;
+	}
+	
+	/**
+	 * Waits until this session has finished.
+	 * 
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	
+	public void join() throws InterruptedException {
+		finished.await();
+	}
+	
+	/**
+	 * Waits at most {@code timeout} milliseconds until this session has finished, and returns whether it has.
+	 * 
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	
+	public boolean join(long timeout) throws InterruptedException {
+		return finished.await(timeout, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Schedules the first tick of this session one tick after {@code now}.
+	 */
+	
+	void start(long now) {
+		deadline = now + tickNanos;
+	}
+	
+	/**
+	 * Returns when the next tick is due, in {@code System.nanoTime()} time.
+	 */
+	
+	long getDeadline() {
+		return deadline;
+	}
+	
+	/**
+	 * Runs the tick that was due at {@code getDeadline()}, at time {@code now}, and schedules the next one.
+	 * If the session should stop or its game is over, it finishes instead. Returns whether the session is still running.
+	 * 
+	 * @pre | !isFinished()
+	 */
+	
+	boolean tick(long now) {
+		if (stopRequested) {
+			finish(Status.STOPPED);
+			return false;
+		}
+		jitter.record(now - deadline);
+		for (Integer paddleDir = inbox.poll(); paddleDir != null; paddleDir = inbox.poll())
+			direction = paddleDir;
+		if (direction == -1)
+			state.movePaddleLeft(tickTime);
+		if (direction == 1)
+			state.movePaddleRight(tickTime);
+		state.tick(direction, tickTime);
+		ticks++;
+		deadline += tickNanos;
+		if (state.isWon() || state.isDead()) {
+			finish(state.isWon() ? Status.WON : Status.DEAD);
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Finishes this session with the given status, unless it has finished already.
+	 */
+	
+	void finish(Status status) {
+		if (this.status != Status.RUNNING)
+			return;
+		this.status = status;
+		inbox.clear();
+		finished.countDown();
+	}
+}
@@ -0,0 +1,112 @@
+package breakout.session;
+
+/**
+ * A histogram of how late ticks started, in nanoseconds, with buckets whose bounds are powers of two microseconds.
+ * 
+ * Recording is constant time and allocation-free, so it can be done on every tick. Percentiles are reported as the upper bound of
+ * the bucket they fall in, so they overestimate the real value by at most a factor of two. All methods are synchronized, so a
+ * histogram that is recorded into by one thread can be read by others.
+ * 
+ * @invar | getCount() >= 0
+ * @invar | getMax() >= 0
+ */
+
+public final class JitterHistogram {
+	
+	/**
+	 * Bucket 0 counts delays below 1 microsecond, bucket {@code k > 0} counts delays from {@code 2^(k-1)} up to {@code 2^k} microseconds
+	 * and the last bucket also counts everything above.
+	 */
+	
+	private static final int BUCKETS = 40;
+	
+	/**
+	 * @invar | buckets != null && buckets.length == BUCKETS
+	 * @invar | count == java.util.Arrays.stream(buckets).sum()
+	 * @invar | max >= 0
+	 */
+	
+	private final long[] buckets = new long[BUCKETS];
+	private long count;
+	private long max;
+	
+	/**
+	 * Records a tick that started {@code delay} nanoseconds late. Ticks that started early count as on time.
+	 * 
+	 * @mutates | this
+	 * 
+	 * @post | getCount() == old(getCount()) + 1
+	 */
+	
+	public synchronized void record(long delay) {
+		delay = Math.max(0, delay);
+		long micros = delay / 1000;
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets[bucket]++;
+		count++;
+		max = Math.max(max, delay);
+	}
+	
+	/**
+	 * Adds the counts of {@code other} to this histogram.
+	 * 
+	 * @throws IllegalArgumentException if {@code other} is {@code null}
+	 * 		| other == null
+	 * 
+	 * @mutates | this
+	 * @inspects | other
+	 */
+	
+	public void add(JitterHistogram other) {
+		if (other == null)
+			throw new IllegalArgumentException("other can't be null");
+		long[] otherBuckets;
+		long otherMax;
+		synchronized (other) {
+			otherBuckets = other.buckets.clone();
+			otherMax = other.max;
+		}
+		synchronized (this) {
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] += otherBuckets[i];
+				count += otherBuckets[i];
+			}
+			max = Math.max(max, otherMax);
+		}
+	}
+	
+	/** Returns the amount of recorded ticks. */
+	public synchronized long getCount() {
+		return count;
+	}
+	
+	/** Returns the largest recorded delay, in nanoseconds, or 0 if nothing was recorded. */
+	public synchronized long getMax() {
+		return max;
+	}
+	
+	/**
+	 * Returns an upper bound, in nanoseconds, of the delay that the fraction {@code p} of the recorded ticks didn't exceed,
+	 * or 0 if nothing was recorded.
+	 * 
+	 * @throws IllegalArgumentException if {@code p} is not between 0 and 1
+	 * 		| !(0 <= p && p <= 1)
+	 * 
+	 * @post | result >= 0
+	 */
+	
+	public synchronized long getPercentile(double p) {
+		if (!(0 <= p && p <= 1))
+			throw new IllegalArgumentException("p should be between 0 and 1");
+		if (count == 0)
+			return 0;
+		long rank = Math.max(1, (long)Math.ceil(p * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+			seen += buckets[bucket];
+			if (seen >= rank)
+				return Math.min(max, 1000L << bucket);
+		}
+		return max;
+	}
+}
@@ -0,0 +1,82 @@
+package breakout.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import breakout.GameMap;
+
+/**
+ * Runs many sessions of {@code GameMap.DEFAULT_MAP} at the same time for a while, sending them random paddle directions,
+ * and reports how many ticks were simulated and how late they started. It does so once with a session per thread and once with
+ * the sessions spread over a fixed set of worker threads, so the two hosts can be compared side by side.
+ * 
+ * Usage: {@code SessionBenchmark [--sessions N] [--seconds N] [--tick-ms N] [--workers N] [--host threads|workers|both]}.
+ */
+
+public class SessionBenchmark {
+	
+	private SessionBenchmark() {
+		throw new AssertionError("This class is not intended to be instantiated");
+	}
+	
+	public static void main(String[] args) throws InterruptedException {
+		int sessions = 10_000;
+		int seconds = 5;
+		int tickTime = GameMap.DEFAULT_TICK_TIME;
+		int workers = Runtime.getRuntime().availableProcessors();
+		String hosts = "both";
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "--sessions" -> sessions = Integer.parseInt(args[i + 1]);
+			case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+			case "--tick-ms" -> tickTime = Integer.parseInt(args[i + 1]);
+			case "--workers" -> workers = Integer.parseInt(args[i + 1]);
+			case "--host" -> hosts = args[i + 1];
+			default -> throw new IllegalArgumentException("unknown option " + args[i]);
+			}
+		}
+		
+		if (!hosts.equals("threads") && !hosts.equals("workers") && !hosts.equals("both"))
+			throw new IllegalArgumentException("unknown host " + hosts);
+		
+		if (!hosts.equals("workers")) {
+			try (VirtualThreadSessionHost host = new VirtualThreadSessionHost()) {
+				String name = host.isUsingVirtualThreads() ? "virtual threads" : "platform threads";
+				System.out.println(report(name, host, sessions, seconds, tickTime));
+			}
+		}
+		if (!hosts.equals("threads")) {
+			try (WorkerSessionHost host = new WorkerSessionHost(workers)) {
+				System.out.println(report(workers + " workers", host, sessions, seconds, tickTime));
+			}
+		}
+	}
+	
+	/**
+	 * Creates {@code sessions} sessions on {@code host}, sends them random directions for {@code seconds} seconds, and returns a report.
+	 */
+	
+	static String report(String name, SessionHost host, int sessions, int seconds, int tickTime) throws InterruptedException {
+		long start = System.nanoTime();
+		// The host forgets the sessions that finish, so the benchmark keeps them itself to count their ticks.
+		List<GameSession> all = new ArrayList<>();
+		for (int i = 0; i < sessions; i++)
+			all.add(host.create(GameMap.createStateFromDescription(GameMap.DEFAULT_MAP), tickTime));
+		Random random = new Random(0);
+		long end = start + seconds * 1_000_000_000L;
+		while (System.nanoTime() < end) {
+			for (GameSession session : all)
+				session.send(random.nextInt(3) - 1);
+			Thread.sleep(50);
+		}
+		long ticks = 0;
+		for (GameSession session : all)
+			ticks += session.getTicks();
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		JitterHistogram jitter = host.getJitter();
+		return String.format(Locale.ROOT, "%s: %d sessions, %d ticks in %.1f s (%.0f ticks/s), tick delay p50=%.3f ms p99=%.3f ms max=%.3f ms",
+				name, sessions, ticks, elapsed, ticks / elapsed, jitter.getPercentile(0.5) / 1e6, jitter.getPercentile(0.99) / 1e6, jitter.getMax() / 1e6);
+	}
+}
@@ -0,0 +1,51 @@
+package breakout.session;
+
+import java.util.List;
+
+import breakout.BreakoutState;
+
+/**
+ * Hosts live game sessions: creates them, ticks each of them on its own schedule until it finishes, and stops them.
+ */
+
+public interface SessionHost extends AutoCloseable {
+	
+	/**
+	 * Creates and starts a session that plays {@code state}, ticking it every {@code tickTime} milliseconds.
+	 * The session takes ownership of {@code state}.
+	 * 
+	 * @throws IllegalArgumentException if {@code state} is {@code null} or {@code tickTime} is not greater than 0
+	 * 		| state == null || tickTime <= 0
+	 * @throws IllegalStateException if this host has been closed
+	 * 
+	 * @post | result != null
+	 */
+	
+	GameSession create(BreakoutState state, int tickTime);
+	
+	/**
+	 * Returns a new list of the live sessions of this host, in the order they were created. A host forgets a session as soon as
+	 * the thread that ticks it notices it has finished, so that a long-lived host doesn't hold on to the games of finished sessions; a session
+	 * that has just finished may still be listed until then.
+	 * 
+	 * @creates | result
+	 */
+	
+	List<GameSession> getSessions();
+	
+	/**
+	 * Returns a new histogram that combines the tick delays of all sessions this host has created, including the finished ones.
+	 * 
+	 * @creates | result
+	 */
+	
+	JitterHistogram getJitter();
+	
+	/**
+	 * Stops all sessions, waits until they have finished and releases the threads of this host.
+	 * Closing a host that has been closed already has no effect.
+	 */
+	
+	@Override
+	void close();
+}
@@ -0,0 +1,129 @@
+package breakout.session;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.Ball;
+import breakout.BlockState;
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.Point;
+import breakout.Vector;
+
+class SessionHostTest {
+
+	static BreakoutFacade facade = new BreakoutFacade();
+
+	static BreakoutState game(Point ballCenter, Vector ballVelocity) {
+		return facade.createBreakoutState(new Ball[] {facade.createNormalBall(ballCenter, 100, ballVelocity)},
+				new BlockState[] {facade.createNormalBlockState(new Point(0, 0), new Point(1000, 500))},
+				new Point(50000, 30000), facade.createNormalPaddleState(new Point(25000, 28000)));
+	}
+
+	@Test
+	void testJitterHistogram() {
+		JitterHistogram histogram = new JitterHistogram();
+		assertEquals(0, histogram.getPercentile(0.99));
+		for (int i = 0; i < 99; i++)
+			histogram.record(500);
+		histogram.record(3_000_000);
+		assertEquals(100, histogram.getCount());
+		assertEquals(1000, histogram.getPercentile(0.99));
+		assertEquals(3_000_000, histogram.getPercentile(1));
+		assertEquals(3_000_000, histogram.getMax());
+
+		JitterHistogram total = new JitterHistogram();
+		total.add(histogram);
+		total.record(-5);
+		assertEquals(101, total.getCount());
+		assertThrows(IllegalArgumentException.class, () -> total.getPercentile(1.5));
+	}
+
+	@Test
+	void testSessionLifecycle() throws InterruptedException {
+		try (SessionHost host = new VirtualThreadSessionHost()) {
+			lifecycle(host);
+			awaitNoSessions(host);
+		}
+		try (SessionHost host = new WorkerSessionHost(2)) {
+			lifecycle(host);
+			awaitNoSessions(host);
+		}
+	}
+
+	static void lifecycle(SessionHost host) throws InterruptedException {
+		GameSession falling = host.create(game(new Point(1000, 29000), new Vector(0, 10)), 5);
+		GameSession steered = host.create(game(new Point(40000, 20000), new Vector(0, -1)), 5);
+		assertThrows(IllegalArgumentException.class, () -> steered.send(2));
+		assertThrows(IllegalStateException.class, () -> steered.getState());
+
+		assertTrue(falling.join(10_000));
+		assertEquals(GameSession.Status.DEAD, falling.getStatus());
+		assertTrue(falling.getState().isDead());
+
+		steered.send(1);
+		long sent = steered.getTicks();
+		while (steered.getTicks() < sent + 3)
+			Thread.sleep(5);
+		steered.stop();
+		steered.join();
+		assertEquals(GameSession.Status.STOPPED, steered.getStatus());
+		assertTrue(steered.getState().getPaddleCenterX() > 25000);
+		assertEquals(falling.getTicks() + steered.getTicks(), host.getJitter().getCount());
+	}
+
+	/**
+	 * Waits until {@code host} has forgotten all its sessions, and checks that it still counts their tick delays.
+	 */
+	static void awaitNoSessions(SessionHost host) throws InterruptedException {
+		long jitter = host.getJitter().getCount();
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (!host.getSessions().isEmpty() && System.nanoTime() < deadline)
+			Thread.sleep(5);
+		assertEquals(0, host.getSessions().size());
+		assertEquals(jitter, host.getJitter().getCount());
+	}
+
+	@Test
+	void testCloseStopsSessions() throws InterruptedException {
+		closeStopsSessions(new VirtualThreadSessionHost());
+		closeStopsSessions(new WorkerSessionHost(2));
+	}
+
+	static void closeStopsSessions(SessionHost host) throws InterruptedException {
+		GameSession session = host.create(game(new Point(40000, 20000), new Vector(0, -1)), 1000);
+		host.close();
+		assertEquals(GameSession.Status.STOPPED, session.getStatus());
+		assertTrue(host.getSessions().isEmpty());
+		assertThrows(IllegalStateException.class, () -> host.create(game(new Point(40000, 20000), new Vector(0, -1)), 10));
+		host.close();
+	}
+
+	@Test
+	void testWorkersShareSessions() throws InterruptedException {
+		assertThrows(IllegalArgumentException.class, () -> new WorkerSessionHost(0));
+		try (WorkerSessionHost host = new WorkerSessionHost(3)) {
+			GameSession[] falling = new GameSession[12];
+			for (int i = 0; i < 24; i++) {
+				if (i % 2 == 0)
+					falling[i / 2] = host.create(game(new Point(1000, 29000), new Vector(0, 10)), 5);
+				else
+					host.create(game(new Point(40000, 20000), new Vector(0, -1)), 5);
+			}
+			for (GameSession session : falling)
+				assertTrue(session.join(10_000));
+
+			long deadline = System.nanoTime() + 10_000_000_000L;
+			int[] loads;
+			do {
+				Thread.sleep(5);
+				loads = host.getWorkerLoads();
+			} while (java.util.Arrays.stream(loads).sum() != 12 && System.nanoTime() < deadline);
+			assertEquals(12, java.util.Arrays.stream(loads).sum());
+			for (int load : loads)
+				assertTrue(load <= 4 + WorkerSessionHost.REBALANCE_SLACK);
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package breakout.session;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import breakout.BreakoutState;
+
+/**
+ * A session host that runs the loop of every session on a thread of its own.
+ * 
+ * On a Java runtime with virtual threads, each session gets a virtual thread, so tens of thousands of sessions only cost a few
+ * kilobytes of stack each and a sleeping session doesn't hold on to a carrier thread. The project targets Java 17, which has no
+ * virtual threads, so they are looked up by reflection; without them each session gets a daemon platform thread with a small stack.
+ */
+
+public class VirtualThreadSessionHost implements SessionHost {
+	
+	/**
+	 * The stack size of the platform threads used when virtual threads are not available. A session's loop needs very little stack.
+	 */
+	
+	private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+	
+	private final ThreadFactory threads;
+	private final boolean virtual;
+	private final AtomicLong nextId = new AtomicLong();
+	
+	/**
+	 * @invar | sessions != null
+	 * @invar | finishedJitter != null
+	 * 
+	 * The live sessions, in the order they were created, each with its thread. When a session's thread ends, it removes the session
+	 * and adds its tick delays to {@code finishedJitter}.
+	 */
+	
+	private final Map<GameSession, Thread> sessions = new LinkedHashMap<>();
+	private final JitterHistogram finishedJitter = new JitterHistogram();
+	private boolean closed;
+	
+	/**
+	 * Initializes this host so that it uses virtual threads if the Java runtime has them, and platform threads otherwise.
+	 */
+	
+	public VirtualThreadSessionHost() {
+		ThreadFactory factory = virtualThreadFactory();
+		virtual = factory != null;
+		threads = virtual ? factory : task -> {
+			Thread thread = new Thread(null, task, "session", PLATFORM_STACK_SIZE);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+	
+	/**
+	 * Returns {@code Thread.ofVirtual().factory()}, or {@code null} if the Java runtime has no virtual threads.
+	 */
+	
+	private static ThreadFactory virtualThreadFactory() {
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			Object builder = ofVirtual.invoke(null);
+			Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+			return (ThreadFactory)factory.invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns whether this host runs its sessions on virtual threads.
+	 */
+	
+	public boolean isUsingVirtualThreads() {
+		return virtual;
+	}
+	
+	@Override
+	public GameSession create(BreakoutState state, int tickTime) {
+		if (state == null || tickTime <= 0)
+			throw new IllegalArgumentException("state can't be null and tickTime should be greater than 0");
+		GameSession session = new GameSession(nextId.getAndIncrement(), state, tickTime);
+		Thread thread = threads.newThread(() -> runSession(session));
+		synchronized (this) {
+			if (closed)
+				throw new IllegalStateException("this host has been closed");
+			sessions.put(session, thread);
+		}
+		session.start(System.nanoTime());
+		thread.start();
+		return session;
+	}
+	
+	private void runSession(GameSession session) {
+		try {
+			do {
+				long delay;
+				while (!session.isStopRequested() && (delay = session.getDeadline() - System.nanoTime()) > 0)
+					LockSupport.parkNanos(delay);
+			} while (session.tick(System.nanoTime()));
+		} finally {
+			session.finish(GameSession.Status.STOPPED);
+			retire(session);
+		}
+	}
+	
+	private synchronized void retire(GameSession session) {
+		sessions.remove(session);
+		finishedJitter.add(session.getJitter());
+	}
+	
+	@Override
+	public synchronized List<GameSession> getSessions() {
+		return new ArrayList<>(sessions.keySet());
+	}
+	
+	@Override
+	public synchronized JitterHistogram getJitter() {
+		JitterHistogram result = new JitterHistogram();
+		result.add(finishedJitter);
+		for (GameSession session : sessions.keySet())
+			result.add(session.getJitter());
+		return result;
+	}
+	
+	@Override
+	public void close() {
+		List<GameSession> toStop;
+		List<Thread> toJoin;
+		synchronized (this) {
+			closed = true;
+			toStop = new ArrayList<>(sessions.keySet());
+			toJoin = new ArrayList<>(sessions.values());
+		}
+		for (GameSession session : toStop)
+			session.stop();
+		// Wakes up the sessions that are waiting for their next tick, so they stop right away.
+		for (Thread thread : toJoin)
+			LockSupport.unpark(thread);
+		boolean interrupted = false;
+		for (Thread thread : toJoin) {
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+}
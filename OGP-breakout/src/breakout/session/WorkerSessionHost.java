@@ -0,0 +1,254 @@
+package breakout.session;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import breakout.BreakoutState;
+
+/**
+ * A session host that runs all sessions on a fixed set of worker threads, one per processor by default.
+ * 
+ * Every session belongs to one worker at a time, and only that worker touches it. A worker loops over its sessions, ticks the ones
+ * that are due, draining their mailboxes, and then sleeps until its earliest next deadline. A new session goes to the worker that
+ * owns the fewest sessions. After every round, a worker that owns more than its share hands its surplus sessions over to the worker
+ * that owns the fewest, through that worker's queue of incoming sessions, which also makes the handover safe.
+ * 
+ * Java can't pin threads to processors, so the workers are ordinary platform threads; with one worker per processor the operating
+ * system rarely needs to move them.
+ * 
+ * @invar | getWorkerCount() >= 1
+ */
+
+public class WorkerSessionHost implements SessionHost {
+	
+	/**
+	 * How many sessions more than the average a worker may own before it hands sessions over to another worker.
+	 */
+	
+	static final int REBALANCE_SLACK = 2;
+	
+	/**
+	 * @invar | workers != null && workers.length >= 1
+	 * @invar | sessions != null
+	 * @invar | finishedJitter != null
+	 * 
+	 * The live sessions, in the order they were created. When a worker sees a session finish, it removes the session and adds its
+	 * tick delays to {@code finishedJitter}.
+	 */
+	
+	private final Worker[] workers;
+	private final AtomicLong nextId = new AtomicLong();
+	private final LinkedHashSet<GameSession> sessions = new LinkedHashSet<>();
+	private final JitterHistogram finishedJitter = new JitterHistogram();
+	private volatile boolean closed;
+	
+	/**
+	 * Initializes this host so that it runs its sessions on {@code workerCount} worker threads.
+	 * 
+	 * @throws IllegalArgumentException if {@code workerCount} is less than 1
+	 * 		| workerCount < 1
+	 * 
+	 * @post | getWorkerCount() == workerCount
+	 */
+	
+	public WorkerSessionHost(int workerCount) {
+		if (workerCount < 1)
+			throw new IllegalArgumentException("workerCount should be at least 1");
+		workers = new Worker[workerCount];
+		for (int i = 0; i < workerCount; i++)
+			workers[i] = new Worker(i);
+		for (Worker worker : workers)
+			worker.thread.start();
+	}
+	
+	/**
+	 * Initializes this host so that it runs its sessions on one worker thread per processor.
+	 * 
+	 * @post | getWorkerCount() == Runtime.getRuntime().availableProcessors()
+	 */
+	
+	public WorkerSessionHost() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/** Returns the amount of worker threads of this host. */
+	public int getWorkerCount() {
+		return workers.length;
+	}
+	
+	/**
+	 * Returns how many sessions each worker owns at the moment, indexed by worker.
+	 * 
+	 * @creates | result
+	 * 
+	 * @post | result.length == getWorkerCount()
+	 */
+	
+	public int[] getWorkerLoads() {
+		int[] loads = new int[workers.length];
+		for (int i = 0; i < workers.length; i++)
+			loads[i] = workers[i].load;
+		return loads;
+	}
+	
+	@Override
+	public GameSession create(BreakoutState state, int tickTime) {
+		if (state == null || tickTime <= 0)
+			throw new IllegalArgumentException("state can't be null and tickTime should be greater than 0");
+		GameSession session = new GameSession(nextId.getAndIncrement(), state, tickTime);
+		synchronized (this) {
+			if (closed)
+				throw new IllegalStateException("this host has been closed");
+			sessions.add(session);
+			// Handing the session over while holding the lock makes sure a closing host's workers see it before they quit.
+			session.start(System.nanoTime());
+			leastLoadedWorker().hand(session);
+		}
+		return session;
+	}
+	
+	@Override
+	public synchronized List<GameSession> getSessions() {
+		return new ArrayList<>(sessions);
+	}
+	
+	private synchronized void retire(GameSession session) {
+		sessions.remove(session);
+		finishedJitter.add(session.getJitter());
+	}
+	
+	@Override
+	public synchronized JitterHistogram getJitter() {
+		JitterHistogram result = new JitterHistogram();
+		result.add(finishedJitter);
+		for (GameSession session : sessions)
+			result.add(session.getJitter());
+		return result;
+	}
+	
+	@Override
+	public void close() {
+		List<GameSession> toStop;
+		synchronized (this) {
+			closed = true;
+			toStop = new ArrayList<>(sessions);
+		}
+		for (GameSession session : toStop)
+			session.stop();
+		boolean interrupted = false;
+		for (Worker worker : workers) {
+			LockSupport.unpark(worker.thread);
+			while (worker.thread.isAlive()) {
+				try {
+					worker.thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		// A worker may have handed sessions to a worker that had already quit; nobody will tick those anymore.
+		for (Worker worker : workers) {
+			for (GameSession session = worker.incoming.poll(); session != null; session = worker.incoming.poll()) {
+				session.finish(GameSession.Status.STOPPED);
+				retire(session);
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+	
+	private Worker leastLoadedWorker() {
+		Worker result = workers[0];
+		for (Worker worker : workers) {
+			if (worker.load + worker.incoming.size() < result.load + result.incoming.size())
+				result = worker;
+		}
+		return result;
+	}
+	
+	private int averageLoad() {
+		int total = 0;
+		for (Worker worker : workers)
+			total += worker.load;
+		return (total + workers.length - 1) / workers.length;
+	}
+	
+	private class Worker implements Runnable {
+		
+		/** The longest a worker sleeps, so that it notices a closed host even without being unparked. */
+		private static final long MAX_SLEEP = TimeUnit.MILLISECONDS.toNanos(100);
+		
+		final Thread thread;
+		/** Sessions handed to this worker by the host or by other workers. */
+		final ConcurrentLinkedQueue<GameSession> incoming = new ConcurrentLinkedQueue<>();
+		/** The sessions this worker owns; only used by this worker's thread. */
+		private final ArrayList<GameSession> owned = new ArrayList<>();
+		/** The amount of sessions this worker owns, published for the host and the other workers. */
+		volatile int load;
+		
+		Worker(int index) {
+			thread = new Thread(this, "session-worker-" + index);
+			thread.setDaemon(true);
+		}
+		
+		void hand(GameSession session) {
+			incoming.add(session);
+			LockSupport.unpark(thread);
+		}
+		
+		@Override
+		public void run() {
+			while (true) {
+				for (GameSession session = incoming.poll(); session != null; session = incoming.poll())
+					owned.add(session);
+				load = owned.size();
+				if (closed && owned.isEmpty() && incoming.isEmpty())
+					return;
+				
+				long now = System.nanoTime();
+				long wake = now + MAX_SLEEP;
+				for (int i = 0; i < owned.size(); i++) {
+					GameSession session = owned.get(i);
+					boolean running = true;
+					if (session.isStopRequested() || session.getDeadline() - now <= 0)
+						running = session.tick(now);
+					if (!running) {
+						retire(session);
+						// Sessions are independent, so their order doesn't matter and the last one can fill the hole.
+						owned.set(i, owned.get(owned.size() - 1));
+						owned.remove(owned.size() - 1);
+						i--;
+					} else if (session.getDeadline() - wake < 0) {
+						wake = session.getDeadline();
+					}
+				}
+				load = owned.size();
+				rebalance();
+				
+				long delay = wake - System.nanoTime();
+				if (delay > 0 && incoming.isEmpty())
+					LockSupport.parkNanos(delay);
+			}
+		}
+		
+		private void rebalance() {
+			// Once the host is closed, other workers may have quit already, and a session handed to them would never finish.
+			if (closed)
+				return;
+			int surplus = owned.size() - averageLoad() - REBALANCE_SLACK;
+			if (surplus <= 0)
+				return;
+			Worker target = leastLoadedWorker();
+			if (target == this)
+				return;
+			for (int i = 0; i < surplus; i++)
+				target.hand(owned.remove(owned.size() - 1));
+			load = owned.size();
+		}
+	}
+}